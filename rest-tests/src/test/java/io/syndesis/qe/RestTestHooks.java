@@ -10,7 +10,10 @@ import cucumber.api.java.After;
 import io.fabric8.kubernetes.api.model.Pod;
 import io.syndesis.qe.bdd.storage.StepsStorage;
 import io.syndesis.qe.utils.OpenShiftUtils;
+import io.syndesis.qe.utils.PublishProfiler;
 import io.syndesis.qe.utils.SampleDbConnectionManager;
+import io.syndesis.qe.utils.logs.LogCursors;
+import io.syndesis.qe.utils.logs.ParallelLogScan;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -29,6 +32,8 @@ public class RestTestHooks {
         stepStorage.flushStepDefinitions();
         log.debug("Flushed steps from steps storage");
         SampleDbConnectionManager.closeConnections();
+        LogCursors.clear();
+        PublishProfiler.reset();
     }
 
     @After
@@ -37,15 +42,13 @@ public class RestTestHooks {
             log.warn("Scenario {} failed, saving server logs and integration logs to scenario", scenario.getName());
             scenario.embed(OpenShiftUtils.getInstance().getPodLog(OpenShiftUtils.getPodByPartialName("syndesis-server").get()).getBytes(), "text/plain");
             // There can be multiple integration pods for one test
-            List<Pod> integrationPods = OpenShiftUtils.client().pods().list().getItems().stream().filter(
+            List<Pod> integrationPods = OpenShiftUtils.getPods().stream().filter(
                     p -> p.getMetadata().getName().startsWith("i-")
                     && !p.getMetadata().getName().contains("deploy")
                     && !p.getMetadata().getName().contains("build")
             ).collect(Collectors.toList());
-            for (Pod integrationPod : integrationPods) {
-                scenario.embed(String.format("%s\n\n%s", integrationPod.getMetadata().getName(),
-                        OpenShiftUtils.getInstance().getPodLog(integrationPod)).getBytes(), "text/plain");
-            }
+            ParallelLogScan.readLogs(integrationPods).forEach((podName, podLog) ->
+                    scenario.embed(String.format("%s\n\n%s", podName, podLog).getBytes(), "text/plain"));
 
         }
     }
@@ -5,17 +5,35 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import javax.ws.rs.BadRequestException;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import cucumber.api.java.en.Then;
 import cucumber.api.java.en.When;
 import io.syndesis.common.model.integration.Integration;
+import io.syndesis.common.model.integration.IntegrationDeploymentState;
+import io.syndesis.common.model.integration.Step;
 import io.syndesis.common.model.integration.StepKind;
+import io.syndesis.qe.TestConfiguration;
 import io.syndesis.qe.bdd.datamapper.AtlasMapperGenerator;
 import io.syndesis.qe.bdd.entities.StepDefinition;
 import io.syndesis.qe.bdd.storage.StepsStorage;
+import io.syndesis.qe.endpoints.ActivityIntegrationsEndpoint;
+import io.syndesis.qe.endpoints.IntegrationOverviewEndpoint;
 import io.syndesis.qe.endpoints.IntegrationsEndpoint;
+import io.syndesis.qe.utils.PublishProfiler;
+import io.syndesis.qe.wait.AsyncWait;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -33,6 +51,10 @@ public class IntegrationHandler {
     @Autowired
     private IntegrationsEndpoint integrationsEndpoint;
     @Autowired
+    private IntegrationOverviewEndpoint integrationOverviewEndpoint;
+    @Autowired
+    private ActivityIntegrationsEndpoint activityIntegrationsEndpoint;
+    @Autowired
     private AtlasMapperGenerator atlasGenerator;
 
     public IntegrationHandler() {
@@ -59,7 +81,7 @@ public class IntegrationHandler {
         String integrationId = integrationsEndpoint.create(integration).getId().get();
         log.info("Publish integration with ID: {}", integrationId);
         if (desiredState.contentEquals("Published")) {
-            publishIntegration(integrationId);
+            publishIntegration(integrationName, integrationId);
         }
 
         //after the integration is created - the steps are cleaned for further use.
@@ -68,13 +90,70 @@ public class IntegrationHandler {
         steps.flushStepDefinitions();
     }
 
+    @When("^create (\\d+) integrations with name prefix: \"([^\"]*)\" and wait for them to become active$")
+    public void createActiveIntegrationsFromGivenSteps(int count, String namePrefix) {
+        final List<String> names = IntStream.rangeClosed(1, count).mapToObj(i -> namePrefix + "-" + i).collect(Collectors.toList());
+        // builds of many integrations queue up, so give each of them the usual 9 minutes on top of the others
+        deployIntegrations(names, TimeUnit.MINUTES.toMillis(Math.max(9, count)));
+    }
+
+    /**
+     * Creates and publishes an integration with each of the names from the steps currently in StepsStorage and waits until
+     * all of them are published. The REST calls are made concurrently, at most
+     * {@link TestConfiguration#integrationDeployParallelism()} at a time, and the builds run in parallel.
+     *
+     * @param integrationNames names of the integrations
+     * @param timeoutMs maximum time to wait for all integrations to be published
+     * @return integration name -> milliseconds from the publish request until the integration was published, slowest first
+     */
+    public Map<String, Long> deployIntegrations(List<String> integrationNames, long timeoutMs) {
+        processMapperSteps();
+        final List<Step> template = new ArrayList<>(steps.getSteps());
+        log.info("Deploying {} integrations", integrationNames.size());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(TestConfiguration.integrationDeployParallelism());
+        // the waits themselves, cancelling the composed futures wouldn't stop them
+        final Map<String, CompletableFuture<Long>> waits = new ConcurrentHashMap<>();
+        final AtomicBoolean finished = new AtomicBoolean();
+        try {
+            final Map<String, CompletableFuture<Long>> deployments = new LinkedHashMap<>();
+            for (String name : integrationNames) {
+                deployments.put(name, CompletableFuture.supplyAsync(() -> createAndPublish(template, name), executor).thenCompose(id -> {
+                    // the overview is a REST call, so it is polled on the deploy executor rather than the shared evaluator
+                    final CompletableFuture<Long> wait = AsyncWait.until(name + " published", () -> isPublished(id), timeoutMs, executor);
+                    waits.put(name, wait);
+                    if (finished.get()) {
+                        wait.cancel(true);
+                    }
+                    return wait;
+                }));
+            }
+            final Map<String, Long> timeToPublished = AsyncWait.awaitAll(deployments);
+            final List<Long> sorted = new ArrayList<>(timeToPublished.values());
+            log.info("All {} integrations published, time to Published: median {} s, max {} s", sorted.size(),
+                    TimeUnit.MILLISECONDS.toSeconds(sorted.get(sorted.size() / 2)), TimeUnit.MILLISECONDS.toSeconds(sorted.get(0)));
+            return timeToPublished;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Deployment of integrations failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while deploying integrations", e);
+        } finally {
+            finished.set(true);
+            waits.values().forEach(wait -> wait.cancel(true));
+            executor.shutdownNow();
+            log.debug("Flushing used steps");
+            steps.flushStepDefinitions();
+        }
+    }
+
     @When("^set integration with name: \"([^\"]*)\" to desiredState: \"([^\"]*)\"")
     public void changeIntegrationState(String integrationName, String desiredState) {
 
         String integrationId = integrationsEndpoint.getIntegrationId(integrationName).get();
         log.info("Updating integration \"{}\" to state \"{}\"", integrationName, desiredState);
         if (desiredState.contentEquals("Published")) {
-            publishIntegration(integrationId);
+            publishIntegration(integrationName, integrationId);
         }
         if (desiredState.contentEquals("Unpublished")) {
             unpublishIntegration(integrationId);
@@ -102,12 +181,37 @@ public class IntegrationHandler {
     }
 
     /**
-     * Publish integration
+     * Publish integration and start profiling of its deployment.
      *
+     * @param integrationName name of integration to be published
      * @param integrationId id of integration to be published
      */
-    private void publishIntegration(String integrationId) {
-        integrationsEndpoint.activateIntegration(integrationId);
+    private void publishIntegration(String integrationName, String integrationId) {
+        // started before the request, so that the deployment it triggers isn't mistaken for a previous one
+        final PublishProfiler.Timeline timeline = PublishProfiler.start(integrationName, integrationId, activityIntegrationsEndpoint);
+        try {
+            integrationsEndpoint.activateIntegration(integrationId);
+            timeline.accepted();
+        } catch (RuntimeException e) {
+            PublishProfiler.stop(integrationId);
+            throw e;
+        }
+    }
+
+    private String createAndPublish(List<Step> template, String integrationName) {
+        final Integration integration = new Integration.Builder()
+                .steps(template)
+                .name(integrationName)
+                .description("Awkward integration.")
+                .build();
+        final String integrationId = integrationsEndpoint.create(integration).getId().get();
+        log.info("Publish integration {} with ID: {}", integrationName, integrationId);
+        publishIntegration(integrationName, integrationId);
+        return integrationId;
+    }
+
+    private boolean isPublished(String integrationId) {
+        return integrationOverviewEndpoint.getOverview(integrationId).getCurrentState() == IntegrationDeploymentState.Published;
     }
 
     /**
@@ -118,6 +222,7 @@ public class IntegrationHandler {
     private void unpublishIntegration(String integrationId) {
         int integrationVersion = integrationsEndpoint.get(integrationId).getVersion();
         log.info("Undeploying integration with integration version: {}", integrationVersion);
+        PublishProfiler.stop(integrationId);
         integrationsEndpoint.deactivateIntegration(integrationId, integrationVersion);
     }
 
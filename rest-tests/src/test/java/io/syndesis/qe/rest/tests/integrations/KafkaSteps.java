@@ -61,10 +61,38 @@ public class KafkaSteps extends AbstractStep {
         steps.getStepDefinitions().add(new StepDefinition(kafkaStep));
     }
 
+    @When("^create Kafka publish step with topic \"([^\"]*)\"$")
+    public void createKafkaPublishStep(String topic) {
+        init("kafka-publish-action", topic);
+
+        final Step kafkaStep = new Step.Builder()
+                .stepKind(StepKind.endpoint)
+                .id(UUID.randomUUID().toString())
+                .connection(kafkaConnection)
+                .action(kafkaAction)
+                .configuredProperties(properties)
+                .build();
+
+        steps.getStepDefinitions().add(new StepDefinition(kafkaStep));
+    }
+
     @Given("^create Kafka subscribe step with topic \"([^\"]*)\"$")
     public void createKafkaSubscribeStepWithTopic(String topic) {
         init("kafka-subscribe-action", topic);
+        addSubscribeStep();
+    }
+
+    /**
+     * The consumer group is set explicitly so that its lag can be checked after the integration consumed the messages.
+     */
+    @Given("^create Kafka subscribe step with topic \"([^\"]*)\" and consumer group \"([^\"]*)\"$")
+    public void createKafkaSubscribeStepWithTopicAndGroup(String topic, String groupId) {
+        init("kafka-subscribe-action", topic);
+        properties.put("groupId", groupId);
+        addSubscribeStep();
+    }
 
+    private void addSubscribeStep() {
         final Step kafkaStep = new Step.Builder()
                 .stepKind(StepKind.endpoint)
                 .id(UUID.randomUUID().toString())
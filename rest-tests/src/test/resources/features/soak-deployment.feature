@@ -110,3 +110,44 @@ Feature: soak deployment
     And wait for integration with name: "stats-guess" to become active
 
 
+
+  @soak-jms-load
+  Scenario: AMQ to AMQ throughput and latency
+    Given deploy AMQ broker and add accounts
+      And create AMQ connection
+      And clean destination type "queue" with name "load-in"
+      And clean destination type "queue" with name "load-out"
+      And create AMQ "subscribe" action step with destination type "queue" and destination name "load-in"
+      And create AMQ "publish" action step with destination type "queue" and destination name "load-out"
+    When create integration with name: "amq-load"
+    Then wait for integration with name: "amq-load" to become active
+    When send 100 JMS messages per second from 4 producers to queue "load-in" for 60 seconds and consume them from queue "load-out"
+    Then verify that JMS load had no lost or duplicated messages
+      And verify that JMS load had throughput at least 90 messages per second and p99 latency below 1000 ms
+
+  @soak-kafka-load
+  Scenario: Kafka to Kafka throughput and lag
+    Given deploy Kafka broker and add account
+      And create Kafka connection
+      And create Kafka topic "load-in" with 6 partitions
+      And create Kafka topic "load-out" with 6 partitions
+      And create Kafka subscribe step with topic "load-in" and consumer group "kafka-load"
+      And create Kafka publish step with topic "load-out"
+    When create integration with name: "kafka-load"
+    Then wait for integration with name: "kafka-load" to become active
+    When send 20000 Kafka messages per second of 512 bytes with 100 keys to topic "load-in" for 60 seconds and consume them from topic "load-out"
+    Then verify that Kafka load had no lost or duplicated messages
+      And verify that Kafka load had throughput at least 18000 messages per second and p99 latency below 2000 ms
+      And verify that lag of Kafka consumer group "kafka-load" on topic "load-in" is at most 0 messages per partition
+
+  # needs syndesis.config.max.integrations.per.user set to at least 50
+  @soak-bulk-deployment
+  Scenario: bulk timer integrations
+    When add "timer" endpoint with connector id "timer" and "timer-action" action and with properties:
+      | action       | period |
+      | timer-action | 60000  |
+    And add "log" endpoint with connector id "log" and "log-action" action and with properties:
+      | showBody |
+      | true     |
+    Then create 50 integrations with name prefix: "bulk-timer" and wait for them to become active
+    And log publish profile of all integrations
@@ -16,6 +16,7 @@ Feature: Timer connector
     And wait for integration with name: "timer-to-http" to become active
 
     Then verify that after "2.5" seconds there were "2" calls
+    And verify that endpoint calls came every 1000 ms with jitter below 500 ms
 
 
   Scenario: Cron Timer
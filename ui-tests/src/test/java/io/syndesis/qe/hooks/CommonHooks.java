@@ -2,7 +2,9 @@ package io.syndesis.qe.hooks;
 
 import io.syndesis.qe.templates.AmqTemplate;
 import io.syndesis.qe.templates.MysqlTemplate;
+import io.syndesis.qe.utils.PublishProfiler;
 import io.syndesis.qe.utils.SampleDbConnectionManager;
+import io.syndesis.qe.utils.logs.LogCursors;
 import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
@@ -27,6 +29,8 @@ public class CommonHooks {
     public void closeDBConnection() {
         log.debug("Closing DB connection if it exists");
         SampleDbConnectionManager.closeConnections();
+        LogCursors.clear();
+        PublishProfiler.reset();
     }
 
     @After("@integrations-mqtt,@integrations-amqp-to-amqp,@integrations-openwire-to-openwire")
@@ -49,7 +49,7 @@ public class SupportPage extends SyndesisPageObject {
     public File downloadZipLogs() throws InterruptedException {
         getButton("Download").shouldBe(visible).click();
 
-        Assertions.assertThat(TestUtils.waitForEvent(File::exists,
+        Assertions.assertThat(TestUtils.waitForEvent("downloaded logs", File::exists,
                 () -> new File(CustomWebDriverProvider.DOWNLOAD_DIR + File.separator + "syndesis.zip"),
                 TimeUnit.MINUTES, 5, TimeUnit.SECONDS, 5))
                 .isTrue();
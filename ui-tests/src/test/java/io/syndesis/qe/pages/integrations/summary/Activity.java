@@ -121,7 +121,7 @@ public class Activity extends SyndesisPageObject {
 
         String podName = activity.getPod();
 
-        Optional<Pod> buildPod = OpenShiftUtils.getInstance().getPods().stream().filter(p -> p.getMetadata().getName().equals(podName)).findFirst();
+        Optional<Pod> buildPod = OpenShiftUtils.getPod(podName);
 
         if (buildPod.isPresent()) {
             String logText = OpenShiftUtils.getInstance().getPodLog(buildPod.get());
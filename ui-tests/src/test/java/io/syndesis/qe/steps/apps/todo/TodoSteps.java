@@ -35,7 +35,8 @@ public class TodoSteps {
 
     @Then("^.* goes to Todo app$")
     public void openTodoApp() {
-        String url = "http://" + OpenShiftUtils.getInstance().getRoute("todo").getSpec().getHost();
+        String url = "http://" + OpenShiftUtils.getRoute("todo")
+                .orElseThrow(() -> new IllegalStateException("Route todo not found, is the Todo app deployed?")).getSpec().getHost();
         log.info("Opening Todo app on url: " + url);
         getWebDriver().navigate().to(url);
     }
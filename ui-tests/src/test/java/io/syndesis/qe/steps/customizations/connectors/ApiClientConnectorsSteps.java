@@ -4,11 +4,13 @@ import com.codeborne.selenide.ElementsCollection;
 import cucumber.api.DataTable;
 import cucumber.api.java.en.Then;
 import io.fabric8.openshift.api.model.Route;
+import io.fabric8.openshift.api.model.RouteBuilder;
 import io.syndesis.qe.pages.customizations.connectors.ApiClientConnectors;
 import io.syndesis.qe.pages.customizations.connectors.wizard.steps.ReviewActions;
 import io.syndesis.qe.steps.CommonSteps;
 import io.syndesis.qe.steps.customizations.connectors.wizard.WizardSteps;
 import io.syndesis.qe.utils.OpenShiftUtils;
+import io.syndesis.qe.utils.cache.NamespaceCache;
 import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.By;
 
@@ -27,6 +29,7 @@ import static org.junit.Assert.fail;
 
 @Slf4j
 public class ApiClientConnectorsSteps {
+    private static final long CACHE_TIMEOUT_MS = 30000L;
 
     private static ApiClientConnectors apiClientConnectorsPage = new ApiClientConnectors();
     private static ReviewActions reviewActions = new ReviewActions();
@@ -184,9 +187,13 @@ public class ApiClientConnectorsSteps {
                         //| details | routeHost | <routeName> |
                         case "routeHost":
                             log.info("Setting up hostname of the used route property");
-                            Route route = OpenShiftUtils.getInstance().getRoute(property.get(2));
+                            final String routeName = property.get(2);
+                            // copy, the cached route must not be modified
+                            Route route = new RouteBuilder(OpenShiftUtils.getRoute(routeName)
+                                    .orElseThrow(() -> new IllegalStateException("Route " + routeName + " not found"))).build();
                             route.getSpec().getTls().setInsecureEdgeTerminationPolicy("Allow");
-                            OpenShiftUtils.client().routes().createOrReplace(route);
+                            route = OpenShiftUtils.client().routes().createOrReplace(route);
+                            NamespaceCache.routes().awaitFresh(route, CACHE_TIMEOUT_MS);
                             host = "http://" + route.getSpec().getHost();
                         case "baseUrl":
                             baseUrl = property.get(2);
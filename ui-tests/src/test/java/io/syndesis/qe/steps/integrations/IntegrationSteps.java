@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
 
 import static com.codeborne.selenide.Condition.visible;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -65,7 +66,7 @@ public class IntegrationSteps {
     @Then("^wait until integration \"([^\"]*)\" gets into \"([^\"]*)\" state$")
     public void waitForIntegrationState(String integrationName, String integrationStatus) {
         SelenideElement integration = integrations.getIntegration(integrationName);
-        assertThat(TestUtils.waitForEvent(
+        assertThat(TestUtils.waitForEvent("integration state in UI",
                 status -> status.equals(integrationStatus),
                 () -> integrations.getIntegrationItemStatus(integration),
                 TimeUnit.MINUTES, 10, TimeUnit.SECONDS, 1)
@@ -141,10 +142,12 @@ public class IntegrationSteps {
 
     @Then("^.*validate that logs of integration \"([^\"]*)\" contains string \"([^\"]*)\"$")
     public void checkThatLogsContain(final String integrationName, final String text) {
+        final Pattern pattern = Pattern.compile(text, Pattern.LITERAL);
         try {
-            OpenShiftWaitUtils.waitFor(() -> OpenShiftUtils.getIntegrationLogs(integrationName).contains(text), 60 * 1000L);
+            OpenShiftWaitUtils.waitFor(() -> OpenShiftUtils.integrationLogContains(integrationName, pattern), 60 * 1000L);
         } catch (TimeoutException | InterruptedException e) {
-            assertThat(OpenShiftUtils.getIntegrationLogs(integrationName)).containsIgnoringCase(text);
+            assertThat(OpenShiftUtils.integrationLogContains(integrationName, Pattern.compile(text, Pattern.LITERAL | Pattern.CASE_INSENSITIVE)))
+                    .as("Log of integration %s contains %s", integrationName, text).isTrue();
         }
     }
 
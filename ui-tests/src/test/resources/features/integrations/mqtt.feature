@@ -46,3 +46,40 @@ Feature: Integration - MQTT to MQTT
     Then wait until integration "MQTT publish-subscribe-request E2E" gets into "Running" state
 
     Then verify that when message is sent to "news" topic it is redirected to "olds" topic via integration
+
+#
+#  2. publish-subscribe load
+#
+  @mqtt-connection-publish-subscribe-load
+  Scenario: Publish subscribe throughput and loss
+    When navigate to the "Home" page
+    And click on the "Create Integration" button to create a new integration.
+    Then check visibility of visual integration editor
+
+    And check that position of connection to fill is "Start"
+    When select the "MQTT test connection" connection
+
+    And select "Subscribe" integration action
+    And fill in "topic" action configure component input with "load-in" value
+
+    And click on the "Next" button
+    And click on the "Done" button
+    Then check that position of connection to fill is "Finish"
+
+    When select the "MQTT test connection" connection
+    And select "Publish" integration action
+    And fill in "topic" action configure component input with "load-out" value
+
+    And click on the "Next" button
+    And click on the "Done" button
+
+    When click on the "Publish" button
+    And set integration name "MQTT publish-subscribe load E2E"
+    And click on the "Publish" button
+    Then check visibility of "MQTT publish-subscribe load E2E" integration details
+    Then navigate to the "Integrations" page
+    Then wait until integration "MQTT publish-subscribe load E2E" gets into "Running" state
+
+    When send 1000 MQTT messages per second with QoS 1 to topic "load-in" for 30 seconds and consume them from topic "load-out"
+    Then verify that MQTT load lost at most 0 % of messages
+    And verify that MQTT load had throughput at least 900 messages per second and p99 latency below 1000 ms
@@ -48,6 +48,26 @@ public class TestConfiguration {
 
     public static final String PROD_REPOSITORY = "syndesis.config.prod.repository";
 
+    public static final String HTTP_MAX_CONNECTIONS = "syndesis.config.http.max.connections";
+    public static final String HTTP_MAX_CONNECTIONS_PER_ROUTE = "syndesis.config.http.max.connections.per.route";
+    public static final String HTTP_KEEP_ALIVE = "syndesis.config.http.keepalive";
+    public static final String HTTP_CONNECTION_REQUEST_TIMEOUT = "syndesis.config.http.connection.request.timeout";
+    public static final String HTTP_SOCKET_TIMEOUT = "syndesis.config.http.socket.timeout";
+
+    public static final String REST_CACHE_TTL = "syndesis.config.rest.cache.ttl";
+
+    public static final String DB_BATCH_SIZE = "syndesis.config.db.batch.size";
+    public static final String DB_POOL_SIZE = "syndesis.config.db.pool.size";
+    public static final String DB_POOL_IDLE_TIMEOUT = "syndesis.config.db.pool.idle.timeout";
+    public static final String DB_POOL_LEAK_THRESHOLD = "syndesis.config.db.pool.leak.threshold";
+
+    public static final String MAX_INTEGRATIONS_PER_USER = "syndesis.config.max.integrations.per.user";
+    public static final String INTEGRATION_DEPLOY_PARALLELISM = "syndesis.config.integration.deploy.parallelism";
+    public static final String BUILD_REPORT_DIR = "syndesis.config.build.report.dir";
+    public static final String HTTP_ENDPOINTS_LOCAL = "syndesis.config.http.endpoints.local";
+    public static final String HTTP_ENDPOINTS_HOST = "syndesis.config.http.endpoints.host";
+    public static final String KAFKA_BOOTSTRAP_SERVERS = "syndesis.config.kafka.bootstrap.servers";
+
     private static final TestConfiguration INSTANCE = new TestConfiguration();
 
     private final Properties properties = new Properties();
@@ -133,6 +153,74 @@ public class TestConfiguration {
 
     public static String getDbAllocatorUrl(){ return get().readValue(DB_ALLOCATOR_URL, "localhost:8080"); }
 
+    public static int httpMaxConnections() { return Integer.parseInt(get().readValue(HTTP_MAX_CONNECTIONS, "100")); }
+
+    public static int httpMaxConnectionsPerRoute() { return Integer.parseInt(get().readValue(HTTP_MAX_CONNECTIONS_PER_ROUTE, "20")); }
+
+    /**
+     * @return how long an idle pooled connection is kept open, in seconds
+     */
+    public static int httpKeepAlive() { return Integer.parseInt(get().readValue(HTTP_KEEP_ALIVE, "30")); }
+
+    /**
+     * @return how long a request waits for a free pooled connection, in seconds
+     */
+    public static int httpConnectionRequestTimeout() { return Integer.parseInt(get().readValue(HTTP_CONNECTION_REQUEST_TIMEOUT, "60")); }
+
+    /**
+     * @return how long a request waits for data from the server, in seconds
+     */
+    public static int httpSocketTimeout() { return Integer.parseInt(get().readValue(HTTP_SOCKET_TIMEOUT, "300")); }
+
+    /**
+     * @return how long REST endpoint items and name lookups are served from the client side cache, in seconds
+     */
+    public static int restCacheTtl() { return Integer.parseInt(get().readValue(REST_CACHE_TTL, "60")); }
+
+    /**
+     * @return number of rows sent to the database in one JDBC batch
+     */
+    public static int dbBatchSize() { return Integer.parseInt(get().readValue(DB_BATCH_SIZE, "1000")); }
+
+    public static int dbPoolSize() { return Integer.parseInt(get().readValue(DB_POOL_SIZE, "5")); }
+
+    /**
+     * @return how long an unused pooled DB connection is kept open, in seconds
+     */
+    public static int dbPoolIdleTimeout() { return Integer.parseInt(get().readValue(DB_POOL_IDLE_TIMEOUT, "60")); }
+
+    /**
+     * @return how long a DB connection may be borrowed before it is reported as leaked, in seconds
+     */
+    public static int dbPoolLeakThreshold() { return Integer.parseInt(get().readValue(DB_POOL_LEAK_THRESHOLD, "300")); }
+
+    public static String maxIntegrationsPerUser() { return get().readValue(MAX_INTEGRATIONS_PER_USER, "5"); }
+
+    /**
+     * @return number of concurrent REST calls used when deploying integrations in bulk
+     */
+    public static int integrationDeployParallelism() { return Integer.parseInt(get().readValue(INTEGRATION_DEPLOY_PARALLELISM, "10")); }
+
+    /**
+     * @return directory for the JSON build efficiency reports of integrations
+     */
+    public static String buildReportDir() { return get().readValue(BUILD_REPORT_DIR, "target/build-reports"); }
+
+    /**
+     * @return whether to serve the HTTP endpoints from the test JVM instead of deploying them
+     */
+    public static boolean httpEndpointsLocal() { return Boolean.parseBoolean(get().readValue(HTTP_ENDPOINTS_LOCAL, "false")); }
+
+    /**
+     * @return host under which integrations reach the local HTTP endpoints, null for the address of this machine
+     */
+    public static String httpEndpointsHost() { return get().readValue(HTTP_ENDPOINTS_HOST); }
+
+    /**
+     * @return Kafka brokers the tests connect to, null for the broker URL of the kafka account
+     */
+    public static String kafkaBootstrapServers() { return get().readValue(KAFKA_BOOTSTRAP_SERVERS); }
+
     public static String prodRepository() {
         return get().readValue(PROD_REPOSITORY);
     }
@@ -8,7 +8,8 @@ import java.util.concurrent.TimeUnit;
 import io.fabric8.kubernetes.api.model.Secret;
 import io.syndesis.qe.bdd.CommonSteps;
 import io.syndesis.qe.utils.OpenShiftUtils;
-import io.syndesis.qe.utils.TestUtils;
+import io.syndesis.qe.utils.cache.NamespaceCache;
+import io.syndesis.qe.wait.Poller;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -26,10 +27,9 @@ public abstract class TestSuiteParent {
             Thread.sleep(10 * 1000);
         }
         log.info("Waiting to obtain namespace lock");
-        boolean isReady = TestUtils.waitForEvent(s -> !s.isPresent(),
-                () -> OpenShiftUtils.getInstance().getSecrets().stream().filter(s -> "test-lock".equals(s.getMetadata().getName())).findFirst(),
-                TimeUnit.MINUTES, 60,
-                TimeUnit.SECONDS, 15);
+        // the secrets may have been cached before the project was created or the lock was taken by another run
+        NamespaceCache.secrets().refresh();
+        boolean isReady = NamespaceCache.secrets().awaitAbsent("test-lock", TimeUnit.MINUTES.toMillis(60));
 
         if (isReady) {
             log.info("No lock present, namespace is ready");
@@ -50,6 +50,7 @@ public abstract class TestSuiteParent {
 
     @AfterClass
     public static void tearDown() {
+        log.info("Wait statistics:\n{}", Poller.summary());
         if (lockSecret != null) {
             if (TestConfiguration.namespaceCleanupAfter()) {
                 log.info("Cleaning namespace");
@@ -7,27 +7,29 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import java.io.IOException;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Pattern;
 
 import cucumber.api.java.en.Given;
 import cucumber.api.java.en.Then;
 import cucumber.api.java.en.When;
-import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.openshift.api.model.Build;
-import io.syndesis.common.model.connection.Connection;
 import io.syndesis.qe.Component;
 import io.syndesis.qe.TestConfiguration;
 import io.syndesis.qe.endpoints.ConnectionsEndpoint;
 import io.syndesis.qe.endpoints.TestSupport;
 import io.syndesis.qe.templates.SyndesisTemplate;
-import io.syndesis.qe.utils.LogCheckerUtils;
 import io.syndesis.qe.utils.OpenShiftUtils;
 import io.syndesis.qe.utils.TestUtils;
+import io.syndesis.qe.utils.logs.BuildLogAnalyzer;
+import io.syndesis.qe.utils.logs.BuildLogReport;
+import io.syndesis.qe.wait.AsyncWait;
+import io.syndesis.qe.wait.OpenShiftWaitUtils;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -52,7 +54,7 @@ public class CommonSteps {
     @Given("^clean all builds")
     public void cleanBuilds() {
         OpenShiftUtils.getInstance().getBuildConfigs().forEach(OpenShiftUtils.getInstance()::deleteBuildConfig);
-        OpenShiftUtils.getInstance().getBuilds().forEach(OpenShiftUtils.getInstance()::deleteBuild);
+        OpenShiftUtils.getBuilds().forEach(OpenShiftUtils.getInstance()::deleteBuild);
     }
 
     @When("^deploy Syndesis$")
@@ -67,26 +69,18 @@ public class CommonSteps {
 
     @Then("^wait for Syndesis to become ready")
     public void waitForSyndesis() {
-        EnumSet<Component> components = EnumSet.allOf(Component.class);
-
-        ExecutorService executorService = Executors.newFixedThreadPool(components.size());
-        components.forEach(c -> {
-            Runnable runnable = () ->
-                    OpenShiftUtils.xtf().waiters()
-                            .areExactlyNPodsReady(1, "syndesis.io/component", c.getName())
-                            .interval(TimeUnit.SECONDS, 20)
-                            .timeout(TimeUnit.MINUTES, 12)
-                            .assertEventually();
-            executorService.submit(runnable);
-        });
-
-        executorService.shutdown();
+        final Map<String, CompletableFuture<Long>> waits = new LinkedHashMap<>();
+        EnumSet.allOf(Component.class).forEach(c -> waits.put(c.getName(), AsyncWait.until(c.getName(),
+                OpenShiftWaitUtils.areExactlyNPodsReady("syndesis.io/component", c.getName(), 1), TimeUnit.MINUTES.toMillis(12))));
+
         try {
-            if (!executorService.awaitTermination(20, TimeUnit.MINUTES)) {
-                executorService.shutdownNow();
-                fail("Syndesis wasn't initilized in time");
-            }
+            final Map<String, Long> latencies = AsyncWait.awaitAll(waits);
+            final Map.Entry<String, Long> slowest = latencies.entrySet().iterator().next();
+            log.info("Syndesis is ready, {} was the last component to start after {} s", slowest.getKey(), TimeUnit.MILLISECONDS.toSeconds(slowest.getValue()));
+        } catch (ExecutionException e) {
+            fail("Syndesis wasn't initilized in time", e.getCause());
         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             fail("Syndesis wasn't initilized in time");
         }
     }
@@ -95,24 +89,27 @@ public class CommonSteps {
     public void verifyBuild(String integrationName, int duration) {
         String sanitizedName = integrationName.toLowerCase().replaceAll(" ", "-");
 
-        Optional<Build> s2iBuild = OpenShiftUtils.getInstance().getBuilds().stream().filter(b -> b.getMetadata().getName().contains(sanitizedName)).findFirst();
+        Optional<Build> s2iBuild = OpenShiftUtils.getBuilds().stream().filter(b -> b.getMetadata().getName().contains(sanitizedName)).findFirst();
 
         if (s2iBuild.isPresent()) {
             Build build = s2iBuild.get();
-            String buildPodName = build.getMetadata().getAnnotations().get("openshift.io/build.pod-name");
-            Optional<Pod> buildPod = OpenShiftUtils.getInstance().getPods().stream().filter(p -> p.getMetadata().getName().equals(buildPodName)).findFirst();
-            if (buildPod.isPresent()) {
+            final Optional<BuildLogAnalyzer> analyzer = BuildLogAnalyzer.forIntegration(integrationName);
+            if (analyzer.isPresent()) {
+                final BuildLogReport report;
                 try {
-                    boolean[] patternsInLogs = LogCheckerUtils.findPatternsInLogs(buildPod.get(), Pattern.compile(".*Downloading: \\b.*"));
-                    assertThat(patternsInLogs).containsOnly(false);
+                    analyzer.get().writeReport();
+                    report = analyzer.get().update();
                 } catch (IOException e) {
-                    e.printStackTrace();
+                    fail("Unable to analyze the build log of " + integrationName, e);
+                    return;
                 }
+                // lookups served by Indy are fine, only artifacts that had to come from elsewhere mean a slow build
+                assertThat(report.getIndyMisses()).as("Artifacts not served by the Indy repository: %s", report).isZero();
             }
 
             assertThat(build.getStatus().getPhase()).isEqualTo("Complete");
-            // % 1_000L is there to parse OpenShift ms format
-            assertThat(build.getStatus().getDuration() % 1_000L).isLessThan(duration * 60 * 1000);
+            // OpenShift reports the duration in nanoseconds
+            assertThat(TimeUnit.NANOSECONDS.toMillis(build.getStatus().getDuration())).isLessThan(TimeUnit.MINUTES.toMillis(duration));
         } else {
             fail("No build found for integration with name " + sanitizedName);
         }
@@ -124,8 +121,7 @@ public class CommonSteps {
         int i = 0;
         while (i < 10) {
             TestSupport.getInstance().resetDB();
-            Optional<Connection> optConnection = connectionsEndpoint.list().stream().filter(s -> s.getName().equals("PostgresDB")).findFirst();
-            if (optConnection.isPresent()) {
+            if (connectionsEndpoint.findIdByName("PostgresDB").isPresent()) {
                 return;
             }
             i++;
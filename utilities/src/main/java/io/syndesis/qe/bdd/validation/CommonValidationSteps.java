@@ -4,8 +4,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import org.springframework.beans.factory.annotation.Autowired;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -19,7 +20,10 @@ import io.syndesis.qe.endpoints.IntegrationOverviewEndpoint;
 import io.syndesis.qe.endpoints.IntegrationsEndpoint;
 import io.syndesis.qe.model.IntegrationOverview;
 import io.syndesis.qe.utils.OpenShiftUtils;
+import io.syndesis.qe.utils.PublishProfiler;
 import io.syndesis.qe.utils.TestUtils;
+import io.syndesis.qe.utils.cache.NamespaceCache;
+import io.syndesis.qe.utils.logs.BuildLogAnalyzer;
 import io.syndesis.qe.wait.OpenShiftWaitUtils;
 import lombok.extern.slf4j.Slf4j;
 
@@ -52,7 +56,7 @@ public class CommonValidationSteps {
         if (!activated) {
             log.error("Integration was not active after 9 minutes");
             log.error("Pod list: ");
-            for (Pod pod : OpenShiftUtils.client().pods().list().getItems()) {
+            for (Pod pod : OpenShiftUtils.getPods()) {
                 log.error(pod.getMetadata().getName());
 
                 if(pod.getMetadata().getName().toLowerCase().contains(integrationName.replaceAll(" ", "-").toLowerCase())) {
@@ -64,16 +68,32 @@ public class CommonValidationSteps {
         }
         assertThat(activated).isTrue();
         log.info("Integration pod has been started. It took {}s to build the integration.", TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - start));
+        PublishProfiler.timeline(integrationName).ifPresent(timeline -> log.info("Publish timeline of {} so far:\n{}", integrationName, timeline));
+        final Optional<BuildLogAnalyzer> buildLog = BuildLogAnalyzer.forIntegration(integrationName);
+        if (buildLog.isPresent()) {
+            try {
+                buildLog.get().writeReport();
+            } catch (IOException e) {
+                log.warn("Unable to write build report of integration {}: {}", integrationName, e.toString());
+            }
+        }
         if (System.getenv("WORKSPACE") != null) {
             log.info("Running on Jenkins, adding 2 min sleep");
             TestUtils.sleepIgnoreInterrupt(120000L);
         }
     }
 
+    @Then("^log publish profile of all integrations$")
+    public void logPublishProfile() {
+        log.info("Duration of integration publish phases [s]:\n{}", PublishProfiler.summary());
+    }
+
     @Then(value = "^verify there is s2i build running for integration: \"([^\"]*)\"$")
     public void verifyIntegrationBuildRunning(String integrationName) {
         final String sanitizedName = integrationName.toLowerCase().replaceAll(" ", "-");
-        final List<Build> builds = new ArrayList<>(OpenShiftUtils.getInstance().getBuilds());
+        // the build was just started by the publish, don't wait for the watch to deliver it
+        NamespaceCache.builds().refresh();
+        final List<Build> builds = OpenShiftUtils.getBuilds();
         assertThat(builds).isNotEmpty();
         assertThat(builds).filteredOn(build -> build.getMetadata().getLabels().get("buildconfig").contentEquals(sanitizedName)).isNotEmpty();
         log.info("There is build with name {} running", sanitizedName);
@@ -82,7 +102,8 @@ public class CommonValidationSteps {
     @Then(value = "^verify there are no s2i builds running for integration: \"([^\"]*)\"$")
     public void verifyNoIntegrationBuildRunning(String integrationName) {
         final String sanitizedName = integrationName.toLowerCase().replaceAll(" ", "-");
-        assertThat(new ArrayList<>(OpenShiftUtils.getInstance().getBuilds())).filteredOn(build -> build.getMetadata().getLabels().get("buildconfig").contentEquals(sanitizedName)).isEmpty();
+        NamespaceCache.builds().refresh();
+        assertThat(OpenShiftUtils.getBuilds()).filteredOn(build -> build.getMetadata().getLabels().get("buildconfig").contentEquals(sanitizedName)).isEmpty();
         log.info("There is no builds with name {} running", sanitizedName);
     }
 
@@ -115,7 +136,7 @@ public class CommonValidationSteps {
         } catch (InterruptedException ex) {
             log.error("Error: {}", ex);
         }
-        final List<Pod> pods = OpenShiftUtils.getInstance().getPods().stream().filter(
+        final List<Pod> pods = OpenShiftUtils.getPods().stream().filter(
                 b -> b.getMetadata().getName().contains(sanitizedName)).collect(Collectors.toList());
         assertThat(pods.stream().filter(p -> p.getStatus().getPhase().contentEquals("Running")).count() == podCount);
         log.info("There are {} pods with name {} running", podCount, sanitizedName);
@@ -137,6 +158,7 @@ public class CommonValidationSteps {
             if (currentDeployment.getCurrentState().equals(IntegrationDeploymentState.Published)) {
                 newDepState = IntegrationDeploymentState.Unpublished;
                 log.info("Unpublishing integration with integration version: {}", integrationVersion);
+                PublishProfiler.stop(integrationId);
                 integrationsEndpoint.deactivateIntegration(integrationId, integrationVersion);
             } else {
                 newDepState = IntegrationDeploymentState.Published;
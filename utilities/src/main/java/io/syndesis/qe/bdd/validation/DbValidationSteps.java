@@ -16,11 +16,16 @@ import org.apache.commons.lang.RandomStringUtils;
 import org.assertj.core.api.Assertions;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.sql.Date;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Iterator;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -50,15 +55,10 @@ public class DbValidationSteps {
     }
 
     @Then("^validate DB created new lead with first name: \"([^\"]*)\", last name: \"([^\"]*)\", email: \"([^\"]*)\"")
-    public void validateSfDbIntegration(String firstName, String lastName, String emailAddress) throws InterruptedException {
-        Thread.sleep(5000);
+    public void validateSfDbIntegration(String firstName, String lastName, String emailAddress) {
         final long start = System.currentTimeMillis();
         // We wait for exactly 1 record to appear in DB.
-        final boolean contactCreated = TestUtils.waitForEvent(leadCount -> leadCount == 1, () -> dbUtils.getNumberOfRecordsInTable(RestConstants.TODO_APP_NAME),
-                TimeUnit.MINUTES,
-                2,
-                TimeUnit.SECONDS,
-                5);
+        final boolean contactCreated = waitForTodoCount(leadCount -> leadCount == 1, TimeUnit.MINUTES.toMillis(2));
         assertThat(contactCreated).as("Lead record has appeard in db 1").isEqualTo(true);
         log.info("Lead record appeared in DB. It took {}s to create contact.", TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - start));
         // Now we verify, the created lead contains the correct personal information.
@@ -69,11 +69,7 @@ public class DbValidationSteps {
     public void validateLead() {
         final long start = System.currentTimeMillis();
         // We wait for exactly 1 record to appear in DB.
-        final boolean contactCreated = TestUtils.waitForEvent(leadCount -> leadCount == 1, () -> dbUtils.getNumberOfRecordsInTable(RestConstants.TODO_APP_NAME),
-                TimeUnit.MINUTES,
-                2,
-                TimeUnit.SECONDS,
-                5);
+        final boolean contactCreated = waitForTodoCount(leadCount -> leadCount == 1, TimeUnit.MINUTES.toMillis(2));
         assertThat(contactCreated).as("Lead record has appeard in db 2").isEqualTo(true);
         log.info("Lead record appeared in DB. It took {}s to create contact.", TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - start));
         // Now we verify, the created lead contains the correct personal information.
@@ -81,15 +77,9 @@ public class DbValidationSteps {
     }
 
     @Then("^validate add_lead procedure with last_name: \"([^\"]*)\", company: \"([^\"]*)\", period in ms: \"(\\w+)\"")
-    public void validateAddLeadProcedure(String lastName, String company, Integer ms) throws InterruptedException {
-        //wait for period cycle:
-        Thread.sleep(ms + 1000);
-        // We wait for at least 1 record to appear in DB (procedure goes on every 5 seconds).
-        final boolean contactCreated = TestUtils.waitForEvent(leadCount -> leadCount >= 1, () -> dbUtils.getNumberOfRecordsInTable(RestConstants.TODO_APP_NAME),
-                TimeUnit.MINUTES,
-                2,
-                TimeUnit.SECONDS,
-                5);
+    public void validateAddLeadProcedure(String lastName, String company, Integer ms) {
+        // We wait for at least 1 record to appear in DB (procedure goes on every period).
+        final boolean contactCreated = waitForTodoCount(leadCount -> leadCount >= 1, ms + TimeUnit.MINUTES.toMillis(2));
         assertThat(contactCreated).as("Lead record has appeared in DB, TODO table").isEqualTo(true);
         assertThat(getLeadTaskFromDb(lastName).contains(company));
     }
@@ -102,56 +92,47 @@ public class DbValidationSteps {
 
     @Then("^inserts into \"([^\"]*)\" table$")
     public void insertsIntoTable(String tableName, DataTable data) {
+        final List<List<String>> rows = data.raw();
+        if (rows.isEmpty()) {
+            return;
+        }
+        // values fill the columns from the left, e.g. only the task of a TODO
+        final List<String> columns = insertColumns(tableName).subList(0, rows.get(0).size());
+        //assert new rows in database have been created:
+        assertThat(dbUtils.insertRows(tableName, columns, rows, false)).isEqualTo(rows.size());
+    }
 
-        List<List<String>> dataTable = data.raw();
-
-        String sql = null;
-
-        Iterator it;
-        String next;
-        for (List<String> list : dataTable) {
-            switch (tableName.toUpperCase()) {
-                case "TODO":
-//                INSERT INTO TODOx(task) VALUES('Joe');
-                    sql = "INSERT INTO TODO(task) VALUES('%s'";
-                    break;
-                case "CONTACT":
-//                INSERT INTO CONTACT(first_name, last_name, company, lead_source) VALUES('Josef','Stieranka','Istrochem','db');
-                    sql = "INSERT INTO CONTACT(first_name, last_name, company, lead_source) VALUES('%s'";
-                    break;
-            }
-            it = list.iterator();
-            while (it.hasNext()) {
-                next = (String) it.next();
-                if (it.hasNext()) {
-                    sql = String.format(sql, next) + ", '%s'";
-                } else {
-                    sql = String.format(sql, next) + ")";
-                }
+    @Given("^insert (\\d+) generated rows into \"([^\"]*)\" table$")
+    public void insertGeneratedRows(int count, String tableName) {
+        final List<List<Object>> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if ("TODO".equalsIgnoreCase(tableName)) {
+                rows.add(Arrays.asList("task-" + i, 0));
+            } else {
+                rows.add(Arrays.asList("First" + i, "Last" + i, "Red Hat", "db", Date.valueOf(LocalDate.now())));
             }
-            log.debug("SQL query: *{}*", sql);
-            int newId = dbUtils.executeSQLGetUpdateNumber(sql);
-            //assert new row in database has been created:
-            assertThat(newId).isEqualTo(1);
         }
+        final long start = System.currentTimeMillis();
+        assertThat(dbUtils.insertRows(tableName, insertColumns(tableName), rows, true)).isEqualTo(count);
+        log.info("Inserted {} rows into {} in {} ms", count, tableName, System.currentTimeMillis() - start);
     }
 
     @Then("^validate that all todos with task \"([^\"]*)\" have value completed \"(\\w+)\", period in ms: \"(\\w+)\" on \"(\\w+)\"$")
-    public void checksThatAllTodosHaveCompletedValDb(String task, Integer val, Integer ms, String dbType) throws InterruptedException, SQLException {
+    public void checksThatAllTodosHaveCompletedValDb(String task, Integer val, Integer ms, String dbType) throws InterruptedException {
         dbUtils.setConnection(dbType);
         this.checksThatAllTodosHaveCompletedVal(task, val, ms);
     }
 
     @Then("^validate that all todos with task \"([^\"]*)\" have value completed \"(\\w+)\", period in ms: \"(\\w+)\"$")
-    public void checksThatAllTodosHaveCompletedVal(String task, Integer val, Integer ms) throws InterruptedException, SQLException {
-        Thread.sleep(ms + 1000);
+    public void checksThatAllTodosHaveCompletedVal(String task, Integer val, Integer ms) throws InterruptedException {
+        // done as soon as no row of the task has another value, the assertion below reports the rows if it never happens
+        final String mismatches = DbUtils.countQuery(RestConstants.TODO_APP_NAME, "task", task) + " AND completed <> " + val;
+        dbUtils.waitFor(RestConstants.TODO_APP_NAME, mismatches, count -> count == 0, ms + 1000L);
 
-        ResultSet rs;
         String sql = String.format("SELECT completed FROM TODO WHERE task like '%s'", task);
         log.info("SQL **{}**", sql);
-        rs = dbUtils.executeSQLGetResultSet(sql);
-        while (rs.next()) {
-            assertThat(rs.getInt("completed")).isEqualTo(val);
+        try (Stream<Integer> completed = dbUtils.streamQuery(sql, 1000, rs -> rs.getInt("completed"))) {
+            completed.forEach(c -> assertThat(c).isEqualTo(val));
         }
     }
 
@@ -175,11 +156,7 @@ public class DbValidationSteps {
             dbUtils = new DbUtils("postgresql");
         }
         int oldTaskCount = dbUtils.getNumberOfRecordsInTable("todo", "task", task);
-        try {
-            Thread.sleep(30000L);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        dbUtils.waitFor(RestConstants.TODO_APP_NAME, DbUtils.countQuery("todo", "task", task), count -> count > oldTaskCount + 5, 30000L);
         int newTaskCount = dbUtils.getNumberOfRecordsInTable("todo", "task", task);
         assertThat(newTaskCount).isGreaterThan(oldTaskCount + 5);
     }
@@ -262,6 +239,25 @@ public class DbValidationSteps {
 
 //AUXILIARIES:
 
+    /**
+     * Waits until the number of rows in the TODO table satisfies the condition, re-counting only when the table changes.
+     */
+    private boolean waitForTodoCount(IntPredicate condition, long timeoutMs) {
+        return dbUtils.waitFor(RestConstants.TODO_APP_NAME, DbUtils.countQuery(RestConstants.TODO_APP_NAME),
+                count -> condition.test((int) count), timeoutMs);
+    }
+
+    private List<String> insertColumns(String tableName) {
+        switch (tableName.toUpperCase()) {
+            case "TODO":
+                return Arrays.asList("task", "completed");
+            case "CONTACT":
+                return Arrays.asList("first_name", "last_name", "company", "lead_source", "create_date");
+            default:
+                throw new IllegalArgumentException("Unsupported table " + tableName);
+        }
+    }
+
     /**
      * Used for verification of successful creation of a new task in the todo app.
      *
@@ -27,7 +27,7 @@ public class DropBoxValidationSteps {
 
     @When("check that file with path \"([^\"]*)\" exists on Dropbox$")
     public void checkThatFileExists(String filePath) {
-        assertThat(TestUtils.waitForEvent(r -> r, () -> dropBoxUtils.checkIfFileExists(filePath),
+        assertThat(TestUtils.waitForEvent("Dropbox file", r -> r, () -> dropBoxUtils.checkIfFileExists(filePath),
                 TimeUnit.MINUTES, 2, TimeUnit.SECONDS, 15)).isTrue();
     }
 
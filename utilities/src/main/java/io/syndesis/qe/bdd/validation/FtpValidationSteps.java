@@ -21,7 +21,7 @@ public class FtpValidationSteps {
 
     @Then("^validate that file \"([^\"]*)\" has been transfered to \"([^\"]*)\" FTP directory$")
     public void validateThatFileHasBeenTransferedToDirectory(String filename, String remoteToDirectory) {
-        assertThat(TestUtils.waitForEvent(r -> r, () -> ftpUtils.isFileThere(remoteToDirectory, filename),
+        assertThat(TestUtils.waitForEvent("FTP file", r -> r, () -> ftpUtils.isFileThere(remoteToDirectory, filename),
                 TimeUnit.MINUTES, 2, TimeUnit.SECONDS, 15)).isTrue();
     }
 
@@ -37,7 +37,7 @@ public class FtpValidationSteps {
 
     @Then("^validate that file \"([^\"]*)\" has been transfered from \"([^\"]*)\" to \"([^\"]*)\" FTP directory$")
     public void validateThatFileHasBeenTransferedFromToDirectory(String filename, String remoteFromDirectory, String remoteToDirectory) {
-        assertThat(TestUtils.waitForEvent(r -> r, () -> ftpUtils.isFileThere(remoteToDirectory, filename),
+        assertThat(TestUtils.waitForEvent("FTP file", r -> r, () -> ftpUtils.isFileThere(remoteToDirectory, filename),
                 TimeUnit.MINUTES, 2, TimeUnit.SECONDS, 15)).isTrue();
         assertThat(ftpUtils.isFileThere(remoteFromDirectory, filename)).isFalse();
     }
@@ -2,37 +2,28 @@ package io.syndesis.qe.bdd.validation;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-import com.google.gson.Gson;
-
-import java.io.IOException;
-import java.util.Map;
-import java.util.Optional;
+import java.util.List;
 
 import cucumber.api.PendingException;
 import cucumber.api.java.en.Then;
 import cucumber.api.java.en.When;
-import io.fabric8.kubernetes.api.model.Pod;
-import io.fabric8.kubernetes.client.LocalPortForward;
-import io.syndesis.qe.utils.HttpUtils;
-import io.syndesis.qe.utils.OpenShiftUtils;
-import io.syndesis.qe.utils.TestUtils;
+import io.syndesis.qe.utils.HttpEventCollector;
+import io.syndesis.qe.utils.PortForwardManager;
+import io.syndesis.qe.utils.http.LocalHttpEndpoints;
 import lombok.extern.slf4j.Slf4j;
-import okhttp3.Response;
 
 @Slf4j
 public class HTTPValidationSteps {
-    // Static to have this lpf shared between tests
-    private static LocalPortForward localPortForward;
+    // also the time since clearing the events during which a single expected call must not be followed by another one
+    private static final long VERIFY_TIMEOUT_MS = 30000L;
+
+    // Static to have the collected events shared between the steps of a scenario
+    private static final HttpEventCollector EVENTS = new HttpEventCollector(HTTPValidationSteps::endpointsUrl);
 
     @When("^clear endpoint events$")
     public void clear() {
-        if (localPortForward == null || !localPortForward.isAlive()) {
-            Optional<Pod> pod = OpenShiftUtils.getPodByPartialName("endpoints");
-            assertThat(pod.isPresent()).isTrue();
-            localPortForward = TestUtils.createLocalPortForward(pod.get(), 8080, 28080);
-        }
         // Clear all events
-        HttpUtils.doDeleteRequest("http://localhost:28080/clearEvents");
+        EVENTS.clear();
     }
 
     @Then("^verify that endpoint \"([^\"]*)\" was executed$")
@@ -46,41 +37,65 @@ public class HTTPValidationSteps {
     }
 
     private void verify(String method, boolean once) {
-        // Let the integration running
-        TestUtils.sleepIgnoreInterrupt(30000L);
-        // Get new events
-        Response r = HttpUtils.doGetRequest("http://localhost:28080/events");
-        Map<Long, String> events = null;
-        try {
-            events = new Gson().fromJson(r.body().string(), Map.class);
-        } catch (IOException ex) {
-            log.error("Unable to convert from json to map", ex);
-            ex.printStackTrace();
-        }
-
+        List<HttpEventCollector.Event> events;
         if (once) {
-            assertThat(events).size().isEqualTo(1);
+            events = EVENTS.await(1, 1, VERIFY_TIMEOUT_MS);
+            assertThat(events).as("Calls of the endpoint").isNotEmpty();
+            // any further call fails the check right away, otherwise watch until the whole window since the clear passed
+            events = EVENTS.await(2, 1, Math.max(0, VERIFY_TIMEOUT_MS - EVENTS.millisSinceClear()));
+            assertThat(events).as("Calls of the endpoint").hasSize(1);
         } else {
-            assertThat(events).size().isGreaterThanOrEqualTo(5);
+            events = EVENTS.await(5, Integer.MAX_VALUE, VERIFY_TIMEOUT_MS);
+            assertThat(events.size()).as("Calls of the endpoint").isGreaterThanOrEqualTo(5);
         }
-        for (String event : events.values()) {
-            assertThat(method.equals(event));
+        for (HttpEventCollector.Event event : events) {
+            assertThat(event.getMethod()).containsIgnoringCase(method);
         }
     }
 
     @Then("^verify that after \"([^\"]*)\" seconds there were \"([^\"]*)\" calls$")
-    public void verifyThatAfterSecondsWasCalls(int seconds, int calls) {
+    public void verifyThatAfterSecondsWasCalls(double seconds, int calls) {
         clear();
-        TestUtils.sleepIgnoreInterrupt(seconds * 1000L);
-        Response r = HttpUtils.doGetRequest("http://localhost:28080/events");
-        Map<Long, String> events = null;
-        try {
-            events = new Gson().fromJson(r.body().string(), Map.class);
-        } catch (IOException ex) {
-            log.error("Unable to convert from json to map", ex);
-            ex.printStackTrace();
+        final List<HttpEventCollector.Event> events = EVENTS.await(calls, Integer.MAX_VALUE, (long) (seconds * 1000));
+        assertThat(events.size()).as("Calls of the endpoint").isGreaterThanOrEqualTo(calls);
+    }
+
+    @Then("^verify that endpoint calls came every (\\d+) ms with jitter below (\\d+) ms$")
+    public void verifyCallRate(long periodMs, long jitterMs) {
+        final List<Long> intervals = HttpEventCollector.intervals(EVENTS.fetch());
+        assertThat(intervals).as("Intervals between the calls of the endpoint").isNotEmpty();
+        log.info("Intervals between the endpoint calls: {} ms", intervals);
+        for (long interval : intervals) {
+            assertThat(Math.abs(interval - periodMs)).as("Deviation of interval %d ms from %d ms", interval, periodMs).isLessThan(jitterMs);
         }
-        assertThat(events).size().isGreaterThanOrEqualTo(calls);
     }
 
+    @When("^set local HTTP endpoints latency to (\\d+) ms with jitter (\\d+) ms$")
+    public void setLatency(long latencyMs, long jitterMs) {
+        LocalHttpEndpoints.shared().setLatency(latencyMs, jitterMs);
+    }
+
+    @When("^set local HTTP endpoints to fail (\\d+) % of requests with status (\\d+)$")
+    public void setErrors(int percent, int status) {
+        LocalHttpEndpoints.shared().setErrors(percent / 100.0, status);
+    }
+
+    @Then("^log local HTTP endpoints statistics$")
+    public void logStatistics() {
+        log.info("Local HTTP endpoints: {}", LocalHttpEndpoints.shared().statistics());
+    }
+
+    @Then("^verify that local HTTP endpoints handled at least (\\d+) requests per second$")
+    public void verifyThroughput(int rate) {
+        final LocalHttpEndpoints endpoints = LocalHttpEndpoints.shared();
+        log.info("Local HTTP endpoints: {}", endpoints.statistics());
+        assertThat(endpoints.getThroughput()).as("Requests per second").isGreaterThanOrEqualTo(rate);
+    }
+
+    private static String endpointsUrl() {
+        if (LocalHttpEndpoints.isSharedRunning()) {
+            return "http://127.0.0.1:" + LocalHttpEndpoints.shared().getHttpPort();
+        }
+        return "http://127.0.0.1:" + PortForwardManager.forwardByName("endpoints", 8080);
+    }
 }
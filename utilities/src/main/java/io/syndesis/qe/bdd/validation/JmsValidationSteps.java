@@ -10,10 +10,13 @@ import cucumber.api.java.en.When;
 import cz.xtf.jms.JmsClient;
 import io.syndesis.qe.utils.JMSUtils;
 import io.syndesis.qe.utils.JmsClientManager;
+import io.syndesis.qe.utils.jms.JmsLoadGenerator;
+import io.syndesis.qe.utils.jms.JmsLoadReport;
 
 public class JmsValidationSteps {
 
     private final String messageText = "ZIL SOM NAPLNO";
+    private JmsLoadReport loadReport;
 
     public JmsValidationSteps() {
     }
@@ -69,4 +72,28 @@ public class JmsValidationSteps {
     public void cleanDestination(String type, String name) {
         JMSUtils.clear(JMSUtils.Destination.valueOf(type.toUpperCase()), name);
     }
+
+    @When("^send (\\d+) JMS messages per second from (\\d+) producers to queue \"([^\"]*)\" for (\\d+) seconds and consume them from queue \"([^\"]*)\"$")
+    public void generateLoad(int rate, int producers, String input, int seconds, String output) {
+        loadReport = JmsLoadGenerator.builder()
+                .input(input)
+                .output(output)
+                .rate(rate)
+                .producers(producers)
+                .durationMs(seconds * 1000L)
+                .build()
+                .run();
+    }
+
+    @Then("^verify that JMS load had no lost or duplicated messages$")
+    public void verifyNoLoss() {
+        assertThat(loadReport.getLost()).as("Lost messages: %s", loadReport).isZero();
+        assertThat(loadReport.getDuplicates()).as("Duplicated messages: %s", loadReport).isZero();
+    }
+
+    @Then("^verify that JMS load had throughput at least (\\d+) messages per second and p99 latency below (\\d+) ms$")
+    public void verifyThroughputAndLatency(int throughput, int latencyMs) {
+        assertThat(loadReport.getThroughput()).as("Throughput: %s", loadReport).isGreaterThanOrEqualTo(throughput);
+        assertThat(loadReport.getP99()).as("Latency: %s", loadReport).isLessThan(latencyMs * 1000L);
+    }
 }
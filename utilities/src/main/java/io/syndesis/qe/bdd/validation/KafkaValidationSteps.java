@@ -0,0 +1,69 @@
+package io.syndesis.qe.bdd.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+import io.syndesis.qe.utils.TestUtils;
+import io.syndesis.qe.utils.kafka.KafkaLoadGenerator;
+import io.syndesis.qe.utils.kafka.KafkaLoadReport;
+import io.syndesis.qe.utils.kafka.KafkaUtils;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class KafkaValidationSteps {
+    private static final long OFFSET_COMMIT_TIMEOUT_MS = 30000L;
+
+    private KafkaLoadReport loadReport;
+
+    @Given("^create Kafka topic \"([^\"]*)\" with (\\d+) partitions$")
+    public void createTopic(String topic, int partitions) {
+        KafkaUtils.createTopic(topic, partitions);
+    }
+
+    @When("^send (\\d+) Kafka messages per second of (\\d+) bytes with (\\d+) keys to topic \"([^\"]*)\" for (\\d+) seconds and consume them from topic \"([^\"]*)\"$")
+    public void generateLoad(int rate, int size, int keys, String input, int seconds, String output) {
+        loadReport = KafkaLoadGenerator.builder()
+                .input(input)
+                .output(output)
+                .rate(rate)
+                .messageSize(size)
+                .keys(keys)
+                .durationMs(seconds * 1000L)
+                .build()
+                .run();
+    }
+
+    @Then("^verify that Kafka load had no lost or duplicated messages$")
+    public void verifyExactlyOnce() {
+        assertThat(loadReport.getFailedSends()).as("Failed sends: %s", loadReport).isZero();
+        assertThat(loadReport.getLost()).as("Lost messages: %s", loadReport).isZero();
+        assertThat(loadReport.getDuplicates()).as("Duplicated messages: %s", loadReport).isZero();
+    }
+
+    @Then("^verify that Kafka load kept the order of messages per key$")
+    public void verifyOrder() {
+        assertThat(loadReport.getOutOfOrder()).as("Messages out of order: %s", loadReport).isZero();
+    }
+
+    @Then("^verify that Kafka load had throughput at least (\\d+) messages per second and p99 latency below (\\d+) ms$")
+    public void verifyThroughputAndLatency(int throughput, int latencyMs) {
+        assertThat(loadReport.getThroughput()).as("Throughput: %s", loadReport).isGreaterThanOrEqualTo(throughput);
+        assertThat(loadReport.getP99()).as("Latency: %s", loadReport).isLessThan(latencyMs * 1000L);
+    }
+
+    @Then("^verify that lag of Kafka consumer group \"([^\"]*)\" on topic \"([^\"]*)\" is at most (\\d+) messages per partition$")
+    public void verifyGroupLag(String groupId, String topic, long lag) {
+        // the consumer commits its offsets periodically, give it time to commit the messages it already processed
+        TestUtils.waitForEvent("Kafka consumer group " + groupId + " lag", lags -> lags.values().stream().allMatch(l -> l <= lag),
+                () -> KafkaUtils.lag(groupId, topic), TimeUnit.MILLISECONDS, OFFSET_COMMIT_TIMEOUT_MS, TimeUnit.SECONDS, 1);
+        final Map<Integer, Long> lags = KafkaUtils.lag(groupId, topic);
+        log.info("Lag of Kafka consumer group {} on topic {}: {}", groupId, topic, lags);
+        lags.forEach((partition, partitionLag) ->
+                assertThat(partitionLag).as("Lag of consumer group %s in partition %d of %s", groupId, partition, topic).isLessThanOrEqualTo(lag));
+    }
+}
@@ -4,6 +4,7 @@ import io.syndesis.qe.utils.LogCheckerUtils;
 import org.assertj.core.api.Assertions;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.io.IOException;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -11,7 +12,6 @@ import java.util.regex.Pattern;
 
 import cucumber.api.java.en.Then;
 import io.fabric8.kubernetes.api.model.Pod;
-import io.syndesis.common.model.integration.Integration;
 import io.syndesis.common.model.metrics.IntegrationMetricsSummary;
 import io.syndesis.qe.endpoints.ActivityIntegrationsEndpoint;
 import io.syndesis.qe.endpoints.IntegrationsEndpoint;
@@ -56,7 +56,7 @@ public class MonitoringValidationSteps {
     }
 
     @Then("^validate that log of integration \"([^\"]*)\" has been created, period in ms: \"([^\"]*)\"$")
-    public void validateThatLogOfIntegrationHasBeenCreatedPeriodInMs(String integrationName, Integer ms) throws InterruptedException {
+    public void validateThatLogOfIntegrationHasBeenCreatedPeriodInMs(String integrationName, Integer ms) throws InterruptedException, IOException {
         Thread.sleep(ms + 1000);
         String integrationId = this.getIdByIntegrationName(integrationName);
         Assertions.assertThat(integrationId).isNotNull();
@@ -67,14 +67,17 @@ public class MonitoringValidationSteps {
         //I suppose there is the same pod for every activity
         String podName = activityIntegrationLogs.get(0).getPod();
 
-        Optional<Pod> integrationPod = OpenShiftUtils.getInstance().getPods().stream().filter(p -> p.getMetadata().getName().equals(podName)).findFirst();
+        Optional<Pod> integrationPod = OpenShiftUtils.getPod(podName);
         if (integrationPod.isPresent()) {
-            String logText = OpenShiftUtils.getInstance().getPodLog(integrationPod.get());
-            Assertions.assertThat(logText)
-                    .isNotEmpty()
-                    .containsPattern(Pattern.compile("\\{\"exchange\":\"i-.*\",\"status\":\"begin\"}"))
-                    .containsPattern(Pattern.compile("\\{\"exchange\":\"i-.*\",\"status\":\"done\",\"failed\":false}"));
-
+            // the log cursor downloads only the lines that were not read by previous checks of this pod
+            Pattern[] patterns = new Pattern[] {
+                    Pattern.compile("\\{\"exchange\":\"i-.*\",\"status\":\"begin\"}"),
+                    Pattern.compile("\\{\"exchange\":\"i-.*\",\"status\":\"done\",\"failed\":false}")
+            };
+            boolean[] found = LogCheckerUtils.findPatternsInLogs(integrationPod.get(), patterns);
+            for (int i = 0; i < patterns.length; ++i) {
+                Assertions.assertThat(found[i]).as("Didn't find pattern '" + patterns[i] + "' in pod " + podName + " logs").isTrue();
+            }
         } else {
             Assertions.fail("No pod found for pod name: " + podName);
         }
@@ -83,9 +86,7 @@ public class MonitoringValidationSteps {
 
     //    AUXILIARIES
     private String getIdByIntegrationName(String integrationName) {
-        List<Integration> integrations = integrationsEndpoint.list();
-        Integration integr = integrations.stream().filter(integration -> integrationName.equals(integration.getName())).findAny().orElse(null);
-        return integr.getId().get();
+        return integrationsEndpoint.getIntegrationId(integrationName).orElse(null);
     }
 
 }
@@ -1,79 +1,67 @@
 package io.syndesis.qe.bdd.validation;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.assertj.core.api.Assertions;
+import org.eclipse.paho.client.mqttv3.MqttException;
+
 import cucumber.api.java.en.Then;
-import io.fabric8.kubernetes.api.model.Pod;
-import io.fabric8.kubernetes.client.LocalPortForward;
-import io.syndesis.qe.utils.OpenShiftUtils;
-import io.syndesis.qe.utils.TestUtils;
+import cucumber.api.java.en.When;
+import io.syndesis.qe.utils.PortForwardManager;
+import io.syndesis.qe.utils.mqtt.MqttLoadGenerator;
+import io.syndesis.qe.utils.mqtt.MqttLoadReport;
 import io.syndesis.qe.utils.mqtt.MqttUtils;
 import io.syndesis.qe.utils.mqtt.Receiver;
 import lombok.extern.slf4j.Slf4j;
-import org.assertj.core.api.Assertions;
-import org.eclipse.paho.client.mqttv3.MqttClient;
-import org.eclipse.paho.client.mqttv3.MqttException;
-
-import java.io.IOException;
-
 
 @Slf4j
 public class MqttValidationSteps {
-    private MqttUtils mqttUtils = new MqttUtils();
-    private static LocalPortForward mqttLocalPortForward = null;
+    private static final long DELIVERY_TIMEOUT_MS = 30000L;
+
+    private MqttLoadReport loadReport;
 
     @Then("^.*verify that when message is sent to \"([^\"]*)\" topic it is redirected to \"([^\"]*)\" topic via integration$")
     public void sendAndRecieveMessage(String senderTopic, String receiverTopic) {
-
-        //reset message received flag
-        Receiver.RECEIVED_FLAG = 0;
-
-        MqttClient receiverClient = null;
-        try {
-            portForward();
-            // give port forward some time
-            TestUtils.sleepIgnoreInterrupt(2000);
-            //create receiver
-            receiverClient = mqttUtils.createReceiver("receiver_1", receiverTopic);
-
-            //send message via client
+        boolean received = false;
+        // the forward is ready to use, it is probed before the port is returned
+        try (MqttUtils mqttUtils = new MqttUtils(brokerUrl());
+                Receiver receiver = mqttUtils.createReceiver("receiver_1", receiverTopic)) {
             mqttUtils.sendMessage("Hi from syndesis integration!", senderTopic);
-
-            //give it some short time for delivery
-            TestUtils.sleepIgnoreInterrupt(4000);
-
+            received = receiver.await(receiverTopic, 1, DELIVERY_TIMEOUT_MS);
         } catch (MqttException e) {
-            e.printStackTrace();
+            log.error("MQTT message transfer failed", e);
             Assertions.fail("Mqtt Exception was thrown during message transfer");
-        } finally {
-            //close receiver
-            mqttUtils.closeClient(receiverClient);
-
-            //close mqtt port
-            portClose();
         }
 
-        //check flag
-        Assertions.assertThat(Receiver.RECEIVED_FLAG).as("Message was not received!!!")
-                .isEqualTo(1);
+        assertThat(received).as("Message was not received!!!").isTrue();
+    }
 
+    @When("^send (\\d+) MQTT messages per second with QoS (\\d) to topic \"([^\"]*)\" for (\\d+) seconds and consume them from topic \"([^\"]*)\"$")
+    public void generateLoad(int rate, int qos, String input, int seconds, String output) {
+        loadReport = MqttLoadGenerator.builder()
+                .broker(brokerUrl())
+                .input(input)
+                .output(output)
+                .rate(rate)
+                .qos(qos)
+                .durationMs(seconds * 1000L)
+                .build()
+                .run();
     }
 
-    private void portForward() {
-        if (mqttLocalPortForward == null || !mqttLocalPortForward.isAlive()) {
-            //can be the same pod twice forwarded to different ports? YES
-            Pod pod = OpenShiftUtils.xtf().getAnyPod("app", "broker-amq");
-            log.info("POD NAME: *{}*", pod.getMetadata().getName());
-            mqttLocalPortForward = OpenShiftUtils.portForward(pod, 1883, 1883);
-        }
+    @Then("^verify that MQTT load lost at most (\\d+) % of messages$")
+    public void verifyLoss(int percent) {
+        assertThat(loadReport.getFailedSends()).as("Failed sends: %s", loadReport).isZero();
+        assertThat(loadReport.getLossRate() * 100).as("Lost messages: %s", loadReport).isLessThanOrEqualTo(percent);
     }
 
-    private void portClose() {
-        if (mqttLocalPortForward != null || mqttLocalPortForward.isAlive()) {
-            try {
-                mqttLocalPortForward.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-                log.error("Error while closing mqtt port forward.");
-            }
-        }
+    @Then("^verify that MQTT load had throughput at least (\\d+) messages per second and p99 latency below (\\d+) ms$")
+    public void verifyThroughputAndLatency(int throughput, int latencyMs) {
+        assertThat(loadReport.getThroughput()).as("Throughput: %s", loadReport).isGreaterThanOrEqualTo(throughput);
+        assertThat(loadReport.getP99()).as("Latency: %s", loadReport).isLessThan(latencyMs * 1000L);
+    }
+
+    private static String brokerUrl() {
+        return "tcp://127.0.0.1:" + PortForwardManager.forward("app", "broker-amq", 1883);
     }
 }
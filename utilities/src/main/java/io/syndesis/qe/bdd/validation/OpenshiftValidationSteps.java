@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 
 import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
 
 import cucumber.api.java.en.And;
 import cucumber.api.java.en.Given;
@@ -26,8 +27,8 @@ public class OpenshiftValidationSteps {
 
     @Then("^check that pod \"([^\"]*)\" logs contain string \"([^\"]*)\"$")
     public void checkPodHasInLog(String podPartialName, String expectedText) {
-        assertThat(OpenShiftUtils.getPodLogs(podPartialName))
-                .containsIgnoringCase(expectedText);
+        assertThat(OpenShiftUtils.podLogContains(podPartialName, Pattern.compile(expectedText, Pattern.LITERAL | Pattern.CASE_INSENSITIVE)))
+                .as("Log of pod %s contains %s", podPartialName, expectedText).isTrue();
     }
 
     @Given("^deploy FTP server$")
@@ -61,7 +61,7 @@ public class S3ValidationSteps {
 
     @Then("^validate bucket with name \"([^\"]*)\" contains file with name \"([^\"]*)\" and text \"([^\"]*)\"")
     public void validateIntegration(String bucketName, String fileName, String text) {
-        assertThat(TestUtils.waitForEvent(r -> r, () -> s3Utils.checkFileExistsInBucket(S3BucketNameBuilder.getBucketName(bucketName), fileName),
+        assertThat(TestUtils.waitForEvent("S3 file", r -> r, () -> s3Utils.checkFileExistsInBucket(S3BucketNameBuilder.getBucketName(bucketName), fileName),
                 TimeUnit.MINUTES, 2, TimeUnit.SECONDS, 15)).isTrue();
         assertThat(s3Utils.readTextFileContentFromBucket(S3BucketNameBuilder.getBucketName(bucketName), fileName)).contains(text);
     }
@@ -158,7 +158,7 @@ public class SfValidationSteps {
     public void validateIntegration(String twAccount, String record) {
         log.info("Waiting until a contact appears in salesforce...");
         final long start = System.currentTimeMillis();
-        final boolean contactCreated = TestUtils.waitForEvent(Optional::isPresent,
+        final boolean contactCreated = TestUtils.waitForEvent("Salesforce contact", Optional::isPresent,
                 () -> getSalesforceContact(salesforce, accountsDirectory.getAccount(twAccount).get().getProperty("screenName")),
                 TimeUnit.MINUTES,
                 3,
@@ -1,26 +1,41 @@
 package io.syndesis.qe.endpoints;
 
-import com.fasterxml.jackson.core.JsonParser.Feature;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.databind.ObjectReader;
 
-import javax.ws.rs.NotFoundException;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import io.syndesis.common.model.WithId;
+import io.syndesis.common.model.WithName;
 import io.syndesis.common.util.Json;
-import io.syndesis.common.model.ListResult;
 import io.syndesis.qe.TestConfiguration;
 import io.syndesis.qe.utils.RestUtils;
 import lombok.extern.slf4j.Slf4j;
@@ -32,11 +47,16 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 public abstract class AbstractEndpoint<T> {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    // readers derived from the shared Syndesis reader are immutable, so one per type is enough
+    private static final Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
 
     protected String endpointName;
     protected String apiPath = TestConfiguration.syndesisRestApiPath();
     private Class<T> type;
     protected Client client;
+    private final EndpointCache<T> cache;
 
     protected MultivaluedMap<String,Object> COMMON_HEADERS = new MultivaluedHashMap<>();
 
@@ -45,6 +65,8 @@ public abstract class AbstractEndpoint<T> {
         this.endpointName = endpointName;
 
         client = RestUtils.getClient();
+        // endpoints of different types may share the path, e.g. integrations and their overviews
+        cache = EndpointCache.forEndpoint(type.getName() + endpointName);
 
         COMMON_HEADERS.add("X-Forwarded-User", "pista");
         COMMON_HEADERS.add("X-Forwarded-Access-Token", "kral");
@@ -56,28 +78,82 @@ public abstract class AbstractEndpoint<T> {
         final Invocation.Builder invocation = this.createInvocation();
         final JsonNode response = invocation.post(Entity.entity(obj, MediaType.APPLICATION_JSON), JsonNode.class);
 
-        return transformJsonNode(response, type);
+        final T created = transformJsonNode(response, type);
+        idOf(created).ifPresent(this::invalidate);
+        indexName(created);
+        return created;
     }
 
     public void delete(String id) {
         log.debug("DELETE: {}", getEndpointUrl(Optional.ofNullable(id)));
         final Invocation.Builder invocation = this.createInvocation(id);
 
-        invocation.delete();
+        // closing the response returns the connection to the shared pool
+        invocation.delete().close();
+        invalidate(id);
     }
 
+    /**
+     * Gets the item, served from the cache when {@link #isCacheable()} and the cached copy is younger than
+     * {@link TestConfiguration#restCacheTtl()}. Otherwise a cached copy with an ETag is revalidated with If-None-Match, so
+     * an unchanged item isn't transferred and deserialized again.
+     */
     public T get(String id) {
+        final Optional<EndpointCache.Entry<T>> cached = cache.get(id);
+        if (cached.isPresent() && isCacheable() && cached.get().isFresh(EndpointCache.ttl())) {
+            return cached.get().getValue();
+        }
+
         log.debug("GET : {}", getEndpointUrl(Optional.ofNullable(id)));
         final Invocation.Builder invocation = this.createInvocation(id);
-        JsonNode response = null;
+        cached.map(EndpointCache.Entry::getEtag).ifPresent(etag -> invocation.header(HttpHeaders.IF_NONE_MATCH, etag));
+        final Response response = invocation.get();
         try {
-            response = invocation.get(JsonNode.class);
-        } catch (NotFoundException ex) {
-            log.error("Not found: " + id);
-            log.error("Found:");
-            list().forEach(t -> log.error("  " + t.toString()));
+            if (response.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode() && cached.isPresent()) {
+                cached.get().revalidated();
+                return cached.get().getValue();
+            }
+            if (response.getStatus() == Response.Status.NOT_FOUND.getStatusCode()) {
+                invalidate(id);
+                log.error("Not found: " + id);
+                log.error("Found:");
+                list().forEach(t -> log.error("  " + t.toString()));
+                return null;
+            }
+            if (response.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL) {
+                throw new WebApplicationException("GET " + id + " failed", response.getStatus());
+            }
+
+            final T value = transformJsonNode(response.readEntity(JsonNode.class), type);
+            final String etag = response.getHeaderString(HttpHeaders.ETAG);
+            if (value != null && (etag != null || isCacheable())) {
+                cache.put(id, value, etag);
+            }
+            return value;
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * Finds the ID of the item with the given name. Name lookups of {@link #isCacheable()} endpoints are cached, items of
+     * the other endpoints may be deleted or renamed behind the back of this client and are always looked up on the server.
+     *
+     * @param name item name
+     * @return item id or empty when there is no item with that name
+     */
+    public Optional<String> findIdByName(String name) {
+        if (isCacheable()) {
+            final Optional<String> cached = cache.idForName(name);
+            if (cached.isPresent()) {
+                return cached;
+            }
         }
-        return transformJsonNode(response, type);
+        // listPage() indexes the names of the items it reads
+        return stream("name=" + name)
+                .filter(i -> name.equals(nameOf(i)))
+                .findFirst()
+                .flatMap(AbstractEndpoint::idOf);
     }
 
     public void update(String id, T obj) {
@@ -85,44 +161,160 @@ public abstract class AbstractEndpoint<T> {
         final Invocation.Builder invocation = this.createInvocation(id);
 
         invocation.put(Entity.entity(obj, MediaType.APPLICATION_JSON), JsonNode.class);
+        invalidate(id);
+    }
+
+    /**
+     * Whether items of this endpoint may be served from the cache without asking the server. Only items that are changed
+     * exclusively through this client can be cached like that, the rest is always at least revalidated.
+     */
+    protected boolean isCacheable() {
+        return false;
+    }
+
+    /**
+     * Remembers the ID of the item for {@link #findIdByName(String)}.
+     */
+    private void indexName(T item) {
+        final String name = nameOf(item);
+        if (name != null && isCacheable()) {
+            idOf(item).ifPresent(id -> cache.putName(name, id));
+        }
+    }
+
+    /**
+     * Drops the cached item (and its sub-resources) after it was changed.
+     */
+    protected void invalidate(String id) {
+        cache.invalidate(id);
     }
 
     public List<T> list() {
         return list(null);
     }
 
+    /**
+     * Lists all items, fetching them page by page.
+     *
+     * @param id sub-resource path appended to the endpoint URL, may be null
+     * @return all items
+     */
     public List<T> list(String id) {
-        final ObjectMapper mapper = new ObjectMapper().registerModules(new Jdk8Module());
-        mapper.configure(Feature.AUTO_CLOSE_SOURCE, true);
-        final ObjectWriter ow = mapper.writer();
-        final Class<ListResult<T>> listtype = (Class) ListResult.class;
+        return stream(id, null).collect(Collectors.toList());
+    }
 
-        log.debug("GET : {}", getEndpointUrl(Optional.ofNullable(id)));
-        final Invocation.Builder invocation = this.createInvocation(id);
+    /**
+     * Lazily iterates over all items. Pages are fetched only when the previous page has been consumed, so short-circuiting
+     * operations like findFirst() stop downloading as soon as they are satisfied.
+     *
+     * @return stream of all items
+     */
+    public Stream<T> stream() {
+        return stream(null, null);
+    }
+
+    /**
+     * Same as {@link #stream()}, but items are filtered by the server.
+     *
+     * @param query server side filter in the form of field=value, may be null
+     * @return stream of the matching items
+     */
+    public Stream<T> stream(String query) {
+        return stream(null, query);
+    }
 
-        final JsonNode response = invocation
-                .get(JsonNode.class);
+    public Stream<T> stream(String id, String query) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(id, query), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
 
-        ListResult<T> result = null;
-        try {
-            result = Json.reader().forType(listtype).readValue(response.toString());
+    /**
+     * @param id sub-resource path appended to the endpoint URL, may be null
+     * @param query server side filter in the form of field=value, may be null
+     * @return iterator fetching the pages on demand
+     */
+    public Iterator<T> iterator(String id, String query) {
+        return new Iterator<T>() {
+            private ListPage<T> current;
+            private Iterator<T> items = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!items.hasNext() && (current == null || current.hasNext())) {
+                    current = listPage(id, current == null ? 1 : current.getPage() + 1, DEFAULT_PAGE_SIZE, query);
+                    items = current.getItems().iterator();
+                }
+                return items.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return items.next();
+            }
+        };
+    }
+
+    /**
+     * Fetches one page of items. The response is read straight from the stream and the items are deserialized one by
+     * one as they are parsed, without building the whole JSON tree first.
+     *
+     * @param id sub-resource path appended to the endpoint URL, may be null
+     * @param page page number, starting at 1
+     * @param perPage page size
+     * @param query server side filter in the form of field=value, may be null
+     * @return page
+     */
+    public ListPage<T> listPage(String id, int page, int perPage, String query) {
+        WebTarget target = client.target(getEndpointUrl(Optional.ofNullable(id)))
+                .queryParam("page", page)
+                .queryParam("per_page", perPage);
+        if (query != null) {
+            target = target.queryParam("query", query);
+        }
+        log.debug("GET : {}", target.getUri());
+        final Invocation.Builder invocation = target.request(MediaType.APPLICATION_JSON).headers(COMMON_HEADERS);
+
+        final ObjectReader reader = reader(type);
+        try (InputStream response = invocation.get(InputStream.class);
+            JsonParser parser = reader.getFactory().createParser(response)) {
+            final ListPage<T> result = readListResult(parser, reader, page, perPage);
+            if (id != null) {
+                return result;
+            }
+            result.getItems().forEach(this::indexName);
+            return result;
         } catch (IOException ex) {
             log.error("" + ex);
+            return new ListPage<>(page, perPage, 0, Collections.emptyList());
         }
+    }
 
-        final List<T> ts = new ArrayList<>();
+    /**
+     * Reads serialized {@link io.syndesis.common.model.ListResult}.
+     */
+    private ListPage<T> readListResult(JsonParser parser, ObjectReader reader, int page, int perPage) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected list result object");
+        }
 
-        for (int i = 0; i < result.getTotalCount(); i++) {
-            T con = null;
-            try {
-                final String json = ow.writeValueAsString(result.getItems().get(i));
-                con = Json.reader().forType(type).readValue(json);
-            } catch (IOException ex) {
-                log.error(ex.toString());
+        int totalCount = 0;
+        final List<T> ts = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            final JsonToken value = parser.nextToken();
+            if (value == JsonToken.START_ARRAY && "items".equals(field)) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    ts.add(reader.readValue(parser));
+                }
+            } else if (value == JsonToken.VALUE_NUMBER_INT && "totalCount".equals(field)) {
+                totalCount = parser.getIntValue();
+            } else {
+                parser.skipChildren();
             }
-            ts.add(con);
         }
-        return ts;
+        return new ListPage<>(page, perPage, totalCount, ts);
     }
 
     public String getEndpointUrl() {
@@ -152,12 +344,27 @@ public abstract class AbstractEndpoint<T> {
     }
 
     protected T transformJsonNode(JsonNode json, Class<T> t) {
+        if (json == null) {
+            return null;
+        }
         T ts = null;
         try {
-            ts = Json.reader().forType(t).readValue(json.toString());
+            ts = reader(t).readValue(json);
         } catch (IOException ex) {
             log.error("" + ex);
         }
         return ts;
     }
+
+    private static String nameOf(Object item) {
+        return item instanceof WithName ? ((WithName) item).getName() : null;
+    }
+
+    private static Optional<String> idOf(Object item) {
+        return item instanceof WithId ? ((WithId<?>) item).getId() : Optional.empty();
+    }
+
+    private static ObjectReader reader(Class<?> type) {
+        return READERS.computeIfAbsent(type, t -> Json.reader().forType(t));
+    }
 }
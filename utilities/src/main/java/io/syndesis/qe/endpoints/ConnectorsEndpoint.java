@@ -25,4 +25,12 @@ public class ConnectorsEndpoint extends AbstractEndpoint<Connector> {
     public void delete(String id) {
         throw new UnsupportedOperationException("Connectors cannot be deleted using REST API.");
     }
+
+    /**
+     * Connectors are defined by the server and don't change during a test run, so they can be served from the cache.
+     */
+    @Override
+    protected boolean isCacheable() {
+        return true;
+    }
 }
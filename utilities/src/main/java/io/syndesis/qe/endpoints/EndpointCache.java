@@ -0,0 +1,117 @@
+package io.syndesis.qe.endpoints;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.syndesis.qe.TestConfiguration;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Client side cache of one REST endpoint: items by ID (with their ETags) and, for cacheable endpoints, IDs by name.
+ * <p>
+ * Caches are shared by all instances of an endpoint. Items younger than the TTL are returned without asking the server,
+ * older items are revalidated with If-None-Match when the server provided an ETag. Writes through the endpoint invalidate
+ * the affected entries and {@link #clearAll()} drops everything, e.g. after the database was reset.
+ *
+ * @param <T> item type
+ */
+@Slf4j
+final class EndpointCache<T> {
+    private static final Map<String, EndpointCache<?>> CACHES = new ConcurrentHashMap<>();
+
+    private final String endpointName;
+    private final Map<String, Entry<T>> byId = new ConcurrentHashMap<>();
+    private final Map<String, Entry<String>> idByName = new ConcurrentHashMap<>();
+
+    private EndpointCache(String endpointName) {
+        this.endpointName = endpointName;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> EndpointCache<T> forEndpoint(String endpointName) {
+        return (EndpointCache<T>) CACHES.computeIfAbsent(endpointName, EndpointCache::new);
+    }
+
+    /**
+     * Forgets everything cached for all endpoints.
+     */
+    static void clearAll() {
+        CACHES.values().forEach(EndpointCache::clear);
+    }
+
+    /**
+     * @return cached entry, fresh or not
+     */
+    Optional<Entry<T>> get(String id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    void put(String id, T value, String etag) {
+        byId.put(id, new Entry<>(value, etag));
+    }
+
+    Optional<String> idForName(String name) {
+        final Entry<String> entry = idByName.get(name);
+        return entry != null && entry.isFresh(ttl()) ? Optional.of(entry.getValue()) : Optional.empty();
+    }
+
+    void putName(String name, String id) {
+        idByName.put(name, new Entry<>(id, null));
+    }
+
+    /**
+     * Removes the item, its sub-resources and all names pointing to it.
+     *
+     * @param id item id, may be followed by a sub-resource path
+     */
+    void invalidate(String id) {
+        if (id == null) {
+            return;
+        }
+        final String itemId = id.contains("/") ? id.substring(0, id.indexOf('/')) : id;
+        byId.keySet().removeIf(key -> key.equals(itemId) || key.startsWith(itemId + "/"));
+        idByName.values().removeIf(entry -> itemId.equals(entry.getValue()));
+    }
+
+    void clear() {
+        log.debug("Clearing cache of {}", endpointName);
+        byId.clear();
+        idByName.clear();
+    }
+
+    static long ttl() {
+        return TimeUnit.SECONDS.toMillis(TestConfiguration.restCacheTtl());
+    }
+
+    static final class Entry<V> {
+        private final V value;
+        private final String etag;
+        private volatile long validatedAt = System.nanoTime();
+
+        private Entry(V value, String etag) {
+            this.value = value;
+            this.etag = etag;
+        }
+
+        V getValue() {
+            return value;
+        }
+
+        String getEtag() {
+            return etag;
+        }
+
+        boolean isFresh(long ttlMs) {
+            return System.nanoTime() - validatedAt < TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        }
+
+        /**
+         * Marks the entry as confirmed by the server.
+         */
+        void revalidated() {
+            validatedAt = System.nanoTime();
+        }
+    }
+}
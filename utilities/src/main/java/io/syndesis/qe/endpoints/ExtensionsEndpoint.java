@@ -9,8 +9,6 @@ import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
-import javax.ws.rs.client.Client;
-import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation;
 import javax.ws.rs.core.MediaType;
@@ -21,6 +19,7 @@ import java.io.FileNotFoundException;
 import java.util.Optional;
 
 import io.syndesis.common.model.extension.Extension;
+import io.syndesis.qe.utils.RestUtils;
 
 @Component
 public class ExtensionsEndpoint extends AbstractEndpoint<Extension> {
@@ -36,8 +35,7 @@ public class ExtensionsEndpoint extends AbstractEndpoint<Extension> {
             fail("Extension file not found", e);
         }
 
-        Client client = ClientBuilder.newClient();
-        final Invocation.Builder invocation = client
+        final Invocation.Builder invocation = RestUtils.getInsecureClient()
                 .target(getEndpointUrl())
                 .request(MediaType.MULTIPART_FORM_DATA_TYPE)
                 .headers(COMMON_HEADERS);
@@ -48,8 +46,7 @@ public class ExtensionsEndpoint extends AbstractEndpoint<Extension> {
 
     public void installExtension(Extension e) {
         Optional<String> id = e.getId();
-        Client client = ClientBuilder.newClient();
-        final Invocation.Builder invocation = client
+        final Invocation.Builder invocation = RestUtils.getInsecureClient()
                 .target(getEndpointUrl() + "/" +id.get() + "/install")
                 .request(MediaType.APPLICATION_JSON)
                 .headers(COMMON_HEADERS);
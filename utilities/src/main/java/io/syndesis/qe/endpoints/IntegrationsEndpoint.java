@@ -9,7 +9,6 @@ import javax.ws.rs.client.Invocation;
 import javax.ws.rs.core.MediaType;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.Optional;
 
 import io.syndesis.common.model.integration.Integration;
@@ -39,6 +38,7 @@ public class IntegrationsEndpoint extends AbstractEndpoint<Integration> {
         log.debug("PUT : {}", getEndpointUrl(Optional.of(integrationId + "/deployments")));
         final Invocation.Builder invocation = this.createInvocation(integrationId + "/deployments");
         JsonNode r = invocation.put(Entity.entity(new TargetStateRequest(), MediaType.APPLICATION_JSON), JsonNode.class);
+        invalidate(integrationId);
     }
 
     /**
@@ -49,6 +49,7 @@ public class IntegrationsEndpoint extends AbstractEndpoint<Integration> {
         log.debug("POST : {}", getEndpointUrl(Optional.of(integrationId + "/deployments/" + deploymentId + "/targetState")));
         final Invocation.Builder invocation = this.createInvocation(integrationId + "/deployments/" + deploymentId + "/targetState");
         invocation.post(Entity.entity(new TargetStateRequest(IntegrationDeploymentState.Unpublished), MediaType.APPLICATION_JSON), JsonNode.class);
+        invalidate(integrationId);
     }
 
     public IntegrationDeployment getCurrentIntegrationDeployment(String integrationId, int deploymentId) {
@@ -64,9 +65,11 @@ public class IntegrationsEndpoint extends AbstractEndpoint<Integration> {
         return ts;
     }
 
+    /**
+     * Looks the integration up by name, see {@link #findIdByName(String)}.
+     */
     public Optional<String> getIntegrationId(String integrationName) {
-        List<Integration> integrationsList = list();
-        return integrationsList.stream().filter(i -> i.getName().contentEquals(integrationName)).findFirst().get().getId();
+        return findIdByName(integrationName);
     }
 
     @Data
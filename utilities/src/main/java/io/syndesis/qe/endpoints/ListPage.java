@@ -0,0 +1,32 @@
+package io.syndesis.qe.endpoints;
+
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * One page of a list result returned by a Syndesis REST endpoint.
+ *
+ * @param <T> item type
+ */
+@Getter
+public class ListPage<T> {
+    private final int page;
+    private final int perPage;
+    private final int totalCount;
+    private final List<T> items;
+
+    ListPage(int page, int perPage, int totalCount, List<T> items) {
+        this.page = page;
+        this.perPage = perPage;
+        this.totalCount = totalCount;
+        this.items = items;
+    }
+
+    /**
+     * @return true if there are more items after this page
+     */
+    public boolean hasNext() {
+        return !items.isEmpty() && (page - 1) * perPage + items.size() < totalCount;
+    }
+}
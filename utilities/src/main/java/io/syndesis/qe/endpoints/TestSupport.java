@@ -5,8 +5,10 @@ import static org.junit.Assert.fail;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Invocation;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 
 import io.syndesis.qe.TestConfiguration;
+import io.syndesis.qe.utils.PublishProfiler;
 import io.syndesis.qe.utils.RestUtils;
 import io.syndesis.qe.utils.TestUtils;
 import lombok.extern.slf4j.Slf4j;
@@ -41,7 +43,12 @@ public final class TestSupport {
     public void resetDB() {
         int tries = 0;
         while (tries < 10) {
-            if (resetDbWithResponse() == 204) {
+            final int status = resetDbWithResponse();
+            // cached items and IDs don't survive the reset, even a failed one may have removed some of them
+            EndpointCache.clearAll();
+            // the reset deletes all integrations
+            PublishProfiler.reset();
+            if (status == 204) {
                 return;
             }
             TestUtils.sleepIgnoreInterrupt(5000L);
@@ -63,7 +70,9 @@ public final class TestSupport {
                 .request(MediaType.APPLICATION_JSON)
                 .header("X-Forwarded-User", "pista")
                 .header("X-Forwarded-Access-Token", "kral");
-        int responseCode = invocation.get().getStatus();
+        final Response response = invocation.get();
+        final int responseCode = response.getStatus();
+        response.close();
         log.info("syndesis-db has been reset, via url: *{}*, responseCode:*{}*", url, responseCode);
         log.debug("Reset endpoint reponse: {}", responseCode);
         return responseCode;
@@ -51,7 +51,7 @@ public class AmqTemplate {
     }
 
     public static void cleanUp() {
-        OpenShiftUtils.getInstance().getDeploymentConfigs().stream().filter(dc -> "broker-amq".equals(dc.getMetadata().getName())).findFirst()
+        OpenShiftUtils.getDeploymentConfig("broker-amq")
                 .ifPresent(dc -> OpenShiftUtils.getInstance().deleteDeploymentConfig(dc, true));
         OpenShiftUtils.getInstance().getServices().stream().filter(service -> "syndesis-amq".equals(service.getMetadata().getLabels().get("template"))).findFirst()
                 .ifPresent(service -> OpenShiftUtils.getInstance().deleteService(service));
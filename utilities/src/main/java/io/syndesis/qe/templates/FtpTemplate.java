@@ -107,7 +107,7 @@ public class FtpTemplate {
     }
 
     public static void cleanUp() {
-        OpenShiftUtils.getInstance().getDeploymentConfigs().stream().filter(dc -> dc.getMetadata().getName().equals(APP_NAME)).findFirst()
+        OpenShiftUtils.getDeploymentConfig(APP_NAME)
                 .ifPresent(dc -> OpenShiftUtils.getInstance().deleteDeploymentConfig(dc, true));
         OpenShiftUtils.getInstance().getServices().stream().filter(service -> APP_NAME.equals(service.getMetadata().getName())).findFirst()
                 .ifPresent(service -> OpenShiftUtils.getInstance().deleteService(service));
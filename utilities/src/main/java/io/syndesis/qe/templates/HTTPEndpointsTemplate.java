@@ -1,14 +1,18 @@
 package io.syndesis.qe.templates;
 
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.URL;
+import java.net.UnknownHostException;
 import java.util.HashMap;
 import java.util.Map;
 
+import io.syndesis.qe.TestConfiguration;
 import io.syndesis.qe.accounts.Account;
 import io.syndesis.qe.accounts.AccountsDirectory;
 import io.syndesis.qe.utils.OpenShiftUtils;
 import io.syndesis.qe.utils.TestUtils;
+import io.syndesis.qe.utils.http.LocalHttpEndpoints;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -16,6 +20,10 @@ public class HTTPEndpointsTemplate {
     private static final String TEMPLATE_URL = "https://raw.githubusercontent.com/avano/HTTPEndpoints/master/template.yml";
 
     public static void deploy() {
+        if (TestConfiguration.httpEndpointsLocal()) {
+            deployLocal();
+            return;
+        }
         if (!TestUtils.isDcDeployed("httpendpoints")) {
             try {
                 OpenShiftUtils.client().load(new URL(TEMPLATE_URL).openStream()).createOrReplace();
@@ -23,14 +31,30 @@ public class HTTPEndpointsTemplate {
                 e.printStackTrace();
             }
         }
-        addAccount();
+        addAccount("http://http-svc:8080", "https://https-svc:8443");
+    }
+
+    /**
+     * Serves the endpoints from the test JVM, the integrations reach them only if this machine is routable from the cluster.
+     */
+    private static void deployLocal() {
+        final LocalHttpEndpoints endpoints = LocalHttpEndpoints.shared();
+        String host = TestConfiguration.httpEndpointsHost();
+        if (host == null) {
+            try {
+                host = InetAddress.getLocalHost().getHostAddress();
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException("Unable to get the address of the local HTTP endpoints", e);
+            }
+        }
+        addAccount("http://" + host + ":" + endpoints.getHttpPort(), "https://" + host + ":" + endpoints.getHttpsPort());
     }
 
-    private static void addAccount() {
+    private static void addAccount(String baseUrlHttp, String baseUrlHttps) {
         Account http = new Account();
         Map<String, String> httpParams = new HashMap<>();
-        httpParams.put("baseUrlHttp", "http://http-svc:8080");
-        httpParams.put("baseUrlHttps", "https://https-svc:8443");
+        httpParams.put("baseUrlHttp", baseUrlHttp);
+        httpParams.put("baseUrlHttps", baseUrlHttps);
         http.setService("http");
         http.setProperties(httpParams);
         AccountsDirectory.getInstance().getAccounts().put("http", http);
@@ -19,6 +19,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.fail;
 
@@ -31,6 +32,7 @@ public class MysqlTemplate {
     private static final String DB_PASSWORD = "developer";
     private static final String DB_SCHEMA = "sampledb";
     private static final String DB_URL = "jdbc:mysql://mysql:3306/sampledb";
+    private static final Pattern STARTED = Pattern.compile("MySQL started successfully", Pattern.LITERAL);
 
     public static void deploy() {
 
@@ -108,7 +110,7 @@ public class MysqlTemplate {
 
     public static void cleanUp() {
         try {
-            OpenShiftUtils.getInstance().getDeploymentConfigs().stream().filter(dc -> dc.getMetadata().getName().equals(APP_NAME)).findFirst()
+            OpenShiftUtils.getDeploymentConfig(APP_NAME)
                     .ifPresent(dc -> OpenShiftUtils.getInstance().deleteDeploymentConfig(dc, true));
             OpenShiftUtils.getInstance().getServices().stream().filter(service -> APP_NAME.equals(service.getMetadata().getName())).findFirst()
                     .ifPresent(service -> OpenShiftUtils.getInstance().deleteService(service));
@@ -121,7 +123,8 @@ public class MysqlTemplate {
     public static void waitUntilMysqlIsReady() {
         try {
             OpenShiftWaitUtils.waitUntilPodAppears("mysql");
-            OpenShiftWaitUtils.waitFor(() -> OpenShiftUtils.getPodLogs("mysql").contains("MySQL started successfully"), 300L);
+            // only the lines logged since the previous probe are transferred
+            OpenShiftWaitUtils.waitFor(() -> OpenShiftUtils.podLogContains("mysql", STARTED), 300L);
         } catch (TimeoutException | InterruptedException e) {
             log.error(OpenShiftUtils.getPodLogs("mysql"));
             fail("MySQL database never started in pod.", e);
@@ -72,14 +72,14 @@ public class SyndesisTemplate {
         // get & create restricted SA
         OpenShiftUtils.getInstance().createServiceAccount(getSupportSA());
         // get token from SA `oc secrets get-token` && wait until created to prevent 404
-        TestUtils.waitForEvent(Optional::isPresent,
-                () -> OpenShiftUtils.getInstance().getSecrets().stream().filter(s -> s.getMetadata().getName().startsWith("syndesis-oauth-client-token")).findFirst(),
+        TestUtils.waitForEvent("oauth client token secret", Optional::isPresent,
+                () -> OpenShiftUtils.getSecretByPrefix("syndesis-oauth-client-token"),
                 TimeUnit.MINUTES,
                 2,
                 TimeUnit.SECONDS,
                 5);
 
-        Secret secret = OpenShiftUtils.getInstance().getSecrets().stream().filter(s -> s.getMetadata().getName().startsWith("syndesis-oauth-client-token")).findFirst().get();
+        Secret secret = OpenShiftUtils.getSecretByPrefix("syndesis-oauth-client-token").get();
         // token is Base64 encoded by default
         String oauthTokenEncoded = secret.getData().get("token");
         byte[] oauthTokenBytes = Base64.decodeBase64(oauthTokenEncoded);
@@ -94,7 +94,7 @@ public class SyndesisTemplate {
         templateParams.put("OPENSHIFT_PROJECT", TestConfiguration.openShiftNamespace());
         templateParams.put("OPENSHIFT_OAUTH_CLIENT_SECRET", oauthToken);
         templateParams.put("TEST_SUPPORT_ENABLED", "true");
-        templateParams.put("MAX_INTEGRATIONS_PER_USER", "5");
+        templateParams.put("MAX_INTEGRATIONS_PER_USER", TestConfiguration.maxIntegrationsPerUser());
         templateParams.put("INTEGRATION_STATE_CHECK_INTERVAL", "120");
         // process & create
         KubernetesList processedTemplate = OpenShiftUtils.getInstance().recreateAndProcessTemplate(template, templateParams);
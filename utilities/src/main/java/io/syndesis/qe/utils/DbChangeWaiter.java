@@ -0,0 +1,160 @@
+package io.syndesis.qe.utils;
+
+import org.postgresql.PGConnection;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongPredicate;
+
+import io.syndesis.qe.wait.Poller;
+import io.syndesis.qe.wait.PollStrategy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Waits for a condition on the content of a table, re-evaluating it only when the table changes.
+ * <p>
+ * On PostgreSQL a statement level trigger installed on the table while somebody waits for it sends a notification on
+ * every change and the waiter LISTENs for it, so the wait completes as soon as the data lands. The condition is also
+ * re-checked every {@link #RECHECK_INTERVAL_MS} to cover changes the trigger can't see. On other databases the query is
+ * polled with a growing delay, so it should be cheap, e.g. a count of rows.
+ */
+@Slf4j
+public final class DbChangeWaiter {
+    public static final long RECHECK_INTERVAL_MS = 5000L;
+
+    private static final String TRIGGER = "syndesis_qe_notify";
+    // lower case table name -> number of waiters listening for its changes
+    private static final Map<String, Integer> LISTENERS = new HashMap<>();
+
+    private DbChangeWaiter() {
+    }
+
+    /**
+     * @param dbType postgresql, mysql or oracle12
+     * @param table watched table
+     * @param query query returning one number, e.g. a count of rows; on PostgreSQL it runs on the listening connection, so
+     * the wait holds a single connection of the pool
+     * @param condition condition on the result of the query
+     * @param timeoutMs maximum time to wait
+     * @return true if the condition was satisfied in time
+     */
+    public static boolean waitFor(String dbType, String table, String query, LongPredicate condition, long timeoutMs) {
+        if ("postgresql".equals(dbType)) {
+            try {
+                return listen(dbType, table, query, condition, timeoutMs);
+            } catch (SQLException ex) {
+                log.warn("Unable to listen for changes of {}, polling instead: {}", table, ex.getMessage());
+            }
+        }
+        return poll(dbType, table, query, condition, timeoutMs);
+    }
+
+    private static boolean listen(String dbType, String table, String query, LongPredicate condition, long timeoutMs) throws SQLException {
+        final String channel = TRIGGER + "_" + table.toLowerCase();
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try (DbConnectionPool.Lease lease = SampleDbConnectionManager.borrow(dbType)) {
+            acquireTrigger(lease, table);
+            try (Statement statement = lease.getConnection().createStatement()) {
+                // listen before the first evaluation so that no change in between is missed
+                statement.execute("LISTEN " + channel);
+                try {
+                    final PGConnection connection = lease.getConnection().unwrap(PGConnection.class);
+                    while (true) {
+                        if (condition.test(evaluate(lease, query))) {
+                            return true;
+                        }
+                        final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                        if (remaining <= 0) {
+                            return false;
+                        }
+                        // 0 would mean to wait forever
+                        connection.getNotifications((int) Math.max(1, Math.min(remaining, RECHECK_INTERVAL_MS)));
+                    }
+                } finally {
+                    statement.execute("UNLISTEN " + channel);
+                }
+            } finally {
+                releaseTrigger(lease, table);
+            }
+        }
+    }
+
+    /**
+     * Installs the trigger when the first waiter starts listening on the table. The trigger is dropped and created again
+     * in one transaction under an advisory lock, so a trigger left behind by an aborted run doesn't fail the creation and
+     * waiters of other test runs sharing the database don't race.
+     */
+    private static synchronized void acquireTrigger(DbConnectionPool.Lease lease, String table) throws SQLException {
+        final String key = table.toLowerCase();
+        if (!LISTENERS.containsKey(key)) {
+            log.debug("Installing change notification trigger on {}", table);
+            inTransaction(lease,
+                    "CREATE OR REPLACE FUNCTION " + TRIGGER + "() RETURNS trigger AS $$ BEGIN "
+                            + "PERFORM pg_notify('" + TRIGGER + "_' || lower(TG_TABLE_NAME), TG_OP); RETURN NULL; END; $$ LANGUAGE plpgsql",
+                    "DROP TRIGGER IF EXISTS " + TRIGGER + " ON " + table,
+                    "CREATE TRIGGER " + TRIGGER + " AFTER INSERT OR UPDATE OR DELETE ON " + table
+                            + " FOR EACH STATEMENT EXECUTE PROCEDURE " + TRIGGER + "()");
+        }
+        LISTENERS.merge(key, 1, Integer::sum);
+    }
+
+    /**
+     * Removes the trigger, and the function when no other table uses it, after the last waiter on the table finished.
+     */
+    private static synchronized void releaseTrigger(DbConnectionPool.Lease lease, String table) {
+        final String key = table.toLowerCase();
+        if (LISTENERS.merge(key, -1, Integer::sum) > 0) {
+            return;
+        }
+        LISTENERS.remove(key);
+        log.debug("Removing change notification trigger from {}", table);
+        try {
+            inTransaction(lease, "DROP TRIGGER IF EXISTS " + TRIGGER + " ON " + table);
+            if (LISTENERS.isEmpty()) {
+                // fails when a trigger of another test run still uses the function
+                inTransaction(lease, "DROP FUNCTION IF EXISTS " + TRIGGER + "()");
+            }
+        } catch (SQLException ex) {
+            log.warn("Unable to remove change notification trigger from {}: {}", table, ex.getMessage());
+        }
+    }
+
+    private static void inTransaction(DbConnectionPool.Lease lease, String... statements) throws SQLException {
+        final Connection connection = lease.getConnection();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SELECT pg_advisory_xact_lock(hashtext('" + TRIGGER + "'))");
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+            connection.commit();
+        } catch (SQLException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static boolean poll(String dbType, String table, String query, LongPredicate condition, long timeoutMs) {
+        return Poller.poll(table + " change", () -> {
+            try (DbConnectionPool.Lease lease = SampleDbConnectionManager.borrow(dbType)) {
+                return condition.test(evaluate(lease, query));
+            } catch (SQLException ex) {
+                log.debug("Unable to evaluate {}", query, ex);
+                return false;
+            }
+        }, satisfied -> satisfied, timeoutMs, PollStrategy.backoff(1000L)).isSuccess();
+    }
+
+    private static long evaluate(DbConnectionPool.Lease lease, String query) throws SQLException {
+        try (ResultSet rs = lease.prepare(query).executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
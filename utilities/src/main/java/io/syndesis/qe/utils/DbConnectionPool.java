@@ -0,0 +1,255 @@
+package io.syndesis.qe.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import io.syndesis.qe.TestConfiguration;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded pool of JDBC connections to one database.
+ * <p>
+ * Connections are validated when borrowed unless they were used a moment ago, idle connections are closed after
+ * {@link TestConfiguration#dbPoolIdleTimeout()} and connections borrowed for longer than
+ * {@link TestConfiguration#dbPoolLeakThreshold()} are reported together with the stack trace of the borrower. Each
+ * connection keeps its own cache of prepared statements.
+ */
+@Slf4j
+public class DbConnectionPool implements AutoCloseable {
+    private static final int STATEMENT_CACHE_SIZE = 64;
+    private static final long VALIDATION_BYPASS_MS = 500L;
+    private static final int VALIDATION_TIMEOUT_S = 5;
+    private static final long BORROW_TIMEOUT_MS = 30000L;
+
+    private static final ScheduledExecutorService HOUSEKEEPER = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread t = new Thread(r, "db-pool-housekeeper");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final String name;
+    private final ConnectionFactory factory;
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<Lease> leases = ConcurrentHashMap.newKeySet();
+    private final ScheduledFuture<?> housekeeping;
+    private volatile boolean closed;
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    public DbConnectionPool(String name, ConnectionFactory factory) {
+        this.name = name;
+        this.factory = factory;
+        this.permits = new Semaphore(TestConfiguration.dbPoolSize(), true);
+        this.housekeeping = HOUSEKEEPER.scheduleWithFixedDelay(this::housekeeping, 10, 10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Borrows a valid connection, waiting for one to be returned when all of them are in use.
+     *
+     * @return lease that has to be closed to return the connection
+     */
+    public Lease borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool " + name + " is closed");
+        }
+        try {
+            if (!permits.tryAcquire(BORROW_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("No connection to " + name + " available within " + BORROW_TIMEOUT_MS + " ms, " + leases.size() + " in use");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection to " + name, e);
+        }
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = pollIdle()) != null) {
+                if (pooled.isValid()) {
+                    break;
+                }
+                log.debug("Discarding invalid connection to {}", name);
+                pooled.close();
+            }
+            if (pooled == null) {
+                log.debug("Opening new connection to {}", name);
+                pooled = new PooledConnection(factory.create());
+            }
+            final Lease lease = new Lease(pooled);
+            leases.add(lease);
+            return lease;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeping.cancel(false);
+        synchronized (idle) {
+            idle.forEach(PooledConnection::close);
+            idle.clear();
+        }
+        // leased connections are closed when they are returned
+    }
+
+    private PooledConnection pollIdle() {
+        synchronized (idle) {
+            return idle.pollFirst();
+        }
+    }
+
+    private void release(Lease lease) {
+        if (!leases.remove(lease)) {
+            return;
+        }
+        final PooledConnection pooled = lease.pooled;
+        try {
+            if (closed || pooled.connection.isClosed()) {
+                pooled.close();
+                return;
+            }
+            if (!pooled.connection.getAutoCommit()) {
+                pooled.connection.rollback();
+                pooled.connection.setAutoCommit(true);
+            }
+            pooled.lastUsed = System.currentTimeMillis();
+            synchronized (idle) {
+                // most recently used first, so that the rest can time out
+                idle.addFirst(pooled);
+            }
+        } catch (SQLException e) {
+            log.debug("Discarding connection to {} that can't be reset", name, e);
+            pooled.close();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void housekeeping() {
+        final long now = System.currentTimeMillis();
+        final long idleTimeout = TimeUnit.SECONDS.toMillis(TestConfiguration.dbPoolIdleTimeout());
+        synchronized (idle) {
+            idle.removeIf(pooled -> {
+                if (now - pooled.lastUsed > idleTimeout) {
+                    log.debug("Closing idle connection to {}", name);
+                    pooled.close();
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        final long leakThreshold = TimeUnit.SECONDS.toMillis(TestConfiguration.dbPoolLeakThreshold());
+        leases.stream()
+                .filter(lease -> !lease.reported && now - lease.borrowedAt > leakThreshold)
+                .forEach(lease -> {
+                    lease.reported = true;
+                    log.warn("Connection to {} borrowed {} ms ago was not returned, possible leak", name, now - lease.borrowedAt, lease.borrower);
+                });
+    }
+
+    /**
+     * Borrowed connection. Closing the lease returns the connection to the pool, the connection itself must not be closed.
+     */
+    public final class Lease implements AutoCloseable {
+        private final PooledConnection pooled;
+        private final long borrowedAt = System.currentTimeMillis();
+        private final Throwable borrower = new Throwable("Borrowed here");
+        private volatile boolean reported;
+
+        private Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        public Connection getConnection() {
+            return pooled.connection;
+        }
+
+        /**
+         * @return statement prepared for the SQL text, cached with the connection. Don't close it.
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            return pooled.prepare(sql);
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+
+    private final class PooledConnection {
+        private final Connection connection;
+        private volatile long lastUsed = System.currentTimeMillis();
+        private final Map<String, PreparedStatement> statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > STATEMENT_CACHE_SIZE) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        private boolean isValid() {
+            if (System.currentTimeMillis() - lastUsed < VALIDATION_BYPASS_MS) {
+                return true;
+            }
+            try {
+                return connection.isValid(VALIDATION_TIMEOUT_S);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null || statement.isClosed()) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            }
+            return statement;
+        }
+
+        private void close() {
+            statements.values().forEach(DbConnectionPool::closeQuietly);
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.debug("Unable to close connection to {}", name, e);
+            }
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            log.debug("Unable to close statement", e);
+        }
+    }
+}
@@ -1,22 +1,43 @@
 package io.syndesis.qe.utils;
 
 import org.assertj.core.api.Assertions;
+import org.postgresql.PGConnection;
 
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
+
+import java.io.IOException;
+import java.io.StringReader;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import io.syndesis.qe.TestConfiguration;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Database operations. Every operation borrows a connection from the pool of the database (see
+ * {@link SampleDbConnectionManager#getPool(String)}) and returns it when done, statements are cached with the pooled
+ * connections.
+ */
 @Slf4j
 public class DbUtils {
 
-    private Connection dbConnection;
+    private String dbType;
 
     public DbUtils(String dbType) {
-        this.dbConnection = SampleDbConnectionManager.getConnection(dbType);
+        this.dbType = dbType;
     }
 
     /**
@@ -29,18 +50,99 @@ public class DbUtils {
      * Best to use with SELECT
      *
      * @param sqlCommand
-     * @return a ResultSet object that contains the data produced by the query; never null
+     * @return a disconnected copy of the data produced by the query, the connection is returned to the pool already
      */
     public ResultSet executeSQLGetResultSet(String sqlCommand) {
-        ResultSet resultSet = null;
-        final PreparedStatement preparedStatement;
-        try {
-            preparedStatement = dbConnection.prepareStatement(sqlCommand);
-            resultSet = preparedStatement.executeQuery();
+        CachedRowSet rowSet = null;
+        try (DbConnectionPool.Lease lease = borrow();
+            ResultSet resultSet = lease.prepare(sqlCommand).executeQuery()) {
+            rowSet = RowSetProvider.newFactory().createCachedRowSet();
+            rowSet.populate(resultSet);
         } catch (SQLException ex) {
             log.error("Error: " + ex);
         }
-        return resultSet;
+        return rowSet;
+    }
+
+    /**
+     * Runs the query with a read-only, forward-only cursor and returns the rows as they are fetched, so arbitrarily large
+     * results can be validated without holding them in memory. The stream owns the connection, use it in
+     * try-with-resources:
+     * <p>
+     * try (Stream&lt;String&gt; tasks = dbUtils.streamQuery("SELECT task FROM TODO", 1000, rs -&gt; rs.getString(1))) { ... }
+     *
+     * @param sql SELECT statement
+     * @param fetchSize number of rows fetched from the database at once
+     * @param mapper maps the current row
+     * @return lazily populated stream of mapped rows, closing it releases the cursor and the connection
+     */
+    public <T> Stream<T> streamQuery(String sql, int fetchSize, RowMapper<T> mapper) {
+        DbConnectionPool.Lease lease = null;
+        PreparedStatement statement = null;
+        try {
+            lease = borrow();
+            final Connection connection = lease.getConnection();
+            // PostgreSQL uses a cursor only inside of a transaction
+            connection.setAutoCommit(false);
+            statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL streams the rows only with this special value
+            statement.setFetchSize("mysql".equals(dbType) ? Integer.MIN_VALUE : fetchSize);
+            final ResultSet resultSet = statement.executeQuery();
+            log.debug("Streaming rows of *{}*", sql);
+
+            final Iterator<T> rows = new Iterator<T>() {
+                private boolean fetched;
+                private boolean hasRow;
+
+                @Override
+                public boolean hasNext() {
+                    if (!fetched) {
+                        try {
+                            hasRow = resultSet.next();
+                        } catch (SQLException ex) {
+                            throw new IllegalStateException("Unable to fetch next row of " + sql, ex);
+                        }
+                        fetched = true;
+                    }
+                    return hasRow;
+                }
+
+                @Override
+                public T next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    fetched = false;
+                    try {
+                        return mapper.map(resultSet);
+                    } catch (SQLException ex) {
+                        throw new IllegalStateException("Unable to read row of " + sql, ex);
+                    }
+                }
+            };
+            final DbConnectionPool.Lease owner = lease;
+            final PreparedStatement owned = statement;
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(() -> closeStream(owner, owned));
+        } catch (SQLException ex) {
+            closeStream(lease, statement);
+            throw new IllegalStateException("Unable to execute " + sql, ex);
+        }
+    }
+
+    private static void closeStream(DbConnectionPool.Lease lease, PreparedStatement statement) {
+        try {
+            if (statement != null) {
+                // closes the result set too
+                statement.close();
+            }
+        } catch (SQLException ex) {
+            log.debug("Unable to close statement", ex);
+        }
+        if (lease != null) {
+            // the pool rolls the read-only transaction back and restores auto-commit
+            lease.close();
+        }
     }
 
     /**
@@ -50,17 +152,111 @@ public class DbUtils {
      * @return either the row count for sqlCommnad statements or 0 for sqlCommnad statements that return nothing
      */
     public int executeSQLGetUpdateNumber(String sqlCommnad) {
-        final PreparedStatement preparedStatement;
         int result = -1;
-        try {
-            preparedStatement = dbConnection.prepareStatement(sqlCommnad);
-            result = preparedStatement.executeUpdate();
+        try (DbConnectionPool.Lease lease = borrow()) {
+            result = lease.prepare(sqlCommnad).executeUpdate();
         } catch (SQLException ex) {
             log.error("Error: " + ex);
         }
         return result;
     }
 
+    /**
+     * Executes the parameterized statement for every row, sending the rows in JDBC batches of
+     * {@link TestConfiguration#dbBatchSize()} in one transaction.
+     * <p>
+     * Example:
+     * <p>
+     * executeBatch("INSERT INTO TODO(task, completed) VALUES(?, ?)", rows)
+     *
+     * @param sql statement with ? placeholders
+     * @param rows parameter values, one list per row
+     * @return total number of updated rows
+     */
+    public int executeBatch(String sql, List<? extends List<?>> rows) {
+        final int batchSize = TestConfiguration.dbBatchSize();
+        int updated = 0;
+        try (DbConnectionPool.Lease lease = borrow()) {
+            final Connection dbConnection = lease.getConnection();
+            dbConnection.setAutoCommit(false);
+            try {
+                final PreparedStatement statement = lease.prepare(sql);
+                int pending = 0;
+                for (List<?> row : rows) {
+                    for (int i = 0; i < row.size(); i++) {
+                        statement.setObject(i + 1, row.get(i));
+                    }
+                    statement.addBatch();
+                    if (++pending == batchSize) {
+                        updated += sum(statement.executeBatch());
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    updated += sum(statement.executeBatch());
+                }
+                dbConnection.commit();
+            } catch (SQLException ex) {
+                dbConnection.rollback();
+                throw ex;
+            } finally {
+                dbConnection.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            log.error("Error: " + ex);
+            return -1;
+        }
+        log.debug("Batch *{}* updated {} rows", sql, updated);
+        return updated;
+    }
+
+    /**
+     * Inserts the rows into the table. On PostgreSQL the rows can be streamed with COPY, which is considerably faster
+     * than batched inserts for large data sets.
+     *
+     * @param tableName table
+     * @param columns columns the row values belong to
+     * @param rows values, one list per row
+     * @param useCopy use COPY if the database is PostgreSQL
+     * @return number of inserted rows or -1 on error
+     */
+    public int insertRows(String tableName, List<String> columns, List<? extends List<?>> rows, boolean useCopy) {
+        if (useCopy && "postgresql".equals(dbType)) {
+            return copyRows(tableName, columns, rows);
+        }
+        final StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        return executeBatch(String.format("INSERT INTO %s(%s) VALUES(%s)", tableName.toUpperCase(), String.join(", ", columns), placeholders),
+                rows);
+    }
+
+    private int copyRows(String tableName, List<String> columns, List<? extends List<?>> rows) {
+        final StringBuilder csv = new StringBuilder();
+        for (List<?> row : rows) {
+            for (int i = 0; i < row.size(); i++) {
+                if (i > 0) {
+                    csv.append(',');
+                }
+                // unquoted empty value is NULL, everything else is quoted
+                if (row.get(i) != null) {
+                    csv.append('"').append(row.get(i).toString().replace("\"", "\"\"")).append('"');
+                }
+            }
+            csv.append('\n');
+        }
+        final String sql = String.format("COPY %s(%s) FROM STDIN WITH (FORMAT csv)", tableName.toUpperCase(), String.join(", ", columns));
+        try (DbConnectionPool.Lease lease = borrow()) {
+            final long copied = lease.getConnection().unwrap(PGConnection.class).getCopyAPI().copyIn(sql, new StringReader(csv.toString()));
+            log.debug("Copied {} rows into {}", copied, tableName);
+            return (int) copied;
+        } catch (SQLException | IOException ex) {
+            log.error("Error: " + ex);
+            return -1;
+        }
+    }
+
     /**
      * ******************************************
      * SPECIFIC METHODS
@@ -84,23 +280,15 @@ public class DbUtils {
      * @return
      */
     public int getNumberOfRecordsInTable(String tableName, String... args) {
-        if (!(args.length == 0 || args.length == 2)) {
-            throw new IllegalArgumentException("Incorrect usage of this method.");
-        }
 
         int records = 0;
-        try {
-            String sql = "SELECT COUNT(*) FROM " + tableName.toUpperCase();
-
-            if (args.length == 2) {
-                //be specific
-                sql = "SELECT COUNT(*) FROM " + tableName.toUpperCase() + " WHERE " + args[0] + " LIKE '" + args[1] + "'";
-            }
+        try (DbConnectionPool.Lease lease = borrow()) {
+            final String sql = countQuery(tableName, args);
             log.info("SQL: *{}*", sql);
-            final ResultSet resultSet = executeSQLGetResultSet(sql);
-
-            while (resultSet.next()) {
-                records = resultSet.getInt(1);
+            try (ResultSet resultSet = lease.prepare(sql).executeQuery()) {
+                while (resultSet.next()) {
+                    records = resultSet.getInt(1);
+                }
             }
         } catch (SQLException ex) {
             log.error("Error: " + ex);
@@ -110,16 +298,31 @@ public class DbUtils {
         return records;
     }
 
+    /**
+     * Counts the rows returned by the query. The counting is done by the database, the rows are not transferred.
+     *
+     * @param query SELECT statement
+     * @return number of rows
+     */
     public int getCountOfInvokedQuery(String query) {
 
         int records = 0;
-        try {
+        try (DbConnectionPool.Lease lease = borrow()) {
             log.info("SQL: *{}*", query);
-            final ResultSet resultSet = executeSQLGetResultSet(query);
-
-            //inefficient but it works :/ our table has 2 rows so it is not a problem...
-            while (resultSet != null && resultSet.next()) {
-                records++;
+            final String count = "SELECT COUNT(*) FROM (" + query.trim().replaceAll(";$", "") + ") counted";
+            try (ResultSet resultSet = lease.prepare(count).executeQuery()) {
+                if (resultSet.next()) {
+                    records = resultSet.getInt(1);
+                }
+            } catch (SQLException ex) {
+                // not every query can be used as a subquery, count the rows one by one then
+                log.debug("Unable to count rows of *{}* in the database: {}", query, ex.getMessage());
+                records = 0;
+                try (ResultSet resultSet = lease.prepare(query).executeQuery()) {
+                    while (resultSet.next()) {
+                        records++;
+                    }
+                }
             }
         } catch (SQLException ex) {
             log.error("Error: " + ex);
@@ -129,13 +332,41 @@ public class DbUtils {
     }
 
     /**
-     * Checks if the connection is still alive.
+     * @param tableName table
+     * @param args nothing, or column and value pattern the counted rows have to match
+     * @return query counting the rows, see {@link #getNumberOfRecordsInTable(String, String...)}
+     */
+    public static String countQuery(String tableName, String... args) {
+        if (!(args.length == 0 || args.length == 2)) {
+            throw new IllegalArgumentException("Incorrect usage of this method.");
+        }
+        if (args.length == 2) {
+            //be specific
+            return "SELECT COUNT(*) FROM " + tableName.toUpperCase() + " WHERE " + args[0] + " LIKE '" + args[1] + "'";
+        }
+        return "SELECT COUNT(*) FROM " + tableName.toUpperCase();
+    }
+
+    /**
+     * Waits until the condition on the table content is satisfied, see {@link DbChangeWaiter}.
+     *
+     * @param tableName watched table
+     * @param query query returning one number, e.g. {@link #countQuery(String, String...)}
+     * @param condition condition on the result of the query
+     * @param timeoutMs maximum time to wait
+     * @return true if the condition was satisfied in time
+     */
+    public boolean waitFor(String tableName, String query, LongPredicate condition, long timeoutMs) {
+        return DbChangeWaiter.waitFor(dbType, tableName, query, condition, timeoutMs);
+    }
+
+    /**
+     * Checks if a connection to the database can be obtained, the pool validates connections when they are borrowed.
      * @return true/false
      */
     public boolean isConnectionValid() {
-        try {
-            log.info("Validating DB connection; When exception printed out, the connection is not valid");
-            return dbConnection.isValid(30);
+        try (DbConnectionPool.Lease lease = borrow()) {
+            return true;
         } catch (Exception e) {
             // This exception is *not* the same as mentioned in the info log ^ . The isValid method is printing out the exception by default.
             e.printStackTrace();
@@ -178,6 +409,27 @@ public class DbUtils {
     }
 
     public void setConnection(String dbType) {
-        this.dbConnection = SampleDbConnectionManager.getConnection(dbType);
+        this.dbType = dbType;
+    }
+
+    /**
+     * Maps the current row of a result set.
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet resultSet) throws SQLException;
+    }
+
+    private DbConnectionPool.Lease borrow() throws SQLException {
+        return SampleDbConnectionManager.borrow(dbType);
+    }
+
+    private static int sum(int[] counts) {
+        int sum = 0;
+        for (int count : counts) {
+            // some drivers (e.g. Oracle) report just that a batched statement succeeded
+            sum += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+        return sum;
     }
 }
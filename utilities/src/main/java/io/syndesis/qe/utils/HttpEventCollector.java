@@ -0,0 +1,137 @@
+package io.syndesis.qe.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import io.syndesis.qe.wait.Poller;
+import io.syndesis.qe.wait.PollStrategy;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Response;
+
+/**
+ * Collects the calls recorded by the HTTP endpoints application (GET /events, DELETE /clearEvents).
+ * <p>
+ * The application can't push the calls, so the collector polls the events in a short interval over the kept-alive
+ * connection of {@link HttpUtils} and returns as soon as the awaited number of calls is reached, or as soon as there
+ * are more calls than allowed. Each call keeps the timestamp under which the application recorded it.
+ */
+@Slf4j
+public class HttpEventCollector {
+    public static final long POLL_INTERVAL_MS = 500L;
+
+    private final Supplier<String> baseUrl;
+    // event key -> method, ordered by time
+    private final TreeMap<String, String> events = new TreeMap<>(
+            Comparator.comparingLong((String key) -> keyPart(key, 0)).thenComparingLong(key -> keyPart(key, 1)));
+    private volatile long clearedAt = System.nanoTime();
+
+    /**
+     * @param baseUrl supplies the URL of the endpoints application, evaluated for every request
+     */
+    public HttpEventCollector(Supplier<String> baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Clears the events on the server and forgets the collected ones.
+     */
+    public synchronized void clear() {
+        final Response response = HttpUtils.doDeleteRequest(baseUrl.get() + "/clearEvents");
+        if (response != null) {
+            response.close();
+        }
+        events.clear();
+        clearedAt = System.nanoTime();
+    }
+
+    /**
+     * @return milliseconds since the last {@link #clear()}, or since the collector was created
+     */
+    public long millisSinceClear() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - clearedAt);
+    }
+
+    /**
+     * Fetches the events recorded so far.
+     *
+     * @return all events ordered by time
+     */
+    public synchronized List<Event> fetch() {
+        final Response response = HttpUtils.doGetRequest(baseUrl.get() + "/events");
+        if (response == null) {
+            return snapshot();
+        }
+        try {
+            final Map<String, Object> recorded = new Gson().fromJson(response.body().string(), new TypeToken<Map<String, Object>>() {
+            }.getType());
+            if (recorded != null) {
+                recorded.forEach((key, method) -> events.put(key, String.valueOf(method)));
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.error("Unable to read endpoint events", ex);
+        } finally {
+            response.close();
+        }
+        return snapshot();
+    }
+
+    /**
+     * Waits until there are at least min events or more than max events.
+     *
+     * @param min number of events to wait for
+     * @param max number of events after which there is no point in waiting, Integer.MAX_VALUE for no limit
+     * @param timeoutMs maximum time to wait
+     * @return events collected until the wait ended
+     */
+    public List<Event> await(int min, int max, long timeoutMs) {
+        return Poller.poll("endpoint events", this::fetch, e -> e.size() >= min || e.size() > max, timeoutMs,
+                PollStrategy.fixed(POLL_INTERVAL_MS)).getValue();
+    }
+
+    /**
+     * @return times between consecutive events in milliseconds
+     */
+    public static List<Long> intervals(List<Event> events) {
+        final List<Long> intervals = new ArrayList<>();
+        for (int i = 1; i < events.size(); i++) {
+            intervals.add(events.get(i).getTimestamp() - events.get(i - 1).getTimestamp());
+        }
+        return intervals;
+    }
+
+    private List<Event> snapshot() {
+        final List<Event> snapshot = new ArrayList<>();
+        events.forEach((key, method) -> snapshot.add(new Event(keyPart(key, 0), method)));
+        return snapshot;
+    }
+
+    /**
+     * The application keys the events by the timestamp, the local endpoints by the timestamp and a sequence number that
+     * orders the events of the same millisecond, e.g. 1530000000000.42.
+     *
+     * @return timestamp for part 0, sequence number for part 1 (0 if there is none)
+     */
+    static long keyPart(String key, int part) {
+        final int dot = key.indexOf('.');
+        if (part == 0) {
+            return Long.parseLong(dot < 0 ? key : key.substring(0, dot));
+        }
+        return dot < 0 ? 0 : Long.parseLong(key.substring(dot + 1));
+    }
+
+    @Value
+    public static class Event {
+        private final long timestamp;
+        private final String method;
+    }
+}
@@ -13,7 +13,9 @@ import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.util.concurrent.TimeUnit;
 
+import io.syndesis.qe.TestConfiguration;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
 import okhttp3.Headers;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
@@ -23,6 +25,8 @@ import okhttp3.Response;
 
 @Slf4j
 public final class HttpUtils {
+    private static OkHttpClient client;
+
     private HttpUtils() {
     }
 
@@ -114,7 +118,17 @@ public final class HttpUtils {
         return null;
     }
 
-    private static OkHttpClient getClient() {
+    /**
+     * All requests share one client, so its connection pool keeps connections (and TLS sessions) alive between requests.
+     */
+    private static synchronized OkHttpClient getClient() {
+        if (client == null) {
+            client = createClient();
+        }
+        return client;
+    }
+
+    private static OkHttpClient createClient() {
         // Create a trust manager that does not validate certificate chains
         final TrustManager[] trustAllCerts = new TrustManager[]{
                 new X509TrustManager() {
@@ -143,6 +157,7 @@ public final class HttpUtils {
             builder.sslSocketFactory(sslSocketFactory, (X509TrustManager) trustAllCerts[0]);
             builder.hostnameVerifier((hostname, session) -> true);
             return builder
+                    .connectionPool(new ConnectionPool(TestConfiguration.httpMaxConnections(), TestConfiguration.httpKeepAlive(), TimeUnit.SECONDS))
                     .connectTimeout(15, TimeUnit.SECONDS)
                     .writeTimeout(15, TimeUnit.SECONDS)
                     .readTimeout(15, TimeUnit.SECONDS)
@@ -6,7 +6,9 @@ import org.apache.activemq.command.ActiveMQTextMessage;
 import javax.jms.JMSException;
 import javax.jms.Message;
 
-import cz.xtf.jms.JmsClient;
+import java.util.Collection;
+
+import io.syndesis.qe.utils.jms.JmsSessionPool;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -20,8 +22,8 @@ public final class JMSUtils {
     }
 
     public static Message getMessage(Destination type, String destinationName, long timeout) {
-        try(JmsClientManager manager = new JmsClientManager("tcp")) {
-            return withDestination(manager, type, destinationName).receiveMessage(timeout);
+        try {
+            return JmsSessionPool.receive("tcp", type, destinationName, timeout);
         } catch (Exception e) {
             log.error("Unable to get message from JMS", e);
             e.printStackTrace();
@@ -50,28 +52,34 @@ public final class JMSUtils {
     }
 
     public static void sendMessage(Destination type, String name, String content) {
-        try(JmsClientManager manager = new JmsClientManager("tcp")) {
-            withDestination(manager, type, name).sendMessage(content);
+        try {
+            JmsSessionPool.send("tcp", type, name, content);
         } catch (Exception e) {
             log.error("Unable to send message to queue", e);
             e.printStackTrace();
         }
     }
 
-    public static void clear(Destination type, String name) {
-        Message m = getMessage(type, name, 5000L);
-        while (m != null) {
-            m = getMessage(type, name, 5000L);
-        }
+    /**
+     * Sends all messages using one producer. A failed send isn't swallowed, otherwise the messages would only show up
+     * later as lost.
+     *
+     * @throws IllegalStateException when the messages can't be sent
+     */
+    public static void sendMessages(Destination type, String name, Collection<String> contents) {
+        JmsSessionPool.sendAll("tcp", type, name, contents);
     }
 
-    private static JmsClient withDestination(JmsClientManager manager, Destination type, String name) {
-        JmsClient c = manager.getClient();
-        if (Destination.QUEUE == type) {
-            c.addQueue(name);
-        } else {
-            c.addTopic(name);
+    /**
+     * Removes all messages from the destination.
+     *
+     * @return number of removed messages
+     */
+    public static int clear(Destination type, String name) {
+        final int drained = JmsSessionPool.drain("tcp", type, name, 1000L);
+        if (drained > 0) {
+            log.info("Removed {} message(s) from {} {}", drained, type, name);
         }
-        return c;
+        return drained;
     }
 }
@@ -4,47 +4,26 @@ import org.apache.activemq.ActiveMQConnectionFactory;
 import org.apache.qpid.jms.JmsConnectionFactory;
 
 import cz.xtf.jms.JmsClient;
-import io.fabric8.kubernetes.api.model.Pod;
-import io.fabric8.kubernetes.client.LocalPortForward;
+import io.syndesis.qe.utils.jms.JmsSessionPool;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Creates a JMS client for one protocol. The port forward to the broker is shared with {@link JmsSessionPool} and stays
+ * open when the manager is closed.
+ */
 @Slf4j
 public class JmsClientManager implements AutoCloseable {
-    private String jmsUrl;
-    private int jmsPort;
-    private String jmsPodName = "broker-amq";
     private String jmsUser = "amq";
     private String jmsPass = "topSecret";
     private String protocol;
-    private LocalPortForward jmsLocalPortForward = null;
     private JmsClient jmsClient;
 
     public JmsClientManager(String protocol) {
-        initValues(protocol);
-    }
-
-    private void initValues(String protocol) {
         this.protocol = protocol;
-        switch (protocol) {
-            case "tcp":
-            case "openwire":
-                jmsPort = 61616;
-                jmsUrl = "tcp://127.0.0.1:" + jmsPort;
-                break;
-            case "amqp":
-                jmsPort = 5672;
-                jmsUrl = "amqp://127.0.0.1:" + jmsPort;
-                break;
-        }
     }
 
     public JmsClient getClient() {
-        if (jmsLocalPortForward == null || !jmsLocalPortForward.isAlive()) {
-            //can be the same pod twice forwarded to different ports? YES
-            Pod pod = OpenShiftUtils.xtf().getAnyPod("app", jmsPodName);
-            jmsLocalPortForward = OpenShiftUtils.portForward(pod, jmsPort, jmsPort);
-        }
-        return this.initClient();
+        return this.initClient(JmsSessionPool.forward(protocol));
     }
 
     public void close() {
@@ -52,22 +31,21 @@ public class JmsClientManager implements AutoCloseable {
             jmsClient.disconnect();
             jmsClient = null;
         }
-        TestUtils.terminateLocalPortForward(jmsLocalPortForward);
     }
 
-    private JmsClient initClient() {
+    private JmsClient initClient(int localPort) {
         if (jmsClient == null) {
             switch (protocol) {
                 case "tcp":
                 case "openwire":
                     ActiveMQConnectionFactory jmsFactory = new ActiveMQConnectionFactory();
-                    jmsFactory.setBrokerURL(jmsUrl);
+                    jmsFactory.setBrokerURL("tcp://127.0.0.1:" + localPort);
                     jmsFactory.setUserName(jmsUser);
                     jmsFactory.setPassword(jmsPass);
                     jmsClient = new JmsClient(jmsFactory);
                     break;
                 case "amqp":
-                    JmsConnectionFactory jmsConnectionFactory = new JmsConnectionFactory(jmsUser, jmsPass, jmsUrl);
+                    JmsConnectionFactory jmsConnectionFactory = new JmsConnectionFactory(jmsUser, jmsPass, "amqp://127.0.0.1:" + localPort);
                     jmsClient = new JmsClient(jmsConnectionFactory);
                     break;
             }
@@ -1,96 +1,55 @@
 package io.syndesis.qe.utils;
 
 import org.assertj.core.api.Assertions;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.StringReader;
+import java.io.Reader;
 import java.util.Collection;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
 import io.fabric8.kubernetes.api.model.Pod;
+import io.syndesis.qe.utils.logs.LogCursors;
+import io.syndesis.qe.utils.logs.LogScanResult;
+import io.syndesis.qe.utils.logs.LogScanner;
+import io.syndesis.qe.utils.logs.ParallelLogScan;
 
 public class LogCheckerUtils {
-    private static final Logger LOGGER = LoggerFactory.getLogger(LogCheckerUtils.class);
-
+    /**
+     * Looks for the patterns in the pod log. Repeated calls for the same pod only read the lines appended since the last
+     * call and patterns found before are not searched for again.
+     */
     public static boolean[] findPatternsInLogs(Pod pod, Pattern... patterns) throws IOException {
-        boolean found[] = new boolean[patterns.length];
-
-        // TODO: use a method that don't require whole log in memory
-        StringReader stringReader = new StringReader(OpenShiftUtils.getInstance().getPodLog(pod));
-
-        try (BufferedReader br = new BufferedReader(stringReader)) {
-            br.lines().forEach(line -> {
-                for (int i = 0; i < patterns.length; ++i) {
-                    Pattern pattern = patterns[i];
-                    if (pattern.matcher(line).find()) {
-                        LOGGER.info("Found pattern {} on line '{}'", pattern, cleanLine(line));
-                        found[i] = true;
-                    }
-                }
-            });
-        }
-
-        return found;
+        return LogCursors.get(pod).find(patterns);
     }
 
     public static String[] getLinesWithFoundPatternsInLogs(Pod pod, Pattern... patterns) throws IOException {
-        String found[] = new String[patterns.length];
-
-        // TODO: use a method that don't require whole log in memory
-        StringReader stringReader = new StringReader(OpenShiftUtils.getInstance().getPodLog(pod));
-
-        try (BufferedReader br = new BufferedReader(stringReader)) {
-            br.lines().forEach(line -> {
-                for (int i = 0; i < patterns.length; ++i) {
-                    Pattern pattern = patterns[i];
-                    if (pattern.matcher(line).find()) {
-                        LOGGER.info("Found pattern {} on line '{}'", pattern, cleanLine(line));
-                        found[i] = line;
-                    }
-                }
-            });
-        }
-
-        return found;
-    }
-
-    private static boolean[] vectorOr(boolean[] b1, boolean[] b2) {
-
-        if (b1 == null && b2 != null) {
-            return b2;
-        }
-        if (b2 == null && b1 != null) {
-            return b1;
-        }
-
-        assert b1 != null;
-        assert b2 != null;
-        assert b1.length == b2.length;
-
-        boolean found[] = new boolean[b1.length];
-        for (int i = 0; i < found.length; ++i) {
-            found[i] = b1[i] || b2[i];
-        }
-        return found;
+        final LogScanner scanner = new LogScanner(true, patterns);
+        scanPodLog(pod, scanner);
+        return scanner.getLines();
     }
 
     public static boolean[] findPatternsInLogs(Collection<Pod> pods, Pattern... patterns) throws IOException {
+        return scanLogs(pods, patterns).getFound();
+    }
 
-        AtomicReference<boolean[]> foundRef = new AtomicReference<>(null);
-
-        pods.forEach(pod -> {
-            try {
-                foundRef.set(vectorOr(foundRef.get(), findPatternsInLogs(pod, patterns)));
-            } catch (Exception x) {
-                LOGGER.error("Failed to get logs for pod {}", pod.getMetadata().getLabels().get("name"), x);
-            }
-        });
+    /**
+     * Scans logs of all pods concurrently, stopping once every pattern was found in any of them.
+     *
+     * @return merged result with the information which pod matched which pattern
+     */
+    public static LogScanResult scanLogs(Collection<Pod> pods, Pattern... patterns) {
+        return ParallelLogScan.scan(pods, patterns);
+    }
 
-        return foundRef.get();
+    /**
+     * Streams the pod log through the scanner, reading only as much of the log as needed.
+     *
+     * @return true if the scanner is complete
+     */
+    private static boolean scanPodLog(Pod pod, LogScanner scanner) throws IOException {
+        try (Reader reader = OpenShiftUtils.getPodLogReader(pod)) {
+            return scanner.scan(reader);
+        }
     }
 
     /**
@@ -100,7 +59,7 @@ public class LogCheckerUtils {
      * @return
      */
     static Collection<Pod> defaultPods(String containerName) {
-        return OpenShiftUtils.getInstance().getLabeledPods("component", containerName);
+        return OpenShiftUtils.getLabeledPods("component", containerName);
     }
 
     private static String formatPodLists(Collection<Pod> pods) {
@@ -183,11 +142,7 @@ public class LogCheckerUtils {
     }
 
     public static String cleanLine(String line) {
-        if (line.startsWith("\u001b")) {
-            return line + "\u001b[0m";
-        }
-
-        return line;
+        return LogScanner.cleanLine(line);
     }
 }
 
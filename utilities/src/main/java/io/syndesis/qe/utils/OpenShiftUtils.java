@@ -6,23 +6,35 @@ import static org.assertj.core.api.Java6Assertions.assertThat;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 import cz.xtf.openshift.OpenShiftUtil;
 import io.fabric8.kubernetes.api.model.DoneablePod;
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.client.HttpClientAware;
 import io.fabric8.kubernetes.client.LocalPortForward;
 import io.fabric8.kubernetes.client.dsl.PodResource;
 import io.fabric8.kubernetes.client.utils.Serialization;
+import io.fabric8.openshift.api.model.Build;
+import io.fabric8.openshift.api.model.DeploymentConfig;
 import io.fabric8.openshift.api.model.Route;
 import io.fabric8.openshift.api.model.RouteBuilder;
 import io.fabric8.openshift.client.NamespacedOpenShiftClient;
 import io.fabric8.openshift.client.OpenShiftConfigBuilder;
 import io.syndesis.qe.Component;
 import io.syndesis.qe.TestConfiguration;
+import io.syndesis.qe.utils.cache.NamespaceCache;
+import io.syndesis.qe.utils.logs.LogCursors;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
 import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
 import okhttp3.Response;
 
 /**
@@ -91,6 +103,50 @@ public final class OpenShiftUtils {
         return getPodResource(pod).portForward(remotePort, localPort);
     }
 
+    /**
+     * Opens the pod log as a stream, so it can be processed line by line without holding the whole log in memory.
+     * The caller is responsible for closing the reader.
+     *
+     * @param pod pod
+     * @return log reader
+     */
+    public static Reader getPodLogReader(Pod pod) {
+        return getPodResource(pod).getLogReader();
+    }
+
+    /**
+     * Prepares a request of the container log with every line prefixed by its RFC3339 timestamp.
+     * <p>
+     * The request goes through the HTTP client of the OpenShift client, so cancelling the call from another thread
+     * closes the connection right away and a read blocked on the log stream fails with an IOException.
+     *
+     * @param pod pod
+     * @param container container name, null for the only container of the pod
+     * @param sinceTime RFC3339 timestamp of the first second to return, null for the whole log
+     * @return call to execute
+     */
+    public static Call podLogCall(Pod pod, String container, String sinceTime) {
+        final NamespacedOpenShiftClient client = client();
+        if (!(client instanceof HttpClientAware)) {
+            throw new IllegalStateException("OpenShift client doesn't expose its HTTP client");
+        }
+        final String namespace = pod.getMetadata().getNamespace() != null ? pod.getMetadata().getNamespace() : client.getNamespace();
+        final HttpUrl.Builder url = HttpUrl.parse(client.getMasterUrl().toString()).newBuilder()
+                .addPathSegments("api/v1/namespaces")
+                .addPathSegment(namespace)
+                .addPathSegment("pods")
+                .addPathSegment(pod.getMetadata().getName())
+                .addPathSegment("log")
+                .addQueryParameter("timestamps", "true");
+        if (container != null) {
+            url.addQueryParameter("container", container);
+        }
+        if (sinceTime != null) {
+            url.addQueryParameter("sinceTime", sinceTime);
+        }
+        return ((HttpClientAware) client).getHttpClient().newCall(new Request.Builder().url(url.build()).get().build());
+    }
+
     private static PodResource<Pod, DoneablePod> getPodResource(Pod pod) {
         if (pod.getMetadata().getNamespace() != null) {
             return client().pods().inNamespace(pod.getMetadata().getNamespace()).withName(pod.getMetadata().getName());
@@ -99,8 +155,62 @@ public final class OpenShiftUtils {
         }
     }
 
+    /*
+     * Reads of the namespace state below are served from the watch-backed NamespaceCache, so they don't hit the API server.
+     * After modifying a resource, use the freshness methods of the corresponding cache to wait until the cache catches up.
+     */
+
+    public static List<Pod> getPods() {
+        return NamespaceCache.pods().list();
+    }
+
+    public static Optional<Pod> getPod(String name) {
+        return NamespaceCache.pods().get(name);
+    }
+
+    public static List<Pod> getLabeledPods(String labelName, String labelValue) {
+        return NamespaceCache.pods().withLabel(labelName, labelValue);
+    }
+
+    public static List<Build> getBuilds() {
+        return NamespaceCache.builds().list();
+    }
+
+    public static List<DeploymentConfig> getDeploymentConfigs() {
+        return NamespaceCache.deploymentConfigs().list();
+    }
+
+    public static Optional<DeploymentConfig> getDeploymentConfig(String name) {
+        return NamespaceCache.deploymentConfigs().get(name);
+    }
+
+    public static List<Secret> getSecrets() {
+        return NamespaceCache.secrets().list();
+    }
+
+    public static Optional<Secret> getSecret(String name) {
+        return NamespaceCache.secrets().get(name);
+    }
+
+    public static Optional<Secret> getSecretByPrefix(String prefix) {
+        return NamespaceCache.secrets().withNamePrefix(prefix).stream().findFirst();
+    }
+
+    /**
+     * Routes are usually read right after they were created, so the routes are listed again when the cache doesn't
+     * know the route yet.
+     */
+    public static Optional<Route> getRoute(String name) {
+        Optional<Route> route = NamespaceCache.routes().get(name);
+        if (!route.isPresent()) {
+            NamespaceCache.routes().refresh();
+            route = NamespaceCache.routes().get(name);
+        }
+        return route;
+    }
+
     public static Optional<Pod> getPodByPartialName(String partialName) {
-        Optional<Pod> oPod = OpenShiftUtils.getInstance().getPods().stream()
+        Optional<Pod> oPod = getPods().stream()
                 .filter(p -> p.getMetadata().getName().contains(partialName))
                 .filter(p -> !p.getMetadata().getName().contains("deploy"))
                 .filter(p -> !p.getMetadata().getName().contains("build"))
@@ -118,13 +228,48 @@ public final class OpenShiftUtils {
         return getPodLogs(integrationName.replaceAll("[\\s_]", "-").toLowerCase());
     }
 
+    /**
+     * Looks for the pattern in the log of the integration, see {@link #podLogContains(String, Pattern)}.
+     */
+    public static boolean integrationLogContains(String integrationName, Pattern pattern) {
+        return podLogContains(integrationName.replaceAll("[\\s_]", "-").toLowerCase(), pattern);
+    }
+
+    /**
+     * Looks for the pattern in the pod log. Repeated calls only read the lines appended since the previous call, so this
+     * is the one to poll while waiting for a log line, unlike {@link #getPodLogs(String)}.
+     *
+     * @param podPartialName part of the pod name
+     * @param pattern pattern to look for
+     * @return true if the pattern was found
+     */
+    public static boolean podLogContains(String podPartialName, Pattern pattern) {
+        final Optional<Pod> pod = findPodForLogs(podPartialName);
+        if (!pod.isPresent()) {
+            fail("No pod found for pod name: " + podPartialName);
+        }
+        try {
+            return LogCursors.get(pod.get()).find(pattern)[0];
+        } catch (IOException e) {
+            fail("Unable to read log of pod " + pod.get().getMetadata().getName(), e);
+            //this can not happen due to fail
+            return false;
+        }
+    }
+
+    /**
+     * Reads the whole pod log. Every call transfers the log from the beginning, poll with
+     * {@link #podLogContains(String, Pattern)} instead.
+     */
     public static String getPodLogs(String podPartialName) {
-        Optional<Pod> integrationPod = OpenShiftUtils.getInstance().getPods().stream()
-                .filter(p -> !p.getMetadata().getName().contains("build"))
-                .filter(p -> !p.getMetadata().getName().contains("deploy"))
-                .filter(p -> p.getMetadata().getName().contains(podPartialName)).findFirst();
+        Optional<Pod> integrationPod = findPodForLogs(podPartialName);
         if (integrationPod.isPresent()) {
-            String logText = OpenShiftUtils.getInstance().getPodLog(integrationPod.get());
+            String logText = null;
+            try {
+                logText = LogCursors.get(integrationPod.get()).text();
+            } catch (IOException e) {
+                fail("Unable to read log of pod " + integrationPod.get().getMetadata().getName(), e);
+            }
             assertThat(logText)
                     .isNotEmpty();
             return logText;
@@ -135,6 +280,13 @@ public final class OpenShiftUtils {
         return null;
     }
 
+    private static Optional<Pod> findPodForLogs(String podPartialName) {
+        return getPods().stream()
+                .filter(p -> !p.getMetadata().getName().contains("build"))
+                .filter(p -> !p.getMetadata().getName().contains("deploy"))
+                .filter(p -> p.getMetadata().getName().contains(podPartialName)).findFirst();
+    }
+
     /**
      * Some of the resources can't be created by f8 client, therefore we manually post them to corresponding endpoint.
      * @param kind kind of the resource
@@ -0,0 +1,240 @@
+package io.syndesis.qe.utils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.LocalPortForward;
+import io.syndesis.qe.utils.cache.NamespaceCache;
+import io.syndesis.qe.wait.Poller;
+import io.syndesis.qe.wait.PollStrategy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Port forwards to pods in the test namespace, shared by all callers.
+ * <p>
+ * There is one forward per target (pods selected by a label or by a name) and remote port. It listens on a free
+ * ephemeral local port, so parallel runs and local services don't collide, and it is probed until the remote side accepts
+ * connections before the port is handed out. When the pod of a target is replaced or restarted, the forward is
+ * re-created on the same local port if possible, both on the next request and in the background as soon as the pod
+ * change shows up in the {@link NamespaceCache}, so URLs built from the port stay valid.
+ */
+@Slf4j
+public final class PortForwardManager {
+    private static final long READY_TIMEOUT_MS = 30000L;
+    private static final int PROBE_TIMEOUT_MS = 500;
+    // a forward to a port nobody listens on closes the connection within this window
+    private static final long RESET_WINDOW_MS = 100L;
+
+    private static final Map<String, Forward> FORWARDS = new ConcurrentHashMap<>();
+    private static final ExecutorService MONITOR = Executors.newSingleThreadExecutor(r -> {
+        final Thread t = new Thread(r, "port-forward-monitor");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final AtomicBoolean CHECK_PENDING = new AtomicBoolean();
+    private static final AtomicBoolean MONITORING = new AtomicBoolean();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(PortForwardManager::closeAll, "port-forward-shutdown"));
+    }
+
+    private PortForwardManager() {
+    }
+
+    /**
+     * Forwards the port of a running pod with the label.
+     *
+     * @return local port
+     */
+    public static int forward(String label, String value, int remotePort) {
+        return forward(label + "=" + value, () -> NamespaceCache.pods().withLabel(label, value).stream()
+                .filter(PortForwardManager::isRunning)
+                .findFirst(), remotePort);
+    }
+
+    /**
+     * Forwards the port of a running pod whose name contains the given string, ignoring build and deployer pods.
+     *
+     * @return local port
+     */
+    public static int forwardByName(String partialName, int remotePort) {
+        return forward(partialName, () -> NamespaceCache.pods().list(p -> p.getMetadata().getName().contains(partialName)
+                && !p.getMetadata().getName().contains("build")
+                && !p.getMetadata().getName().contains("deploy")).stream()
+                .filter(PortForwardManager::isRunning)
+                .findFirst(), remotePort);
+    }
+
+    /**
+     * Returns the local port of the forward to the target, creating or re-creating the forward if needed.
+     *
+     * @param target name of the target, forwards are shared by target and remote port
+     * @param selector selects the pod of the target
+     * @param remotePort port of the pod
+     * @return local port
+     */
+    public static int forward(String target, Supplier<Optional<Pod>> selector, int remotePort) {
+        startMonitor();
+        return FORWARDS.computeIfAbsent(target + ":" + remotePort, k -> new Forward(target, selector, remotePort)).ensure();
+    }
+
+    /**
+     * Closes all forwards. Following calls create new ones.
+     */
+    public static void closeAll() {
+        FORWARDS.values().forEach(Forward::close);
+        FORWARDS.clear();
+    }
+
+    private static void startMonitor() {
+        if (MONITORING.compareAndSet(false, true)) {
+            // changes come in bursts, check at most once per burst
+            NamespaceCache.addListener(() -> {
+                if (CHECK_PENDING.compareAndSet(false, true)) {
+                    MONITOR.execute(PortForwardManager::checkAll);
+                }
+            });
+        }
+    }
+
+    private static void checkAll() {
+        CHECK_PENDING.set(false);
+        FORWARDS.values().forEach(forward -> {
+            try {
+                // the next caller of the forward waits for it to be ready, the monitor thread doesn't
+                forward.connect();
+            } catch (RuntimeException e) {
+                // usually the new pod isn't running yet, the next change triggers another check
+                log.debug("Unable to re-create port forward to {}: {}", forward.target, e.getMessage());
+            }
+        });
+    }
+
+    private static boolean isRunning(Pod pod) {
+        return pod.getStatus() != null && "Running".equals(pod.getStatus().getPhase());
+    }
+
+    private static int restartCount(Pod pod) {
+        if (pod.getStatus() == null || pod.getStatus().getContainerStatuses() == null) {
+            return 0;
+        }
+        return pod.getStatus().getContainerStatuses().stream().mapToInt(s -> s.getRestartCount() == null ? 0 : s.getRestartCount()).sum();
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to find a free local port", e);
+        }
+    }
+
+    /**
+     * The forward is ready when a connection through it isn't closed right away, which is what happens when the remote
+     * port doesn't accept connections. Servers that speak first send a greeting, the others (HTTP, PostgreSQL) stay
+     * quiet, so the probe doesn't wait for any data beyond the short reset window.
+     */
+    private static boolean probe(int localPort) {
+        try (SocketChannel channel = SocketChannel.open(); Selector selector = Selector.open()) {
+            channel.socket().connect(new InetSocketAddress("127.0.0.1", localPort), PROBE_TIMEOUT_MS);
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ);
+            if (selector.select(RESET_WINDOW_MS) == 0) {
+                return true;
+            }
+            return channel.read(ByteBuffer.allocate(1)) != -1;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static final class Forward {
+        private final String target;
+        private final Supplier<Optional<Pod>> selector;
+        private final int remotePort;
+
+        private LocalPortForward current;
+        private String podUid;
+        private int restarts;
+        private int localPort;
+        // incremented with every re-created forward, the probe result belongs to one of them
+        private long generation;
+        private volatile long readyGeneration = -1;
+
+        private Forward(String target, Supplier<Optional<Pod>> selector, int remotePort) {
+            this.target = target;
+            this.selector = selector;
+            this.remotePort = remotePort;
+        }
+
+        /**
+         * Re-creates the forward if needed and waits until it accepts connections. The probe runs without holding the
+         * monitor, so other callers and the background re-creation aren't blocked by it.
+         */
+        private int ensure() {
+            final int port;
+            final long probed;
+            synchronized (this) {
+                port = connect();
+                probed = generation;
+            }
+            if (readyGeneration != probed) {
+                if (Poller.poll("port forward to " + target, () -> probe(port), ready -> ready, READY_TIMEOUT_MS,
+                        PollStrategy.backoff(1000L)).isSuccess()) {
+                    readyGeneration = probed;
+                } else {
+                    log.warn("Port {} of {} is not accepting connections through local port {}", remotePort, target, port);
+                }
+            }
+            return port;
+        }
+
+        /**
+         * Re-creates the forward when the pod was replaced or restarted.
+         *
+         * @return local port
+         */
+        private synchronized int connect() {
+            final Pod pod = selector.get().orElseThrow(() -> new IllegalStateException("No running pod for " + target));
+            if (current != null && current.isAlive() && pod.getMetadata().getUid().equals(podUid) && restartCount(pod) == restarts) {
+                return localPort;
+            }
+
+            TestUtils.terminateLocalPortForward(current);
+            current = null;
+            // keep the previous local port so that URLs built from it stay valid
+            int port = localPort > 0 ? localPort : freePort();
+            try {
+                current = OpenShiftUtils.portForward(pod, remotePort, port);
+            } catch (RuntimeException e) {
+                log.debug("Local port {} is not available, picking another one", port, e);
+                port = freePort();
+                current = OpenShiftUtils.portForward(pod, remotePort, port);
+            }
+            localPort = port;
+            podUid = pod.getMetadata().getUid();
+            restarts = restartCount(pod);
+            generation++;
+            log.debug("Forwarding port {} of {} to local port {}", remotePort, pod.getMetadata().getName(), localPort);
+            return localPort;
+        }
+
+        private synchronized void close() {
+            TestUtils.terminateLocalPortForward(current);
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package io.syndesis.qe.utils;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.openshift.api.model.Build;
+import io.fabric8.openshift.api.model.DeploymentConfig;
+import io.syndesis.qe.endpoints.ActivityIntegrationsEndpoint;
+import io.syndesis.qe.utils.cache.NamespaceCache;
+import io.syndesis.qe.wait.AsyncWait;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Measures where the time of an integration deployment goes.
+ * <p>
+ * From the publish request on, each {@link Phase} of the deployment is watched in the namespace caches and the
+ * time it was first seen is recorded in the {@link Timeline} of the integration. When all phases are seen (or timed out,
+ * or the profile is stopped), the timeline is logged and the duration of each phase seen is added to histograms
+ * aggregated over all profiled integrations.
+ */
+@Slf4j
+public final class PublishProfiler {
+    private static final long TIMEOUT_MS = TimeUnit.MINUTES.toMillis(15);
+
+    private static final Map<Phase, Histogram> PHASE_DURATIONS = new EnumMap<>(Phase.class);
+    private static final Map<String, Timeline> TIMELINES = new ConcurrentHashMap<>();
+    private static final ExecutorService PROBES = Executors.newFixedThreadPool(2, TestUtils.daemonThreads("publish-probe"));
+
+    public enum Phase {
+        ACCEPTED, BUILD_CREATED, BUILD_RUNNING, BUILD_COMPLETE, IMAGE_PUSHED, DEPLOYMENT_CREATED, POD_SCHEDULED, CONTAINER_READY,
+        FIRST_EXCHANGE
+    }
+
+    private PublishProfiler() {
+    }
+
+    /**
+     * Starts profiling of the integration, call right before the publish request and call {@link Timeline#accepted()}
+     * when the request returns. Builds, deployments and pods that exist
+     * at this moment belong to previous deployments of the integration and are ignored.
+     *
+     * @param integrationName integration name
+     * @param integrationId integration id
+     * @param activities endpoint used to detect the first exchange
+     * @return timeline that fills in as the phases are seen
+     */
+    public static Timeline start(String integrationName, String integrationId, ActivityIntegrationsEndpoint activities) {
+        final String sanitizedName = integrationName.toLowerCase().replaceAll(" ", "-");
+        final Timeline timeline = new Timeline(integrationName, integrationId);
+        final Timeline previous = TIMELINES.put(integrationName, timeline);
+        if (previous != null) {
+            previous.cancel();
+        }
+
+        final Set<String> oldBuilds = uids(builds(sanitizedName));
+        final Map<String, Long> oldDeployments = new HashMap<>();
+        deploymentConfigs(sanitizedName).forEach(dc -> oldDeployments.put(dc.getMetadata().getUid(), latestVersion(dc)));
+        final Set<String> oldPods = uids(integrationPods(sanitizedName));
+        final Predicate<Build> newBuild = b -> !oldBuilds.contains(b.getMetadata().getUid());
+        final Predicate<Pod> newPod = p -> !oldPods.contains(p.getMetadata().getUid());
+
+        final Map<Phase, BooleanSupplier> conditions = new EnumMap<>(Phase.class);
+        conditions.put(Phase.BUILD_CREATED, () -> builds(sanitizedName).stream().anyMatch(newBuild));
+        conditions.put(Phase.BUILD_RUNNING, () -> builds(sanitizedName).stream().filter(newBuild)
+                .anyMatch(b -> !"New".equals(phase(b)) && !"Pending".equals(phase(b))));
+        conditions.put(Phase.BUILD_COMPLETE, () -> builds(sanitizedName).stream().filter(newBuild).anyMatch(b -> "Complete".equals(phase(b))));
+        // older clusters don't report the digest, the image is pushed when the build completes there
+        conditions.put(Phase.IMAGE_PUSHED, () -> builds(sanitizedName).stream().filter(newBuild)
+                .anyMatch(b -> "Complete".equals(phase(b)) || imageDigest(b) != null));
+        // a re-publish rolls out a new version of the existing deployment config
+        conditions.put(Phase.DEPLOYMENT_CREATED, () -> deploymentConfigs(sanitizedName).stream()
+                .anyMatch(dc -> latestVersion(dc) > oldDeployments.getOrDefault(dc.getMetadata().getUid(), -1L)));
+        conditions.put(Phase.POD_SCHEDULED, () -> integrationPods(sanitizedName).stream().filter(newPod).anyMatch(p -> hasCondition(p, "PodScheduled")));
+        conditions.put(Phase.CONTAINER_READY, () -> integrationPods(sanitizedName).stream().filter(newPod).anyMatch(p -> hasCondition(p, "Ready")));
+        conditions.put(Phase.FIRST_EXCHANGE, firstExchange(timeline, activities));
+
+        final List<CompletableFuture<?>> recorded = new ArrayList<>();
+        conditions.forEach((phase, condition) -> {
+            final CompletableFuture<Long> wait = AsyncWait.until(integrationName + " " + phase, condition, TIMEOUT_MS);
+            // the wait itself is kept for cancelling, cancelling a stage derived from it wouldn't stop it
+            timeline.addWait(wait);
+            recorded.add(wait.handle((ms, e) -> {
+                if (ms != null) {
+                    timeline.offsets.putIfAbsent(phase, ms);
+                }
+                return null;
+            }));
+        });
+        CompletableFuture.allOf(recorded.toArray(new CompletableFuture[0])).thenRun(timeline::finish);
+        return timeline;
+    }
+
+    /**
+     * Stops profiling of the integration, call when it is unpublished or deleted.
+     *
+     * @param integrationId integration id
+     */
+    public static void stop(String integrationId) {
+        TIMELINES.values().removeIf(timeline -> {
+            if (integrationId.equals(timeline.integrationId)) {
+                timeline.cancel();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * @return timeline of the integration if it was profiled
+     */
+    public static Optional<Timeline> timeline(String integrationName) {
+        return Optional.ofNullable(TIMELINES.get(integrationName));
+    }
+
+    /**
+     * @return duration of each phase over all finished timelines, in seconds
+     */
+    public static String summary() {
+        final StringBuilder sb = new StringBuilder(String.format("%-20s %6s %8s %8s %8s%n", "phase", "count", "p50", "p90", "max"));
+        synchronized (PHASE_DURATIONS) {
+            PHASE_DURATIONS.forEach((phase, histogram) -> sb.append(String.format("%-20s %6d %8.1f %8.1f %8.1f%n", phase,
+                    histogram.getTotalCount(), seconds(histogram.getValueAtPercentile(50)), seconds(histogram.getValueAtPercentile(90)),
+                    seconds(histogram.getMaxValue()))));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Stops all running profiles and forgets their timelines, call when a scenario ends. The phases seen so far are added
+     * to the durations kept for the {@link #summary()}.
+     */
+    public static void reset() {
+        TIMELINES.values().forEach(Timeline::cancel);
+        TIMELINES.clear();
+    }
+
+    /**
+     * The activities are fetched from the server, which can take a while, so the probe runs on its own executor and the
+     * condition only reports its result. The probe records the time of the first exchange itself.
+     */
+    private static BooleanSupplier firstExchange(Timeline timeline, ActivityIntegrationsEndpoint activities) {
+        final AtomicBoolean probing = new AtomicBoolean();
+        return () -> {
+            // don't bother the server before there is a pod to process anything
+            if (!timeline.offsets.containsKey(Phase.FIRST_EXCHANGE) && timeline.offsets.containsKey(Phase.CONTAINER_READY)
+                    && probing.compareAndSet(false, true)) {
+                PROBES.execute(() -> {
+                    try {
+                        if (!timeline.cancelled && !activities.list(timeline.integrationId).isEmpty()) {
+                            timeline.offsets.putIfAbsent(Phase.FIRST_EXCHANGE, timeline.elapsedMs());
+                        }
+                    } catch (RuntimeException e) {
+                        log.debug("Unable to read activities of {}", timeline.integrationName, e);
+                    } finally {
+                        probing.set(false);
+                    }
+                });
+            }
+            return timeline.offsets.containsKey(Phase.FIRST_EXCHANGE);
+        };
+    }
+
+    private static List<Build> builds(String sanitizedName) {
+        return NamespaceCache.builds().withLabel("buildconfig", sanitizedName);
+    }
+
+    private static List<DeploymentConfig> deploymentConfigs(String sanitizedName) {
+        return NamespaceCache.deploymentConfigs().list(dc -> dc.getMetadata().getName().contains(sanitizedName));
+    }
+
+    private static long latestVersion(DeploymentConfig dc) {
+        return dc.getStatus() == null || dc.getStatus().getLatestVersion() == null ? 0 : dc.getStatus().getLatestVersion();
+    }
+
+    private static Set<String> uids(List<? extends HasMetadata> resources) {
+        return resources.stream().map(r -> r.getMetadata().getUid()).collect(Collectors.toSet());
+    }
+
+    private static String phase(Build build) {
+        return build.getStatus() == null ? null : build.getStatus().getPhase();
+    }
+
+    private static String imageDigest(Build build) {
+        if (build.getStatus() == null || build.getStatus().getOutput() == null || build.getStatus().getOutput().getTo() == null) {
+            return null;
+        }
+        return build.getStatus().getOutput().getTo().getImageDigest();
+    }
+
+    private static List<Pod> integrationPods(String sanitizedName) {
+        return NamespaceCache.pods().list(p -> p.getMetadata().getName().contains(sanitizedName)
+                && !p.getMetadata().getName().contains("build")
+                && !p.getMetadata().getName().contains("deploy"));
+    }
+
+    private static boolean hasCondition(Pod pod, String type) {
+        return pod.getStatus() != null && pod.getStatus().getConditions() != null && pod.getStatus().getConditions().stream()
+                .anyMatch(c -> type.equals(c.getType()) && "True".equals(c.getStatus()));
+    }
+
+    private static double seconds(long millis) {
+        return millis / 1000.0;
+    }
+
+    /**
+     * Times at which the phases of one deployment were first seen, in milliseconds since the publish request.
+     */
+    public static final class Timeline {
+        private final String integrationName;
+        private final String integrationId;
+        private final long start = System.nanoTime();
+        private final Map<Phase, Long> offsets = Collections.synchronizedMap(new EnumMap<>(Phase.class));
+        private final List<CompletableFuture<Long>> waits = new ArrayList<>();
+        private volatile boolean cancelled;
+
+        private Timeline(String integrationName, String integrationId) {
+            this.integrationName = integrationName;
+            this.integrationId = integrationId;
+        }
+
+        /**
+         * @return milliseconds since the publish request at which the phase was seen, empty if it wasn't (yet)
+         */
+        public Optional<Long> offset(Phase phase) {
+            return Optional.ofNullable(offsets.get(phase));
+        }
+
+        /**
+         * Records the {@link Phase#ACCEPTED} phase, call when the publish request returned.
+         */
+        public void accepted() {
+            offsets.putIfAbsent(Phase.ACCEPTED, elapsedMs());
+        }
+
+        private long elapsedMs() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+
+        private synchronized void addWait(CompletableFuture<Long> wait) {
+            waits.add(wait);
+            if (cancelled) {
+                wait.cancel(true);
+            }
+        }
+
+        private synchronized void cancel() {
+            cancelled = true;
+            waits.forEach(w -> w.cancel(true));
+        }
+
+        /**
+         * Runs once all waits completed, timed out or were cancelled. A stopped profile still contributes the phases seen
+         * until then, integrations that got no traffic before the scenario ended would never reach the histograms otherwise.
+         */
+        private void finish() {
+            if (cancelled) {
+                log.info("Publish profile of {} stopped, timeline so far:\n{}", integrationName, this);
+            } else {
+                log.info("Publish timeline of {}:\n{}", integrationName, this);
+            }
+            synchronized (PHASE_DURATIONS) {
+                long previous = 0;
+                for (Phase phase : Phase.values()) {
+                    final Long offset = offsets.get(phase);
+                    if (offset == null) {
+                        continue;
+                    }
+                    // phases seen in the same burst of events may be recorded slightly out of order
+                    PHASE_DURATIONS.computeIfAbsent(phase, p -> new Histogram(3)).recordValue(Math.max(0, offset - previous));
+                    previous = Math.max(previous, offset);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder();
+            long previous = 0;
+            for (Phase phase : Phase.values()) {
+                final Long offset = offsets.get(phase);
+                if (offset == null) {
+                    sb.append(String.format("  %-20s %8s%n", phase, "-"));
+                } else {
+                    sb.append(String.format("  %-20s %8.1f s (+%.1f s)%n", phase, seconds(offset), seconds(Math.max(0, offset - previous))));
+                    previous = Math.max(previous, offset);
+                }
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -2,9 +2,17 @@ package io.syndesis.qe.utils;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.ssl.SSLContextBuilder;
 
 import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
@@ -18,7 +26,6 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 
 import javax.ws.rs.client.Client;
-import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.ClientRequestContext;
 import javax.ws.rs.client.ClientResponseContext;
 import javax.ws.rs.client.ClientResponseFilter;
@@ -29,9 +36,9 @@ import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.X509Certificate;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import cz.xtf.http.HttpUtil;
-import io.fabric8.kubernetes.client.LocalPortForward;
 import io.fabric8.openshift.api.model.Route;
 import io.syndesis.qe.Component;
 import io.syndesis.qe.TestConfiguration;
@@ -46,40 +53,62 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public final class RestUtils {
 
-    private static LocalPortForward localPortForward = null;
+    private static CloseableHttpClient httpClient;
+    private static Client client;
+    private static Client wrappedClient;
+    private static Client defaultProvidersClient;
     private static Optional<String> restUrl = Optional.empty();
 
     private RestUtils() {
     }
 
-    public static Client getClient() throws RestClientException {
-        final ResteasyJackson2Provider jackson2Provider = RestUtils.createJackson2Provider(Optional.empty(), Optional.empty());
-        return getClient(jackson2Provider);
+    /**
+     * @return shared client for the Syndesis REST API
+     */
+    public static synchronized Client getClient() throws RestClientException {
+        if (client == null) {
+            client = getClient(RestUtils.createJackson2Provider(Optional.empty(), Optional.empty()));
+        }
+        return client;
     }
 
-    public static Client getInsecureClient() throws RestClientException {
-        final Client client = ClientBuilder.newClient();
-        client.register(new ErrorLogger());
-        return client;
+    /**
+     * @return shared client with the default RESTEasy providers (including multipart), backed by the pooled transport
+     */
+    public static synchronized Client getInsecureClient() throws RestClientException {
+        if (defaultProvidersClient == null) {
+            defaultProvidersClient = new ResteasyClientBuilder()
+                    .register(new ErrorLogger())
+                    .httpEngine(createEngine())
+                    .build();
+        }
+        return defaultProvidersClient;
     }
 
-    public static Client getWrappedClient() throws RestClientException {
-        final ResteasyJackson2Provider jackson2Provider = RestUtils.createJackson2Provider(Optional.of(SerializationFeature.WRAP_ROOT_VALUE),
-                Optional.of(DeserializationFeature.UNWRAP_ROOT_VALUE));
-        return getClient(jackson2Provider);
+    public static synchronized Client getWrappedClient() throws RestClientException {
+        if (wrappedClient == null) {
+            final ResteasyJackson2Provider jackson2Provider = RestUtils.createJackson2Provider(Optional.of(SerializationFeature.WRAP_ROOT_VALUE),
+                    Optional.of(DeserializationFeature.UNWRAP_ROOT_VALUE));
+            wrappedClient = getClient(jackson2Provider);
+        }
+        return wrappedClient;
     }
 
     public static Client getClient(ResteasyJackson2Provider jackson2Provider) throws RestClientException {
-        final ApacheHttpClient4Engine engine = new ApacheHttpClient4Engine(RestUtils.createAllTrustingClient());
-
-        final Client client = new ResteasyClientBuilder()
+        return new ResteasyClientBuilder()
                 .providerFactory(new ResteasyProviderFactory()) // this is needed otherwise default jackson2provider is used, which causes problems with JDK8 Optional
                 .register(jackson2Provider)
                 .register(new ErrorLogger())
-                .httpEngine(engine)
+                .httpEngine(createEngine())
                 .build();
+    }
 
-        return client;
+    /**
+     * All clients share one connection pool, so connections (and TLS sessions) to the Syndesis route are reused.
+     * Closing a client doesn't close the shared pool.
+     */
+    private static ApacheHttpClient4Engine createEngine() throws RestClientException {
+        return new ApacheHttpClient4Engine(getHttpClient(), false);
     }
 
     private static ResteasyJackson2Provider createJackson2Provider(Optional<SerializationFeature> serialization, Optional<DeserializationFeature> deserialization) {
@@ -96,24 +125,58 @@ public final class RestUtils {
         return jackson2Provider;
     }
 
+    /**
+     * Returns the shared pooled HTTP client. Certificate validation is skipped and idle connections are kept alive
+     * for {@link TestConfiguration#httpKeepAlive()} seconds, after which they are evicted. Waiting for a pooled connection
+     * and for response data is bounded by {@link TestConfiguration#httpConnectionRequestTimeout()} and
+     * {@link TestConfiguration#httpSocketTimeout()}.
+     */
+    public static synchronized HttpClient getHttpClient() throws RestClientException {
+        if (httpClient == null) {
+            httpClient = createAllTrustingClient();
+        }
+        return httpClient;
+    }
+
     //Required in order to skip certificate validation
-    private static HttpClient createAllTrustingClient() throws RestClientException {
-        HttpClient httpclient;
+    private static CloseableHttpClient createAllTrustingClient() throws RestClientException {
         try {
             final SSLContextBuilder builder = new SSLContextBuilder();
             builder.loadTrustMaterial((TrustStrategy) (X509Certificate[] chain, String authType) -> true);
-            final SSLConnectionSocketFactory sslsf = new SSLConnectionSocketFactory(
-                    builder.build());
-            httpclient = HttpClients
+            // one SSL context for all connections, so that TLS sessions are resumed instead of negotiated again
+            final SSLConnectionSocketFactory sslsf = new SSLConnectionSocketFactory(builder.build());
+            final Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                    .register("https", sslsf)
+                    .build();
+
+            final long keepAlive = TimeUnit.SECONDS.toMillis(TestConfiguration.httpKeepAlive());
+            final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(registry);
+            connectionManager.setMaxTotal(TestConfiguration.httpMaxConnections());
+            connectionManager.setDefaultMaxPerRoute(TestConfiguration.httpMaxConnectionsPerRoute());
+            // stale connections closed by the route are detected before they are reused
+            connectionManager.setValidateAfterInactivity(2000);
+
+            // a leaked response or more concurrent calls than the pool allows fail instead of blocking forever
+            final RequestConfig requestConfig = RequestConfig.custom()
+                    .setConnectionRequestTimeout((int) TimeUnit.SECONDS.toMillis(TestConfiguration.httpConnectionRequestTimeout()))
+                    .setSocketTimeout((int) TimeUnit.SECONDS.toMillis(TestConfiguration.httpSocketTimeout()))
+                    .build();
+
+            return HttpClients
                     .custom()
-                    .setSSLSocketFactory(sslsf)
-                    .setMaxConnTotal(1000)
-                    .setMaxConnPerRoute(1000)
+                    .setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(requestConfig)
+                    .setKeepAliveStrategy((response, context) -> {
+                        final long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                        return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAlive) : keepAlive;
+                    })
+                    .evictExpiredConnections()
+                    .evictIdleConnections(keepAlive, TimeUnit.MILLISECONDS)
                     .build();
         } catch (NoSuchAlgorithmException | KeyStoreException | KeyManagementException e) {
             throw new RestClientException("Cannot create all SSL certificates trusting client", e);
         }
-        return httpclient;
     }
 
     public static String getRestUrl() {
@@ -143,34 +206,27 @@ public final class RestUtils {
     }
 
     public static void setupLocalPortForward() {
-        if (localPortForward == null || !localPortForward.isAlive()) {
-            log.debug("creating local port forward for pod syndesis-server");
-            localPortForward = TestUtils.createLocalPortForward(Component.SERVER.getName(), 8080, 8080);
-            try {
-                restUrl = Optional.of(String.format("http://%s:%s", localPortForward.getLocalAddress().getLoopbackAddress().getHostName(), localPortForward.getLocalPort()));
-            } catch (IllegalStateException ex) {
-                restUrl = Optional.of(String.format("http://%s:%s", "127.0.0.1", 8080));
-            }
-            log.debug("rest endpoint URL: " + restUrl.get());
-        }
+        log.debug("creating local port forward for pod syndesis-server");
+        final int localPort = PortForwardManager.forward("syndesis.io/component", Component.SERVER.getName(), 8080);
+        restUrl = Optional.of(String.format("http://%s:%s", "127.0.0.1", localPort));
+        log.debug("rest endpoint URL: " + restUrl.get());
     }
 
     /**
-     * Resets the URL and port-forward.
+     * Resets the URL. The port forward is shared and follows the server pod on its own.
      */
     public static void reset() {
         restUrl = Optional.empty();
-        TestUtils.terminateLocalPortForward(localPortForward);
-        localPortForward = null;
     }
 
     /**
-     * Logs request and response when response code is bigger than 299.
+     * Logs request and response when response code is bigger than 299, except for 304 Not Modified which is the expected
+     * answer to a revalidation of a cached item.
      */
     private static class ErrorLogger implements ClientResponseFilter {
         @Override
         public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) throws IOException {
-            if (responseContext.getStatus() > 299 && !requestContext.getUri().toString().contains("reset-db")) {
+            if (responseContext.getStatus() > 299 && responseContext.getStatus() != 304 && !requestContext.getUri().toString().contains("reset-db")) {
                 log.error("Error while invoking " + requestContext.getUri().toString());
                 log.error("  Request:");
                 log.error("    Headers:");
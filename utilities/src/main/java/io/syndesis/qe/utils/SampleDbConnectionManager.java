@@ -5,13 +5,11 @@ import org.assertj.core.api.Assertions;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
-import io.fabric8.kubernetes.api.model.Pod;
-import io.fabric8.kubernetes.client.LocalPortForward;
 import io.syndesis.qe.accounts.Account;
 import io.syndesis.qe.accounts.AccountsDirectory;
 import lombok.extern.slf4j.Slf4j;
@@ -24,74 +22,52 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class SampleDbConnectionManager {
 
-    private static Map<String, DbWrapper> connectionsInfoMap = new HashMap<>();
-
-    public static Connection getConnection(String dbType) {
-
-        switch (dbType) {
-            case "postgresql":
-                SampleDbConnectionManager.handlePortForwardDatabases(dbType, 5432, 5432, "syndesis-db", "postgresql");
-                break;
-            case "mysql":
-                SampleDbConnectionManager.handlePortForwardDatabases(dbType, 3306, 3306, "mysql", "mysql");
-                break;
-            case "oracle12":
-                SampleDbConnectionManager.handleExternalDatabases(dbType);
-                break;
-        }
-
-        Assertions.assertThat(connectionsInfoMap).containsKey(dbType);
-        Assertions.assertThat(connectionsInfoMap.get(dbType).getDbConnection()).isNotNull();
-        return connectionsInfoMap.get(dbType).getDbConnection();
-    }
-
-    //    AUXILIARIES:
-    private static void handleExternalDatabases(String dbType) {
-        DbWrapper wrap = SampleDbConnectionManager.getWrap(dbType);
-        try {
-            if (wrap.getDbConnection() == null || wrap.getDbConnection().isClosed()) {
-                Connection dbConnection = SampleDbConnectionManager.createDbConnection(dbType);
-                wrap.setDbConnection(dbConnection);
-                connectionsInfoMap.put(dbType, wrap);
-                Assertions.assertThat(connectionsInfoMap).isNotEmpty();
+    private static final Map<String, DbConnectionPool> POOLS = new ConcurrentHashMap<>();
+
+    /**
+     * @param dbType postgresql, mysql or oracle12
+     * @return connection pool of the database, created on first use
+     */
+    public static DbConnectionPool getPool(String dbType) {
+        return POOLS.computeIfAbsent(dbType, type -> {
+            switch (type) {
+                case "postgresql":
+                    return new DbConnectionPool(type, () -> createPortForwardedConnection(5432, "syndesis-db", "postgresql"));
+                case "mysql":
+                    return new DbConnectionPool(type, () -> createPortForwardedConnection(3306, "mysql", "mysql"));
+                case "oracle12":
+                    return new DbConnectionPool(type, () -> createDbConnection(type));
+                default:
+                    throw new IllegalArgumentException("Unsupported database type " + type);
             }
-        } catch (SQLException ex) {
-            log.error("Error: " + ex);
-        }
+        });
     }
 
-    public static Connection getConnection() {
-        return getConnection("postgresql");
+    /**
+     * Borrows a connection from the pool of the database.
+     *
+     * @param dbType postgresql, mysql or oracle12
+     * @return lease that has to be closed to return the connection
+     */
+    public static DbConnectionPool.Lease borrow(String dbType) throws SQLException {
+        return getPool(dbType).borrow();
     }
 
     public static void closeConnections() {
-        connectionsInfoMap.forEach((key, value) -> releaseDbWrapper(value));
-        connectionsInfoMap.clear();
+        POOLS.values().forEach(DbConnectionPool::close);
+        POOLS.clear();
     }
 
     //AUXILIARIES:
 
-    private static void handlePortForwardDatabases(String dbType, int remotePort, int localPort, String podName, String driver) {
-        //        check whether portForward and connection are alive:
-        DbWrapper wrap = SampleDbConnectionManager.getWrap(dbType);
-        if (wrap.getLocalPortForward() == null || !wrap.getLocalPortForward().isAlive()) {
-            LocalPortForward localPortForward = createLocalPortForward(remotePort, localPort, podName);
-            wrap.setLocalPortForward(localPortForward);
-        }
-        try {
-            if (wrap.getDbConnection() == null || wrap.getDbConnection().isClosed()) {
-                Connection dbConnection = SampleDbConnectionManager.createDbConnection(wrap.getLocalPortForward(), localPort, driver);
-                wrap.setDbConnection(dbConnection);
-                connectionsInfoMap.put(driver, wrap);
-                Assertions.assertThat(connectionsInfoMap).containsKey(driver);
-                Assertions.assertThat(connectionsInfoMap).containsValue(wrap);
-            }
-        } catch (SQLException ex) {
-            log.error("ERROR: *{}* ", ex);
-        }
+    /**
+     * Opens a new connection through the shared port forward to the database pod.
+     */
+    private static Connection createPortForwardedConnection(int remotePort, String podName, String driver) throws SQLException {
+        return createDbConnection(PortForwardManager.forwardByName(podName, remotePort), driver);
     }
 
-    private static Connection createDbConnection(LocalPortForward localPortForward, int localPort, String driver) throws SQLException {
+    private static Connection createDbConnection(int localPort, String driver) throws SQLException {
 
         final Properties props = new Properties();
         if (driver.equalsIgnoreCase("mysql")) {
@@ -101,13 +77,7 @@ public class SampleDbConnectionManager {
             props.setProperty("user", "sampledb");
         }
 
-        String dbUrl;
-        try {
-            String hostName = localPortForward.getLocalAddress().getLoopbackAddress().getHostName();
-            dbUrl = String.format("jdbc:%s://%s:%s/sampledb", driver, hostName, localPort);
-        } catch (IllegalStateException ex) {
-            dbUrl = String.format("jdbc:%s://%s:%s/sampledb", driver, "127.0.0.1", localPort);
-        }
+        final String dbUrl = String.format("jdbc:%s://%s:%s/sampledb", driver, "127.0.0.1", localPort);
         log.debug("DB endpoint URL: " + dbUrl);
         return DriverManager.getConnection(dbUrl, props);
     }
@@ -128,40 +98,4 @@ public class SampleDbConnectionManager {
         log.debug("DB endpoint URL: *{}*", dbUrl);
         return DriverManager.getConnection(dbUrl, props);
     }
-
-    private static LocalPortForward createLocalPortForward(int remotePort, int localPort, String podName) {
-        LocalPortForward localPortForward;
-
-        Optional<Pod> dbPodOpt = OpenShiftUtils.getInstance().getPods().stream().filter(p -> p.getMetadata().getName().contains(podName)).findFirst();
-
-        localPortForward = OpenShiftUtils.portForward(dbPodOpt.get(), remotePort, localPort);
-        return localPortForward;
-    }
-
-    private static void releaseDbWrapper(DbWrapper wrap) {
-
-        try {
-            if (wrap.getDbConnection() == null) {
-                log.debug("There was no connection to database created, nothing to close.");
-                return;
-            }
-            if (!wrap.getDbConnection().isClosed()) {
-                wrap.getDbConnection().close();
-            }
-        } catch (SQLException ex) {
-            log.error("Error: " + ex);
-        }
-
-        TestUtils.terminateLocalPortForward(wrap.getLocalPortForward());
-    }
-
-    private static DbWrapper getWrap(String dbType) {
-        DbWrapper wrap;
-        if (connectionsInfoMap.containsKey(dbType)) {
-            wrap = connectionsInfoMap.get(dbType);
-        } else {
-            wrap = new DbWrapper(dbType);
-        }
-        return wrap;
-    }
 }
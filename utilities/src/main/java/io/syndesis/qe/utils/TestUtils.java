@@ -4,11 +4,12 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
-import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.LocalPortForward;
 import io.fabric8.openshift.api.model.DeploymentConfig;
@@ -22,6 +23,8 @@ import io.syndesis.qe.accounts.AccountsDirectory;
 import io.syndesis.qe.endpoints.IntegrationOverviewEndpoint;
 import io.syndesis.qe.model.IntegrationOverview;
 import io.syndesis.qe.utils.dballoc.DBAllocation;
+import io.syndesis.qe.wait.PollStrategy;
+import io.syndesis.qe.wait.Poller;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -33,6 +36,19 @@ public final class TestUtils {
     private TestUtils() {
     }
 
+    /**
+     * @param prefix thread name prefix, the threads are numbered from 1
+     * @return factory of daemon threads, so that executors of the test utilities don't keep the JVM running
+     */
+    public static ThreadFactory daemonThreads(String prefix) {
+        final AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            final Thread t = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
     /**
      * Finds an Action of a given connector.
      * <p>
@@ -61,31 +77,43 @@ public final class TestUtils {
 
     /**
      * Waits until a predicate is true or timeout exceeds.
+     * <p>
+     * The predicate is probed with exponentially growing delays (starting in tens of milliseconds) up to the sleep
+     * interval, so conditions that become true quickly don't wait for a whole interval.
      *
+     * @param name      name of the event in the wait statistics
      * @param predicate predicate
      * @param supplier  supplier of values to test by predicate
      * @param unit      TimeUnit for timeout
      * @param timeout   how long to wait for event
      * @param sleepUnit TimeUnit of sleep interval between tests
-     * @param sleepTime how long to wait between individual tests (in miliseconds)
+     * @param sleepTime maximum time to wait between individual tests
      * @param <T>       Type of tested value by a predicate
      * @return True if predicate become true within a timeout, otherwise returns false.
      */
-    public static <T> boolean waitForEvent(Predicate<T> predicate, Supplier<T> supplier, TimeUnit unit, long timeout, TimeUnit sleepUnit, long sleepTime) {
-        final long start = System.currentTimeMillis();
-        long elapsed = 0;
-        while (!predicate.test(supplier.get()) && unit.toMillis(timeout) >= elapsed) {
-            try {
-                sleepUnit.sleep(sleepTime);
-            } catch (InterruptedException e) {
-                log.debug("Interupted while sleeping", e);
-            } finally {
-                elapsed = System.currentTimeMillis() - start;
-                System.gc();
-            }
-        }
+    public static <T> boolean waitForEvent(String name, Predicate<T> predicate, Supplier<T> supplier, TimeUnit unit, long timeout, TimeUnit sleepUnit,
+            long sleepTime) {
+        return waitForEvent(name, predicate, supplier, unit, timeout, PollStrategy.backoff(sleepUnit.toMillis(sleepTime)));
+    }
 
-        return predicate.test(supplier.get());
+    /**
+     * Waits until a predicate is true or timeout exceeds, probing according to the given strategy.
+     *
+     * @param name      name of the event in the wait statistics
+     * @param predicate predicate
+     * @param supplier  supplier of values to test by predicate
+     * @param unit      TimeUnit for timeout
+     * @param timeout   how long to wait for event
+     * @param strategy  delays between individual tests
+     * @param <T>       Type of tested value by a predicate
+     * @return True if predicate become true within a timeout, otherwise returns false.
+     */
+    public static <T> boolean waitForEvent(String name, Predicate<T> predicate, Supplier<T> supplier, TimeUnit unit, long timeout, PollStrategy strategy) {
+        final Poller.Result<T> result = Poller.poll(name, supplier, predicate, unit.toMillis(timeout), strategy);
+        if (!result.isSuccess()) {
+            log.warn("Wait for {} {}, last value: {}", name, result, result.getValue());
+        }
+        return result.isSuccess();
     }
 
     public static boolean waitForPublishing(IntegrationOverviewEndpoint e, IntegrationOverview i, TimeUnit unit, long timeout) {
@@ -103,7 +131,7 @@ public final class TestUtils {
      * @return True if integration is activated within a timeout. False otherwise.
      */
     public static boolean waitForState(IntegrationOverviewEndpoint e, IntegrationOverview i, IntegrationDeploymentState state, TimeUnit unit, long timeout) {
-        return waitForEvent(
+        return waitForEvent("integration " + i.getName() + " " + state,
                 //                integration -> integration.getCurrentStatus().orElse(IntegrationDeploymentState.Pending) == state,
                 integration -> integration.getCurrentState() == state,
                 () -> getIntegration(e, i.getId()).orElse(i),
@@ -118,15 +146,6 @@ public final class TestUtils {
         return Optional.of(e.getOverview(integrationId));
     }
 
-    public static LocalPortForward createLocalPortForward(String podName, int remotePort, int localPort) {
-        final Pod podToForward = OpenShiftUtils.getInstance().getAnyPod("syndesis.io/component", podName);
-        return OpenShiftUtils.portForward(podToForward, remotePort, localPort);
-    }
-
-    public static LocalPortForward createLocalPortForward(Pod pod, int remotePort, int localPort) {
-        return OpenShiftUtils.portForward(pod, remotePort, localPort);
-    }
-
     public static boolean isDcDeployed(String dcName) {
         DeploymentConfig dc = OpenShiftUtils.client().deploymentConfigs().withName(dcName).get();
         return dc != null && dc.getStatus().getReadyReplicas() > 0;
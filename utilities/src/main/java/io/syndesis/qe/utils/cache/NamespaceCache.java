@@ -0,0 +1,147 @@
+package io.syndesis.qe.utils.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.openshift.api.model.Build;
+import io.fabric8.openshift.api.model.DeploymentConfig;
+import io.fabric8.openshift.api.model.Route;
+import io.syndesis.qe.utils.OpenShiftUtils;
+
+/**
+ * Process-wide watch-backed caches of the test namespace.
+ * <p>
+ * The caches are started lazily on first use. Every change in any of them is counted, so waiting code can sleep until
+ * something in the namespace changes instead of polling the API server in a fixed interval.
+ */
+public final class NamespaceCache {
+    private static final Object CHANGE_MONITOR = new Object();
+    private static final List<ResourceCache<?>> CACHES = new ArrayList<>();
+    private static final List<Runnable> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private static long changes;
+    private static ResourceCache<Pod> pods;
+    private static ResourceCache<Build> builds;
+    private static ResourceCache<DeploymentConfig> deploymentConfigs;
+    private static ResourceCache<Secret> secrets;
+    private static ResourceCache<Route> routes;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(NamespaceCache::stop, "namespace-cache-shutdown"));
+    }
+
+    private NamespaceCache() {
+    }
+
+    public static synchronized ResourceCache<Pod> pods() {
+        if (pods == null) {
+            pods = register(new ResourceCache<>("pod",
+                    () -> OpenShiftUtils.client().pods().list(),
+                    (version, watcher) -> OpenShiftUtils.client().pods().withResourceVersion(version).watch(watcher)));
+        }
+        return pods;
+    }
+
+    public static synchronized ResourceCache<Build> builds() {
+        if (builds == null) {
+            builds = register(new ResourceCache<>("build",
+                    () -> OpenShiftUtils.client().builds().list(),
+                    (version, watcher) -> OpenShiftUtils.client().builds().withResourceVersion(version).watch(watcher)));
+        }
+        return builds;
+    }
+
+    public static synchronized ResourceCache<DeploymentConfig> deploymentConfigs() {
+        if (deploymentConfigs == null) {
+            deploymentConfigs = register(new ResourceCache<>("deployment config",
+                    () -> OpenShiftUtils.client().deploymentConfigs().list(),
+                    (version, watcher) -> OpenShiftUtils.client().deploymentConfigs().withResourceVersion(version).watch(watcher)));
+        }
+        return deploymentConfigs;
+    }
+
+    public static synchronized ResourceCache<Secret> secrets() {
+        if (secrets == null) {
+            secrets = register(new ResourceCache<>("secret",
+                    () -> OpenShiftUtils.client().secrets().list(),
+                    (version, watcher) -> OpenShiftUtils.client().secrets().withResourceVersion(version).watch(watcher)));
+        }
+        return secrets;
+    }
+
+    public static synchronized ResourceCache<Route> routes() {
+        if (routes == null) {
+            routes = register(new ResourceCache<>("route",
+                    () -> OpenShiftUtils.client().routes().list(),
+                    (version, watcher) -> OpenShiftUtils.client().routes().withResourceVersion(version).watch(watcher)));
+        }
+        return routes;
+    }
+
+    /**
+     * @return number of changes seen by all caches so far
+     */
+    public static long changes() {
+        synchronized (CHANGE_MONITOR) {
+            return changes;
+        }
+    }
+
+    /**
+     * Blocks until any cache sees a change after the given change count or the timeout expires.
+     *
+     * @param since value of {@link #changes()} read before the condition was evaluated
+     * @param timeoutMs maximum time to wait
+     * @return true if there was a change, false on timeout
+     */
+    public static boolean awaitChange(long since, long timeoutMs) throws InterruptedException {
+        final long deadline = System.nanoTime() + timeoutMs * 1_000_000L;
+        synchronized (CHANGE_MONITOR) {
+            long remaining = timeoutMs;
+            while (changes == since && remaining > 0) {
+                CHANGE_MONITOR.wait(remaining);
+                remaining = (deadline - System.nanoTime()) / 1_000_000L;
+            }
+            return changes != since;
+        }
+    }
+
+    /**
+     * Registers a listener called after every change in any of the caches. The listener is called on the watch thread
+     * and must not block.
+     *
+     * @param listener listener
+     */
+    public static void addListener(Runnable listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void removeListener(Runnable listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Closes all watches. The caches start again on next use.
+     */
+    public static synchronized void stop() {
+        CACHES.forEach(ResourceCache::stop);
+    }
+
+    private static <T extends HasMetadata> ResourceCache<T> register(ResourceCache<T> cache) {
+        cache.addListener(NamespaceCache::changed);
+        CACHES.add(cache);
+        return cache;
+    }
+
+    private static void changed() {
+        synchronized (CHANGE_MONITOR) {
+            changes++;
+            CHANGE_MONITOR.notifyAll();
+        }
+        LISTENERS.forEach(Runnable::run);
+    }
+}
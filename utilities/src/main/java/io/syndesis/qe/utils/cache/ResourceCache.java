@@ -0,0 +1,375 @@
+package io.syndesis.qe.utils.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local copy of all resources of one kind in the namespace, kept up to date by a watch.
+ * <p>
+ * The resources are listed once, then a watch is opened from the resource version of that list and every event updates
+ * the local copy. When the watch is closed by the server, the cache lists the resources again and opens a new watch.
+ * Until the cache is synced (or when the watch can't be opened at all), reads fall back to listing the resources
+ * from the API.
+ * <p>
+ * Resources are indexed by name (also usable for name prefix lookups) and by labels. Events arrive asynchronously, so
+ * code that has just modified a resource should wait for the cache to catch up using {@link #awaitFresh(HasMetadata, long)}
+ * or {@link #awaitAbsent(String, long)}, or force a relist with {@link #refresh()}.
+ *
+ * @param <T> resource type
+ */
+@Slf4j
+public class ResourceCache<T extends HasMetadata> {
+    private static final long RESYNC_DELAY_MS = 1000L;
+
+    private final String kind;
+    private final Supplier<KubernetesResourceList<T>> lister;
+    private final BiFunction<String, Watcher<T>, Watch> watcher;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final Object updateMonitor = new Object();
+
+    // replaced as a whole on every relist, so readers never see a half filled cache
+    private volatile Index<T> index = new Index<>();
+    private volatile boolean synced;
+    private volatile boolean stopped;
+    private volatile boolean unavailable;
+    private long lastVersion = -1;
+    private Watch watch;
+
+    /**
+     * @param kind resource kind, used in log messages
+     * @param lister lists all resources
+     * @param watcher opens the watch from the given resource version
+     */
+    public ResourceCache(String kind, Supplier<KubernetesResourceList<T>> lister, BiFunction<String, Watcher<T>, Watch> watcher) {
+        this.kind = kind;
+        this.lister = lister;
+        this.watcher = watcher;
+    }
+
+    /**
+     * Lists the resources and starts watching them. Calling start on a started cache does nothing.
+     */
+    public synchronized void start() {
+        if (synced) {
+            return;
+        }
+        stopped = false;
+        try {
+            final KubernetesResourceList<T> list = lister.get();
+            replaceAll(list);
+            watch = watcher.apply(list.getMetadata().getResourceVersion(), new CacheWatcher());
+            synced = true;
+            unavailable = false;
+            log.debug("Watching {}s from resource version {}", kind, list.getMetadata().getResourceVersion());
+            fireChanged();
+        } catch (KubernetesClientException e) {
+            unavailable = true;
+            log.warn("Unable to watch {}s, falling back to listing them on every read: {}", kind, e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the watch and forgets the cached resources.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        synced = false;
+        if (watch != null) {
+            watch.close();
+            watch = null;
+        }
+        synchronized (updateMonitor) {
+            index = new Index<>();
+            lastVersion = -1;
+        }
+    }
+
+    /**
+     * Lists the resources again and replaces the cached ones, keeping the watch open.
+     */
+    public synchronized void refresh() {
+        if (!synced) {
+            start();
+            return;
+        }
+        replaceAll(lister.get());
+        fireChanged();
+    }
+
+    public boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * @return all resources
+     */
+    public List<T> list() {
+        return ensureStarted() ? new ArrayList<>(index.items.values()) : lister.get().getItems();
+    }
+
+    /**
+     * @param filter resource filter
+     * @return resources matching the filter
+     */
+    public List<T> list(Predicate<T> filter) {
+        return list().stream().filter(filter).collect(Collectors.toList());
+    }
+
+    /**
+     * @param name resource name
+     * @return resource with the given name
+     */
+    public Optional<T> get(String name) {
+        if (ensureStarted()) {
+            return Optional.ofNullable(index.items.get(name));
+        }
+        return lister.get().getItems().stream().filter(item -> name.equals(item.getMetadata().getName())).findFirst();
+    }
+
+    /**
+     * @param prefix name prefix
+     * @return resources with names starting with the prefix, ordered by name
+     */
+    public List<T> withNamePrefix(String prefix) {
+        if (ensureStarted()) {
+            return new ArrayList<>(index.items.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values());
+        }
+        return list(item -> item.getMetadata().getName().startsWith(prefix));
+    }
+
+    /**
+     * @param label label name
+     * @param value label value
+     * @return resources having the label with the given value
+     */
+    public List<T> withLabel(String label, String value) {
+        if (ensureStarted()) {
+            final Index<T> current = index;
+            final Set<String> names = current.labels.getOrDefault(label + "=" + value, Collections.emptySet());
+            return names.stream().map(current.items::get).filter(item -> item != null).collect(Collectors.toList());
+        }
+        return list(item -> item.getMetadata().getLabels() != null && value.equals(item.getMetadata().getLabels().get(label)));
+    }
+
+    /**
+     * Waits until the cache contains the given version of the resource or a newer one. Use after creating or updating the
+     * resource, with the object returned by the API.
+     *
+     * @param written resource as returned by the create/update call
+     * @param timeoutMs maximum time to wait
+     * @return true if the cache caught up
+     */
+    public boolean awaitFresh(T written, long timeoutMs) throws InterruptedException {
+        final long version = parseVersion(written.getMetadata().getResourceVersion());
+        if (version < 0) {
+            refresh();
+            return true;
+        }
+        return await(() -> lastVersion >= version, timeoutMs);
+    }
+
+    /**
+     * Waits until the resource disappears from the cache. Use after deleting the resource.
+     *
+     * @param name resource name
+     * @param timeoutMs maximum time to wait
+     * @return true if the resource is gone
+     */
+    public boolean awaitAbsent(String name, long timeoutMs) throws InterruptedException {
+        if (!ensureStarted()) {
+            // without the watch there is nothing to wait on, poll the API
+            final long deadline = System.currentTimeMillis() + timeoutMs;
+            while (get(name).isPresent()) {
+                if (System.currentTimeMillis() >= deadline) {
+                    return false;
+                }
+                Thread.sleep(RESYNC_DELAY_MS);
+            }
+            return true;
+        }
+        return await(() -> !index.items.containsKey(name), timeoutMs);
+    }
+
+    /**
+     * Registers a listener that is called after every change of the cached resources. The listener is called on the
+     * watch thread and must not block.
+     *
+     * @param listener listener
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    private boolean ensureStarted() {
+        if (!synced && !unavailable) {
+            start();
+        }
+        return synced;
+    }
+
+    private boolean await(BooleanSupplier condition, long timeoutMs) throws InterruptedException {
+        if (!ensureStarted()) {
+            // reads go directly to the API
+            return true;
+        }
+        final long deadline = System.nanoTime() + timeoutMs * 1_000_000L;
+        synchronized (updateMonitor) {
+            long remaining = timeoutMs;
+            while (!condition.getAsBoolean() && remaining > 0) {
+                updateMonitor.wait(remaining);
+                remaining = (deadline - System.nanoTime()) / 1_000_000L;
+            }
+            return condition.getAsBoolean();
+        }
+    }
+
+    private void replaceAll(KubernetesResourceList<T> list) {
+        final Index<T> fresh = new Index<>();
+        list.getItems().forEach(fresh::put);
+        synchronized (updateMonitor) {
+            index = fresh;
+            lastVersion = Math.max(lastVersion, parseVersion(list.getMetadata().getResourceVersion()));
+            updateMonitor.notifyAll();
+        }
+    }
+
+    private void fireChanged() {
+        listeners.forEach(Runnable::run);
+    }
+
+    private void resync() {
+        synchronized (this) {
+            synced = false;
+            watch = null;
+        }
+        final Thread t = new Thread(() -> {
+            while (!stopped && !synced) {
+                start();
+                if (!synced) {
+                    try {
+                        Thread.sleep(RESYNC_DELAY_MS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }, kind + "-cache-resync");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Resource versions are opaque strings by contract, but in practice they are increasing etcd revisions.
+     *
+     * @return version or -1 if it is not a number
+     */
+    private static long parseVersion(String resourceVersion) {
+        try {
+            return resourceVersion == null ? -1 : Long.parseLong(resourceVersion);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Resources by name and by label. Watch events update it in place, a relist builds a new one.
+     */
+    private static class Index<T extends HasMetadata> {
+        private final ConcurrentSkipListMap<String, T> items = new ConcurrentSkipListMap<>();
+        // "label=value" -> names of the resources with that label
+        private final Map<String, Set<String>> labels = new ConcurrentHashMap<>();
+
+        private void put(T item) {
+            final String name = item.getMetadata().getName();
+            final T previous = items.put(name, item);
+            if (previous != null) {
+                unindex(previous);
+            }
+            if (item.getMetadata().getLabels() != null) {
+                item.getMetadata().getLabels().forEach((label, value) ->
+                        labels.computeIfAbsent(label + "=" + value, k -> ConcurrentHashMap.newKeySet()).add(name));
+            }
+        }
+
+        private void remove(String name) {
+            final T previous = items.remove(name);
+            if (previous != null) {
+                unindex(previous);
+            }
+        }
+
+        private void unindex(T item) {
+            if (item.getMetadata().getLabels() != null) {
+                item.getMetadata().getLabels().forEach((label, value) -> {
+                    final Set<String> names = labels.get(label + "=" + value);
+                    if (names != null) {
+                        names.remove(item.getMetadata().getName());
+                    }
+                });
+            }
+        }
+    }
+
+    private class CacheWatcher implements Watcher<T> {
+        @Override
+        public void eventReceived(Action action, T resource) {
+            if (resource == null || resource.getMetadata() == null) {
+                log.debug("Ignoring {} event without resource for {}s", action, kind);
+                return;
+            }
+            final String name = resource.getMetadata().getName();
+            final long version = parseVersion(resource.getMetadata().getResourceVersion());
+            synchronized (updateMonitor) {
+                final T current = index.items.get(name);
+                if (current != null && version >= 0 && version < parseVersion(current.getMetadata().getResourceVersion())) {
+                    // already superseded by a refresh
+                    return;
+                }
+                switch (action) {
+                    case ADDED:
+                    case MODIFIED:
+                        index.put(resource);
+                        break;
+                    case DELETED:
+                        index.remove(name);
+                        break;
+                    default:
+                        log.debug("Ignoring {} event for {} {}", action, kind, name);
+                        return;
+                }
+                lastVersion = Math.max(lastVersion, version);
+                updateMonitor.notifyAll();
+            }
+            fireChanged();
+        }
+
+        @Override
+        public void onClose(KubernetesClientException cause) {
+            if (stopped) {
+                return;
+            }
+            log.debug("Watch of {}s was closed, resyncing", kind, cause);
+            resync();
+        }
+    }
+}
@@ -53,7 +53,7 @@ public class DBAllocationManager {
 
     public static void free(String uuid) {
         Invocation.Builder invocation = createFreeInvocation(uuid);
-        invocation.get();
+        invocation.get().close();
     }
 
 //    AUXILIARIES:
@@ -0,0 +1,327 @@
+package io.syndesis.qe.utils.http;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.syndesis.qe.utils.TestUtils;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process stand-in for the HTTP endpoints application.
+ * <p>
+ * Serves HTTP and HTTPS with the selector based server of the JDK. Every request except the control ones is answered
+ * with its body, or with the lowercase method when there is none, and recorded into a lock-free ring buffer, so the
+ * handler threads never wait for each other. Like the application it exposes the recorded calls as a JSON object of
+ * timestamp to method on GET /events, the timestamps followed by the sequence number of the request after a dot, and
+ * forgets them on /clearEvents.
+ * <p>
+ * Latency and errors can be injected. The delayed responses are sent by a scheduler, so slow responses don't hold
+ * the handler threads and the server keeps up with thousands of requests per second.
+ */
+@Slf4j
+public class LocalHttpEndpoints implements AutoCloseable {
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final String KEYSTORE_PASSWORD = "endpoints";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static LocalHttpEndpoints shared;
+
+    private final HttpServer httpServer;
+    private final HttpsServer httpsServer;
+    private final ExecutorService handlers;
+    private final ScheduledExecutorService scheduler;
+    private final RequestRing requests;
+    private final AtomicLong handled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    @Getter
+    private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+    private volatile long startedAt;
+
+    private volatile long latencyMs;
+    private volatile long latencyJitterMs;
+    private volatile double errorRate;
+    private volatile int errorStatus = 500;
+
+    /**
+     * Starts the server on free ports of all interfaces.
+     *
+     * @param https whether to start the HTTPS server too
+     */
+    public LocalHttpEndpoints(boolean https) {
+        this(0, https ? 0 : -1, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Starts the server.
+     *
+     * @param httpPort port of the HTTP server, 0 for a free one
+     * @param httpsPort port of the HTTPS server, 0 for a free one, negative for no HTTPS server
+     * @param capacity number of the latest requests kept
+     */
+    public LocalHttpEndpoints(int httpPort, int httpsPort, int capacity) {
+        this.requests = new RequestRing(capacity);
+        this.handlers = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()),
+                TestUtils.daemonThreads("http-endpoints"));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(TestUtils.daemonThreads("http-endpoints-latency"));
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(httpPort), 0);
+            httpServer.createContext("/", this::handle);
+            httpServer.setExecutor(handlers);
+            if (httpsPort >= 0) {
+                httpsServer = HttpsServer.create(new InetSocketAddress(httpsPort), 0);
+                httpsServer.setHttpsConfigurator(new HttpsConfigurator(sslContext()));
+                httpsServer.createContext("/", this::handle);
+                httpsServer.setExecutor(handlers);
+            } else {
+                httpsServer = null;
+            }
+        } catch (IOException | GeneralSecurityException e) {
+            handlers.shutdownNow();
+            scheduler.shutdownNow();
+            throw new IllegalStateException("Unable to start local HTTP endpoints", e);
+        }
+        httpServer.start();
+        if (httpsServer != null) {
+            httpsServer.start();
+        }
+        startedAt = System.nanoTime();
+        log.info("Local HTTP endpoints listening on port {} (HTTP) and {} (HTTPS)", getHttpPort(), getHttpsPort());
+    }
+
+    /**
+     * @return server shared by the test steps, started with HTTPS on the first call
+     */
+    public static synchronized LocalHttpEndpoints shared() {
+        if (shared == null) {
+            shared = new LocalHttpEndpoints(true);
+            Runtime.getRuntime().addShutdownHook(new Thread(shared::close, "http-endpoints-shutdown"));
+        }
+        return shared;
+    }
+
+    /**
+     * @return whether the shared server is running
+     */
+    public static synchronized boolean isSharedRunning() {
+        return shared != null;
+    }
+
+    public int getHttpPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * @return port of the HTTPS server, -1 if there is none
+     */
+    public int getHttpsPort() {
+        return httpsServer == null ? -1 : httpsServer.getAddress().getPort();
+    }
+
+    /**
+     * Delays every response.
+     *
+     * @param latencyMs base delay
+     * @param jitterMs maximum random delay added to the base one
+     */
+    public void setLatency(long latencyMs, long jitterMs) {
+        this.latencyMs = latencyMs;
+        this.latencyJitterMs = jitterMs;
+    }
+
+    /**
+     * Fails a random portion of the requests.
+     *
+     * @param rate portion of the requests to fail, between 0 and 1
+     * @param status status of the failed responses
+     */
+    public void setErrors(double rate, int status) {
+        this.errorRate = rate;
+        this.errorStatus = status;
+    }
+
+    /**
+     * @return requests recorded since the last clear, oldest first
+     */
+    public List<RecordedRequest> getRequests() {
+        return requests.snapshot();
+    }
+
+    /**
+     * Forgets the recorded requests and resets the statistics.
+     */
+    public void clear() {
+        requests.clear();
+        latencies.reset();
+        handled.set(0);
+        failed.set(0);
+        startedAt = System.nanoTime();
+    }
+
+    /**
+     * @return requests handled per second since the start or the last clear
+     */
+    public double getThroughput() {
+        final long elapsed = System.nanoTime() - startedAt;
+        return elapsed <= 0 ? 0 : handled.get() * 1e9 / elapsed;
+    }
+
+    /**
+     * @return summary of the handled requests and their latency
+     */
+    public String statistics() {
+        return String.format("%d request(s), %d failed, %.1f req/s, latency p50 %d us, p99 %d us, max %d us", handled.get(), failed.get(),
+                getThroughput(), latencies.getValueAtPercentile(50), latencies.getValueAtPercentile(99), latencies.getMaxValue());
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        if (httpsServer != null) {
+            httpsServer.stop(0);
+        }
+        scheduler.shutdownNow();
+        handlers.shutdownNow();
+        synchronized (LocalHttpEndpoints.class) {
+            if (shared == this) {
+                shared = null;
+            }
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        final long start = System.nanoTime();
+        final String path = exchange.getRequestURI().getPath();
+        if (path.startsWith("/events")) {
+            respond(exchange, 200, MAPPER.writeValueAsBytes(events()));
+            return;
+        }
+        if (path.startsWith("/clearEvents")) {
+            clear();
+            respond(exchange, 200, new byte[0]);
+            return;
+        }
+
+        final byte[] body = readBody(exchange);
+        final long sequence = requests.claim();
+        final long timestamp = System.currentTimeMillis();
+        final int status = errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate ? errorStatus : 200;
+        final byte[] response = body.length > 0 ? body : exchange.getRequestMethod().toLowerCase().getBytes(StandardCharsets.UTF_8);
+        final Runnable reply = () -> {
+            try {
+                respond(exchange, status, response);
+            } catch (IOException e) {
+                log.debug("Unable to respond to {} {}", exchange.getRequestMethod(), path, e);
+            }
+            final long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            latencies.recordValue(Math.min(latencyMicros, latencies.getHighestTrackableValue()));
+            handled.incrementAndGet();
+            if (status != 200) {
+                failed.incrementAndGet();
+            }
+            requests.publish(new RecordedRequest(sequence, timestamp, exchange.getRequestMethod(), path, status, body.length, latencyMicros));
+        };
+
+        final long delay = latencyMs + (latencyJitterMs > 0 ? ThreadLocalRandom.current().nextLong(latencyJitterMs + 1) : 0);
+        if (delay > 0) {
+            scheduler.schedule(() -> handlers.execute(reply), delay, TimeUnit.MILLISECONDS);
+        } else {
+            reply.run();
+        }
+    }
+
+    private Map<String, String> events() {
+        final Map<String, String> events = new LinkedHashMap<>();
+        for (RecordedRequest request : requests.snapshot()) {
+            // requests arriving in the same millisecond keep their real timestamp, the sequence keeps the keys unique
+            events.put(request.getTimestamp() + "." + request.getSequence(), request.getMethod());
+        }
+        return events;
+    }
+
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+            }
+            return body.toByteArray();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        final boolean noBody = body.length == 0 || "HEAD".equalsIgnoreCase(exchange.getRequestMethod());
+        exchange.sendResponseHeaders(status, noBody ? -1 : body.length);
+        if (!noBody) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+        exchange.close();
+    }
+
+    /**
+     * Creates a self-signed certificate with the keytool of the running JVM, the JDK has no public API for that.
+     */
+    private static SSLContext sslContext() throws IOException, GeneralSecurityException {
+        final File keystore = File.createTempFile("http-endpoints", ".p12");
+        Files.delete(keystore.toPath());
+        keystore.deleteOnExit();
+        final String keytool = System.getProperty("java.home") + File.separator + "bin" + File.separator + "keytool";
+        final Process process = new ProcessBuilder(keytool, "-genkeypair", "-alias", "endpoints", "-keyalg", "RSA", "-keysize", "2048",
+                "-validity", "7", "-dname", "CN=localhost", "-storetype", "PKCS12", "-keystore", keystore.getAbsolutePath(),
+                "-storepass", KEYSTORE_PASSWORD, "-keypass", KEYSTORE_PASSWORD)
+                .redirectErrorStream(true)
+                .start();
+        try {
+            if (!process.waitFor(1, TimeUnit.MINUTES) || process.exitValue() != 0) {
+                throw new IOException("keytool failed to create the certificate of the HTTPS endpoint");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while creating the certificate of the HTTPS endpoint", e);
+        }
+
+        final KeyStore store = KeyStore.getInstance("PKCS12");
+        try (InputStream in = new FileInputStream(keystore)) {
+            store.load(in, KEYSTORE_PASSWORD.toCharArray());
+        }
+        final KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(store, KEYSTORE_PASSWORD.toCharArray());
+        final SSLContext context = SSLContext.getInstance("TLS");
+        context.init(keyManagers.getKeyManagers(), null, null);
+        return context;
+    }
+}
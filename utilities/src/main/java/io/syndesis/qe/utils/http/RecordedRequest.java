@@ -0,0 +1,24 @@
+package io.syndesis.qe.utils.http;
+
+import lombok.Value;
+
+/**
+ * One request handled by {@link LocalHttpEndpoints}.
+ */
+@Value
+public class RecordedRequest {
+    private final long sequence;
+    /**
+     * Time of arrival in milliseconds since the epoch, requests arriving in the same millisecond are ordered by the
+     * sequence.
+     */
+    private final long timestamp;
+    private final String method;
+    private final String path;
+    private final int status;
+    private final long bodySize;
+    /**
+     * Time from the arrival of the request until the response was sent, including the injected latency.
+     */
+    private final long latencyMicros;
+}
@@ -0,0 +1,57 @@
+package io.syndesis.qe.utils.http;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed size lock-free buffer of the latest recorded requests.
+ * <p>
+ * Writers claim a sequence number and store the request in the slot of that number, overwriting the oldest one.
+ * Readers take the slots of the last capacity sequence numbers and skip slots that were already overwritten by a newer
+ * request or not written yet.
+ */
+class RequestRing {
+    private final AtomicReferenceArray<RecordedRequest> slots;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+    private volatile long clearedAt;
+
+    /**
+     * @param capacity number of requests kept, rounded up to a power of two
+     */
+    RequestRing(int capacity) {
+        final int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    long claim() {
+        return next.getAndIncrement();
+    }
+
+    void publish(RecordedRequest request) {
+        slots.set((int) (request.getSequence() & mask), request);
+    }
+
+    /**
+     * @return requests recorded since the last clear that weren't overwritten yet, oldest first
+     */
+    List<RecordedRequest> snapshot() {
+        final long end = next.get();
+        final long start = Math.max(clearedAt, end - slots.length());
+        final List<RecordedRequest> requests = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            final RecordedRequest request = slots.get((int) (sequence & mask));
+            if (request != null && request.getSequence() == sequence) {
+                requests.add(request);
+            }
+        }
+        return requests;
+    }
+
+    void clear() {
+        clearedAt = next.get();
+    }
+}
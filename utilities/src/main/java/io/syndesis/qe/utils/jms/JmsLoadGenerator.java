@@ -0,0 +1,195 @@
+package io.syndesis.qe.utils.jms;
+
+import org.HdrHistogram.Histogram;
+
+import javax.jms.BytesMessage;
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.syndesis.qe.utils.JMSUtils;
+import io.syndesis.qe.utils.load.LoadMessages;
+import io.syndesis.qe.utils.load.Pacer;
+import io.syndesis.qe.utils.load.SequenceTracker;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends messages to the input destination of an integration at a given rate and consumes them from its output
+ * destination.
+ * <p>
+ * Every message carries the id of its producer, a sequence number and the time it was sent, so the consumer can measure
+ * the end-to-end latency and detect lost and duplicated messages. The integration has to pass the message body through
+ * unchanged.
+ */
+@Slf4j
+@Builder
+public class JmsLoadGenerator {
+    @Builder.Default
+    private final String protocol = "tcp";
+    @Builder.Default
+    private final JMSUtils.Destination inputType = JMSUtils.Destination.QUEUE;
+    private final String input;
+    @Builder.Default
+    private final JMSUtils.Destination outputType = JMSUtils.Destination.QUEUE;
+    private final String output;
+    @Builder.Default
+    private final int producers = 1;
+    /**
+     * Messages per second of all producers together, 0 sends as fast as possible.
+     */
+    @Builder.Default
+    private final int rate = 100;
+    @Builder.Default
+    private final long durationMs = 60000L;
+    @Builder.Default
+    private final int messageSize = 256;
+    /**
+     * How long to wait for the remaining messages after the producers finished.
+     */
+    @Builder.Default
+    private final long drainTimeoutMs = 30000L;
+
+    public JmsLoadReport run() {
+        log.info("Sending {} msg/s from {} producer(s) to {} {} for {} ms, consuming from {} {}",
+                rate, producers, inputType, input, durationMs, outputType, output);
+        final Histogram latencies = LoadMessages.histogram();
+        final AtomicLong sent = new AtomicLong();
+        final ExecutorService pool = Executors.newFixedThreadPool(producers);
+        Connection connection = null;
+        try {
+            connection = JmsSessionPool.connectionFactory(protocol, JmsSessionPool.forward(protocol), true).createConnection();
+            connection.start();
+            final Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            // the consumer has to exist before the first message is sent, otherwise topic messages would be missed
+            final MessageConsumer consumer = session.createConsumer(destination(session, outputType, output));
+
+            final long start = System.nanoTime();
+            final Connection shared = connection;
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < producers; i++) {
+                final int producer = i;
+                futures.add(pool.submit(() -> {
+                    produce(shared, producer, start, sent);
+                    return null;
+                }));
+            }
+            pool.shutdown();
+
+            final JmsLoadReport report = consume(consumer, pool, sent, start, latencies);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            log.info("JMS load: {}", report);
+            return report;
+        } catch (JMSException | ExecutionException e) {
+            throw new IllegalStateException("JMS load generation failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating JMS load", e);
+        } finally {
+            pool.shutdownNow();
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (JMSException e) {
+                    log.debug("Unable to close JMS connection", e);
+                }
+            }
+        }
+    }
+
+    private void produce(Connection connection, int producerId, long start, AtomicLong sent) throws JMSException {
+        final Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        try {
+            final MessageProducer producer = session.createProducer(destination(session, inputType, input));
+            final String padding = LoadMessages.padding(messageSize, 32);
+            final Pacer pacer = new Pacer(start, durationMs, (double) rate / producers);
+            int sequence = 0;
+            while (pacer.await()) {
+                producer.send(session.createTextMessage(producerId + ":" + sequence++ + ":" + System.nanoTime() + ":" + padding));
+                sent.incrementAndGet();
+            }
+        } finally {
+            session.close();
+        }
+    }
+
+    private JmsLoadReport consume(MessageConsumer consumer, ExecutorService producerPool, AtomicLong sent, long start, Histogram latencies)
+            throws JMSException {
+        final SequenceTracker sequences = new SequenceTracker();
+        final long drainTimeout = TimeUnit.MILLISECONDS.toNanos(drainTimeoutMs);
+        long lastReceived = start;
+        long producersDone = 0;
+        boolean producersFinished = false;
+        while (true) {
+            final Message message = consumer.receive(200L);
+            final long now = System.nanoTime();
+            if (message != null) {
+                lastReceived = now;
+                final String[] parts = text(message).split(":", 4);
+                if (parts.length < 4) {
+                    log.debug("Ignoring unexpected message {}", message);
+                    continue;
+                }
+                final int producer;
+                final int sequence;
+                final long sentAt;
+                try {
+                    producer = Integer.parseInt(parts[0]);
+                    sequence = Integer.parseInt(parts[1]);
+                    sentAt = Long.parseLong(parts[2]);
+                } catch (NumberFormatException e) {
+                    log.debug("Ignoring unexpected message {}", message);
+                    continue;
+                }
+                sequences.add(producer, sequence);
+                LoadMessages.recordLatency(latencies, sentAt, now);
+                continue;
+            }
+
+            if (producerPool.isTerminated()) {
+                if (!producersFinished) {
+                    producersFinished = true;
+                    producersDone = now;
+                }
+                if (sequences.getUnique() >= sent.get() || now - Math.max(lastReceived, producersDone) > drainTimeout) {
+                    break;
+                }
+            }
+        }
+        return new JmsLoadReport(sent.get(), sequences.getUnique(), sequences.getDuplicates(), TimeUnit.NANOSECONDS.toMillis(lastReceived - start),
+                latencies);
+    }
+
+    private static String text(Message message) throws JMSException {
+        if (message instanceof TextMessage) {
+            return ((TextMessage) message).getText();
+        }
+        if (message instanceof BytesMessage) {
+            final BytesMessage bytesMessage = (BytesMessage) message;
+            final byte[] bytes = new byte[(int) bytesMessage.getBodyLength()];
+            bytesMessage.readBytes(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return "";
+    }
+
+    private static javax.jms.Destination destination(Session session, JMSUtils.Destination type, String name) throws JMSException {
+        return JMSUtils.Destination.QUEUE == type ? session.createQueue(name) : session.createTopic(name);
+    }
+}
@@ -0,0 +1,14 @@
+package io.syndesis.qe.utils.jms;
+
+import org.HdrHistogram.Histogram;
+
+import io.syndesis.qe.utils.load.LatencyReport;
+
+/**
+ * Results of one {@link JmsLoadGenerator} run. Latencies are in microseconds.
+ */
+public class JmsLoadReport extends LatencyReport {
+    JmsLoadReport(long sent, long unique, long duplicates, long durationMs, Histogram latencies) {
+        super(sent, unique, duplicates, durationMs, latencies);
+    }
+}
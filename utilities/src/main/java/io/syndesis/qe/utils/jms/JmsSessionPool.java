@@ -0,0 +1,269 @@
+package io.syndesis.qe.utils.jms;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.qpid.jms.JmsConnectionFactory;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.syndesis.qe.utils.JMSUtils;
+import io.syndesis.qe.utils.PortForwardManager;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Long-lived connections to the AMQ broker deployed in the test namespace.
+ * <p>
+ * The broker port of each protocol is forwarded by the {@link PortForwardManager}, each protocol has one connection and
+ * session, and producers and queue consumers are kept per destination. Everything is re-created transparently when the broker pod or the
+ * connection goes away.
+ * <p>
+ * Consumers don't prefetch, so a cached queue consumer never takes messages from a queue unless a receive is in progress
+ * and doesn't compete with integrations consuming the same queue. Topic consumers exist only during a receive.
+ */
+@Slf4j
+public final class JmsSessionPool {
+    public static final String BROKER_POD = "broker-amq";
+
+    private static final String USER = "amq";
+    private static final String PASSWORD = "topSecret";
+
+    private static final Map<String, Channel> CHANNELS = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(JmsSessionPool::closeAll, "jms-pool-shutdown"));
+    }
+
+    private JmsSessionPool() {
+    }
+
+    /**
+     * @param protocol tcp, openwire or amqp
+     * @return broker port of the protocol
+     */
+    public static int brokerPort(String protocol) {
+        switch (protocol) {
+            case "tcp":
+            case "openwire":
+                return 61616;
+            case "amqp":
+                return 5672;
+            default:
+                throw new IllegalArgumentException("Unsupported JMS protocol " + protocol);
+        }
+    }
+
+    /**
+     * Makes sure the broker port of the protocol is forwarded. The forward is shared by all users and follows the broker
+     * pod when it changes.
+     *
+     * @param protocol tcp, openwire or amqp
+     * @return local port
+     */
+    public static int forward(String protocol) {
+        return PortForwardManager.forward("app", BROKER_POD, brokerPort(protocol));
+    }
+
+    public static void send(String protocol, JMSUtils.Destination type, String name, String content) {
+        sendAll(protocol, type, name, Collections.singletonList(content));
+    }
+
+    /**
+     * Sends all messages through one producer. When the connection fails in the middle, the retry resumes after the
+     * messages that were already sent.
+     */
+    public static void sendAll(String protocol, JMSUtils.Destination type, String name, Collection<String> contents) {
+        final List<String> messages = new ArrayList<>(contents);
+        final AtomicInteger sent = new AtomicInteger();
+        channel(protocol).execute(c -> {
+            final MessageProducer producer = c.producer(type, name);
+            for (int i = sent.get(); i < messages.size(); i++) {
+                producer.send(c.session.createTextMessage(messages.get(i)));
+                sent.incrementAndGet();
+            }
+            return null;
+        });
+        log.debug("Sent {} message(s) to {} {}", contents.size(), type, name);
+    }
+
+    /**
+     * @return received message or null if no message arrived within the timeout
+     */
+    public static Message receive(String protocol, JMSUtils.Destination type, String name, long timeoutMs) {
+        return channel(protocol).execute(c -> c.consume(type, name, consumer -> consumer.receive(timeoutMs)));
+    }
+
+    /**
+     * Removes all messages from the destination.
+     *
+     * @param idleTimeoutMs the destination is considered empty when no message arrives for this long
+     * @return number of removed messages
+     */
+    public static int drain(String protocol, JMSUtils.Destination type, String name, long idleTimeoutMs) {
+        final int drained = channel(protocol).execute(c -> c.consume(type, name, consumer -> {
+            int count = 0;
+            while (consumer.receive(idleTimeoutMs) != null) {
+                count++;
+            }
+            return count;
+        }));
+        log.debug("Drained {} message(s) from {} {}", drained, type, name);
+        return drained;
+    }
+
+    /**
+     * Closes all connections.
+     */
+    public static synchronized void closeAll() {
+        CHANNELS.values().forEach(Channel::reset);
+        CHANNELS.clear();
+    }
+
+    private static Channel channel(String protocol) {
+        // tcp and openwire are the same protocol
+        return CHANNELS.computeIfAbsent("amqp".equals(protocol) ? "amqp" : "openwire", Channel::new);
+    }
+
+    static ConnectionFactory connectionFactory(String protocol, int localPort, boolean prefetch) {
+        if ("amqp".equals(protocol)) {
+            return new JmsConnectionFactory(USER, PASSWORD, "amqp://127.0.0.1:" + localPort + (prefetch ? "" : "?jms.prefetchPolicy.all=0"));
+        }
+        final ActiveMQConnectionFactory factory = new ActiveMQConnectionFactory(USER, PASSWORD, "tcp://127.0.0.1:" + localPort);
+        if (!prefetch) {
+            factory.getPrefetchPolicy().setAll(0);
+        }
+        return factory;
+    }
+
+    @FunctionalInterface
+    private interface JmsOperation<R> {
+        R apply(Channel channel) throws JMSException;
+    }
+
+    @FunctionalInterface
+    private interface ConsumerOperation<R> {
+        R apply(MessageConsumer consumer) throws JMSException;
+    }
+
+    /**
+     * Connection, session, producers and consumers of one protocol. JMS sessions are single threaded, so all operations
+     * on a channel are serialized.
+     */
+    private static final class Channel {
+        private final String protocol;
+        private final Map<String, MessageProducer> producers = new HashMap<>();
+        private final Map<String, MessageConsumer> consumers = new HashMap<>();
+        private Connection connection;
+        private Session session;
+
+        private Channel(String protocol) {
+            this.protocol = protocol;
+        }
+
+        /**
+         * Runs the operation, re-connecting and retrying once when it fails, e.g. because the broker was restarted. The
+         * operation is run again as a whole, so operations with side effects have to remember their progress.
+         */
+        synchronized <R> R execute(JmsOperation<R> operation) {
+            try {
+                return operation.apply(connect());
+            } catch (JMSException first) {
+                log.debug("JMS operation failed, reconnecting", first);
+                reset();
+                try {
+                    return operation.apply(connect());
+                } catch (JMSException e) {
+                    reset();
+                    throw new IllegalStateException("JMS operation using " + protocol + " failed", e);
+                }
+            }
+        }
+
+        private Channel connect() throws JMSException {
+            final int localPort = forward(protocol);
+            if (session == null) {
+                final Connection created = connectionFactory(protocol, localPort, false).createConnection();
+                created.setExceptionListener(e -> {
+                    log.warn("JMS connection using {} failed: {}", protocol, e.getMessage());
+                    resetIfCurrent(created);
+                });
+                connection = created;
+                connection.start();
+                session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            }
+            return this;
+        }
+
+        private MessageProducer producer(JMSUtils.Destination type, String name) throws JMSException {
+            MessageProducer producer = producers.get(type + name);
+            if (producer == null) {
+                producer = session.createProducer(destination(type, name));
+                producers.put(type + name, producer);
+            }
+            return producer;
+        }
+
+        /**
+         * Runs the operation with a consumer of the destination. Queue consumers are cached, a topic consumer receives
+         * every message published while it exists, so a cached one would return messages published between the calls.
+         * Topic consumers are therefore created for the operation and closed after it.
+         */
+        private <R> R consume(JMSUtils.Destination type, String name, ConsumerOperation<R> operation) throws JMSException {
+            if (JMSUtils.Destination.QUEUE == type) {
+                MessageConsumer consumer = consumers.get(name);
+                if (consumer == null) {
+                    consumer = session.createConsumer(destination(type, name));
+                    consumers.put(name, consumer);
+                }
+                return operation.apply(consumer);
+            }
+            final MessageConsumer consumer = session.createConsumer(destination(type, name));
+            try {
+                return operation.apply(consumer);
+            } finally {
+                try {
+                    consumer.close();
+                } catch (JMSException e) {
+                    log.debug("Unable to close JMS consumer of topic {}", name, e);
+                }
+            }
+        }
+
+        private javax.jms.Destination destination(JMSUtils.Destination type, String name) throws JMSException {
+            return JMSUtils.Destination.QUEUE == type ? session.createQueue(name) : session.createTopic(name);
+        }
+
+        private synchronized void resetIfCurrent(Connection failed) {
+            if (connection == failed) {
+                reset();
+            }
+        }
+
+        synchronized void reset() {
+            producers.clear();
+            consumers.clear();
+            session = null;
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (JMSException e) {
+                    log.debug("Unable to close JMS connection", e);
+                }
+                connection = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package io.syndesis.qe.utils.kafka;
+
+import org.HdrHistogram.Histogram;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.syndesis.qe.utils.load.LoadMessages;
+import io.syndesis.qe.utils.load.Pacer;
+import io.syndesis.qe.utils.load.SequenceTracker;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends messages to the input topic of an integration at a given rate and consumes them from its output topic.
+ * <p>
+ * Every message carries its key, its sequence number within the key, a sequence number over all messages and the time
+ * it was sent, so the consumer can measure the end-to-end latency, detect lost and duplicated messages and check that
+ * the messages of each key kept their order. The integration has to pass the message body through unchanged.
+ * <p>
+ * The producer is idempotent and sends asynchronously in batches, so a single one reaches tens of thousands of messages
+ * per second. The consumer reads all partitions of the output topic from their end offsets at the start of the run and
+ * tracks the offsets of each partition.
+ */
+@Slf4j
+@Builder
+public class KafkaLoadGenerator {
+    private final String input;
+    private final String output;
+    /**
+     * Messages per second, 0 sends as fast as possible.
+     */
+    @Builder.Default
+    private final int rate = 1000;
+    @Builder.Default
+    private final long durationMs = 60000L;
+    @Builder.Default
+    private final int messageSize = 256;
+    /**
+     * Number of distinct keys the messages are spread over, 0 sends messages without a key.
+     */
+    @Builder.Default
+    private final int keys = 100;
+    /**
+     * Number of input partitions the messages are sent to round robin, 0 leaves the choice to the partitioner of the
+     * producer, which keeps the messages of a key in one partition. Messages of a key sent to several partitions have
+     * no guaranteed order.
+     */
+    @Builder.Default
+    private final int partitions = 0;
+    /**
+     * How long to wait for the remaining messages after the producer finished.
+     */
+    @Builder.Default
+    private final long drainTimeoutMs = 30000L;
+
+    public KafkaLoadReport run() {
+        log.info("Sending {} msg/s of {} bytes with {} key(s) to Kafka topic {} for {} ms, consuming from topic {}",
+                rate, messageSize, keys, input, durationMs, output);
+        final Histogram latencies = LoadMessages.histogram();
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final ExecutorService pool = Executors.newSingleThreadExecutor();
+        try (KafkaConsumer<String, String> consumer = KafkaUtils.consumer("syndesis-qe-load-" + UUID.randomUUID())) {
+            final List<TopicPartition> outputPartitions = KafkaUtils.partitions(consumer, output);
+            consumer.assign(outputPartitions);
+            // only the messages of this run count, the position has to be resolved before the first message is sent
+            consumer.seekToEnd(outputPartitions);
+            final Map<TopicPartition, Long> startOffsets = new TreeMap<>((a, b) -> Integer.compare(a.partition(), b.partition()));
+            outputPartitions.forEach(p -> startOffsets.put(p, consumer.position(p)));
+
+            final long start = System.nanoTime();
+            final Future<?> producer = pool.submit(() -> {
+                produce(start, sent, failed);
+                return null;
+            });
+            pool.shutdown();
+
+            final KafkaLoadReport report = consume(consumer, startOffsets, pool, sent, failed, start, latencies);
+            producer.get();
+            log.info("Kafka load: {}", report);
+            return report;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Kafka load generation failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating Kafka load", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void produce(long start, AtomicLong sent, AtomicLong failed) {
+        final Properties props = new Properties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, KafkaUtils.bootstrapServers());
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, "true");
+        props.put(ProducerConfig.LINGER_MS_CONFIG, "5");
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, "65536");
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+
+        final String padding = LoadMessages.padding(messageSize, 48);
+        final long[] keySequences = new long[Math.max(1, keys)];
+        final Pacer pacer = new Pacer(start, durationMs, rate);
+        long sequence = 0;
+        try (KafkaProducer<String, String> producer = new KafkaProducer<>(props)) {
+            while (pacer.await()) {
+                final int key = keys > 0 ? (int) (sequence % keys) : 0;
+                final String value = key + ":" + keySequences[key]++ + ":" + sequence + ":" + System.nanoTime() + ":" + padding;
+                final Integer partition = partitions > 0 ? (int) (sequence % partitions) : null;
+                sequence++;
+                producer.send(new ProducerRecord<>(input, partition, keys > 0 ? Integer.toString(key) : null, value), (metadata, e) -> {
+                    if (e == null) {
+                        sent.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                        log.debug("Unable to send Kafka message", e);
+                    }
+                });
+            }
+            producer.flush();
+        }
+    }
+
+    private KafkaLoadReport consume(KafkaConsumer<String, String> consumer, Map<TopicPartition, Long> startOffsets, ExecutorService producerPool,
+            AtomicLong sent, AtomicLong failed, long start, Histogram latencies) {
+        final SequenceTracker sequences = new SequenceTracker();
+        final Map<Integer, Long> lastKeySequences = new TreeMap<>();
+        final Map<TopicPartition, long[]> partitionStats = new TreeMap<>((a, b) -> Integer.compare(a.partition(), b.partition()));
+        final long drainTimeout = TimeUnit.MILLISECONDS.toNanos(drainTimeoutMs);
+        long outOfOrder = 0;
+        long lastReceived = start;
+        long producerDone = 0;
+        boolean producerFinished = false;
+        while (true) {
+            final ConsumerRecords<String, String> records = consumer.poll(200L);
+            final long now = System.nanoTime();
+            for (ConsumerRecord<String, String> record : records) {
+                lastReceived = now;
+                // received, first offset, last offset
+                final long[] stats = partitionStats.computeIfAbsent(new TopicPartition(record.topic(), record.partition()),
+                        p -> new long[] {0, record.offset(), record.offset()});
+                stats[0]++;
+                stats[2] = record.offset();
+
+                final String[] parts = record.value() == null ? new String[0] : record.value().split(":", 5);
+                if (parts.length < 5) {
+                    log.debug("Ignoring unexpected message {}", record);
+                    continue;
+                }
+                final int key;
+                final long keySequence;
+                final int sequence;
+                final long sentAt;
+                try {
+                    key = Integer.parseInt(parts[0]);
+                    keySequence = Long.parseLong(parts[1]);
+                    sequence = Integer.parseInt(parts[2]);
+                    sentAt = Long.parseLong(parts[3]);
+                } catch (NumberFormatException e) {
+                    log.debug("Ignoring unexpected message {}", record);
+                    continue;
+                }
+                if (!sequences.add(sequence)) {
+                    continue;
+                }
+                final Long last = lastKeySequences.put(key, keySequence);
+                if (last != null && keySequence < last) {
+                    outOfOrder++;
+                }
+                LoadMessages.recordLatency(latencies, sentAt, now);
+            }
+            if (!records.isEmpty()) {
+                continue;
+            }
+
+            if (producerPool.isTerminated()) {
+                if (!producerFinished) {
+                    producerFinished = true;
+                    producerDone = now;
+                }
+                if (sequences.getUnique() >= sent.get() || now - Math.max(lastReceived, producerDone) > drainTimeout) {
+                    break;
+                }
+            }
+        }
+
+        final Map<TopicPartition, Long> endOffsets = consumer.endOffsets(startOffsets.keySet());
+        final Map<Integer, KafkaLoadReport.PartitionStats> partitions = new TreeMap<>();
+        for (TopicPartition partition : startOffsets.keySet()) {
+            final long[] stats = partitionStats.getOrDefault(partition, new long[] {0, startOffsets.get(partition), startOffsets.get(partition)});
+            final long lag = Math.max(0, endOffsets.get(partition) - consumer.position(partition));
+            partitions.put(partition.partition(), new KafkaLoadReport.PartitionStats(stats[0], stats[1], stats[2], lag));
+        }
+        return new KafkaLoadReport(sent.get(), failed.get(), sequences.getUnique(), sequences.getDuplicates(), outOfOrder,
+                TimeUnit.NANOSECONDS.toMillis(lastReceived - start), latencies, partitions);
+    }
+}
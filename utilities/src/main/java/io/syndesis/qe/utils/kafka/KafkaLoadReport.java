@@ -0,0 +1,64 @@
+package io.syndesis.qe.utils.kafka;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+
+import io.syndesis.qe.utils.load.LatencyReport;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Results of one {@link KafkaLoadGenerator} run. Latencies are in microseconds.
+ */
+@Getter
+public class KafkaLoadReport extends LatencyReport {
+    private final long failedSends;
+    /**
+     * Messages received after a later message with the same key. Only meaningful when the integration publishes every
+     * record with the key it was consumed with, otherwise the messages of a key are spread over the output partitions.
+     */
+    private final long outOfOrder;
+    /**
+     * Partitions of the output topic the messages were consumed from.
+     */
+    private final Map<Integer, PartitionStats> partitions;
+
+    KafkaLoadReport(long sent, long failedSends, long unique, long duplicates, long outOfOrder, long durationMs, Histogram latencies,
+            Map<Integer, PartitionStats> partitions) {
+        super(sent, unique, duplicates, durationMs, latencies);
+        this.failedSends = failedSends;
+        this.outOfOrder = outOfOrder;
+        this.partitions = partitions;
+    }
+
+    /**
+     * @return the highest lag of the consumer over all partitions when the run ended
+     */
+    public long getMaxLag() {
+        return partitions.values().stream().mapToLong(PartitionStats::getLag).max().orElse(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("sent %d (%d failed), received %d, lost %d, duplicates %d, out of order %d ",
+                getSent(), failedSends, getReceived(), getLost(), getDuplicates(), outOfOrder) + timing() + ", partitions " + partitions;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class PartitionStats {
+        private final long received;
+        private final long firstOffset;
+        private final long lastOffset;
+        /**
+         * Messages left in the partition after the last consumed one.
+         */
+        private final long lag;
+
+        @Override
+        public String toString() {
+            return String.format("{received %d, offsets %d-%d, lag %d}", received, firstOffset, lastOffset, lag);
+        }
+    }
+}
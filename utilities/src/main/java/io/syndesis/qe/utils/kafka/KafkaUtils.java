@@ -0,0 +1,119 @@
+package io.syndesis.qe.utils.kafka;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import io.syndesis.qe.TestConfiguration;
+import io.syndesis.qe.accounts.AccountsDirectory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Topic administration and consumer group lag of the Kafka broker.
+ * <p>
+ * Kafka clients connect to the addresses the brokers advertise, so a port forward isn't enough. The tests have to run
+ * where the broker service resolves, or {@link TestConfiguration#KAFKA_BOOTSTRAP_SERVERS} has to point to a reachable
+ * listener.
+ */
+@Slf4j
+public final class KafkaUtils {
+    private static final long ADMIN_TIMEOUT_S = 30L;
+
+    private KafkaUtils() {
+    }
+
+    /**
+     * @return bootstrap servers of the broker
+     */
+    public static String bootstrapServers() {
+        final String configured = TestConfiguration.kafkaBootstrapServers();
+        if (configured != null) {
+            return configured;
+        }
+        return AccountsDirectory.getInstance().getAccount("kafka")
+                .map(a -> a.getProperty("brokerUrl"))
+                .orElseThrow(() -> new IllegalStateException("No kafka account, deploy the Kafka broker first"));
+    }
+
+    /**
+     * Creates the topic unless it exists already.
+     */
+    public static void createTopic(String topic, int partitions) {
+        final Properties props = new Properties();
+        props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers());
+        try (AdminClient admin = AdminClient.create(props)) {
+            admin.createTopics(Collections.singletonList(new NewTopic(topic, partitions, (short) 1))).all().get(ADMIN_TIMEOUT_S, TimeUnit.SECONDS);
+            log.info("Created Kafka topic {} with {} partition(s)", topic, partitions);
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof TopicExistsException)) {
+                throw new IllegalStateException("Unable to create Kafka topic " + topic, e.getCause());
+            }
+            log.debug("Kafka topic {} already exists", topic);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out creating Kafka topic " + topic, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while creating Kafka topic " + topic, e);
+        }
+    }
+
+    /**
+     * Lag of a consumer group, the number of messages in each partition after the offset the group committed last.
+     * Partitions without a committed offset lag by all their messages.
+     *
+     * @return partition -> lag
+     */
+    public static Map<Integer, Long> lag(String groupId, String topic) {
+        try (KafkaConsumer<String, String> consumer = consumer(groupId)) {
+            final List<TopicPartition> partitions = partitions(consumer, topic);
+            final Map<TopicPartition, Long> beginnings = consumer.beginningOffsets(partitions);
+            final Map<TopicPartition, Long> ends = consumer.endOffsets(partitions);
+            final Map<Integer, Long> lag = new TreeMap<>();
+            for (TopicPartition partition : partitions) {
+                final OffsetAndMetadata committed = consumer.committed(partition);
+                final long position = committed == null ? beginnings.get(partition) : committed.offset();
+                lag.put(partition.partition(), Math.max(0, ends.get(partition) - position));
+            }
+            return lag;
+        }
+    }
+
+    /**
+     * Consumer that never commits, the group only identifies the offsets it reads.
+     */
+    static KafkaConsumer<String, String> consumer(String groupId) {
+        final Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "5000");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        return new KafkaConsumer<>(props);
+    }
+
+    static List<TopicPartition> partitions(KafkaConsumer<?, ?> consumer, String topic) {
+        final List<PartitionInfo> infos = consumer.partitionsFor(topic);
+        if (infos == null || infos.isEmpty()) {
+            throw new IllegalStateException("Kafka topic " + topic + " has no partitions");
+        }
+        return infos.stream().map(i -> new TopicPartition(topic, i.partition())).collect(Collectors.toList());
+    }
+}
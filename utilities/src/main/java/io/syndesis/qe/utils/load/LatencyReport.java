@@ -0,0 +1,67 @@
+package io.syndesis.qe.utils.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+
+/**
+ * Delivery counts, throughput and latency percentiles of one load run. Latencies are in microseconds.
+ */
+@Getter
+public abstract class LatencyReport {
+    private final long sent;
+    private final long received;
+    private final long duplicates;
+    private final long lost;
+    private final long durationMs;
+    private final double throughput;
+    private final long p50;
+    private final long p99;
+    private final long p999;
+    private final long max;
+
+    /**
+     * @param sent messages the broker accepted
+     * @param unique distinct messages received
+     * @param duplicates messages received more than once
+     * @param durationMs time from the start of the run to the last received message
+     */
+    protected LatencyReport(long sent, long unique, long duplicates, long durationMs, Histogram latencies) {
+        this.sent = sent;
+        this.received = unique;
+        this.duplicates = duplicates;
+        this.lost = Math.max(0, sent - unique);
+        this.durationMs = durationMs;
+        this.throughput = durationMs == 0 ? 0 : unique * 1000.0 / durationMs;
+        this.p50 = latencies.getValueAtPercentile(50);
+        this.p99 = latencies.getValueAtPercentile(99);
+        this.p999 = latencies.getValueAtPercentile(99.9);
+        this.max = latencies.getMaxValue();
+    }
+
+    /**
+     * @return lost messages as a fraction of the sent messages
+     */
+    public double getLossRate() {
+        return sent == 0 ? 0 : (double) lost / sent;
+    }
+
+    /**
+     * @return duration, throughput and latency percentiles of the run
+     */
+    protected String timing() {
+        return String.format("in %d ms (%.1f msg/s), latency p50 %.1f ms, p99 %.1f ms, p99.9 %.1f ms, max %.1f ms",
+                durationMs, throughput, millis(p50), millis(p99), millis(p999), millis(max));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("sent %d, received %d, lost %d, duplicates %d ", sent, received, lost, duplicates) + timing();
+    }
+
+    private static double millis(long micros) {
+        return micros / (double) TimeUnit.MILLISECONDS.toMicros(1);
+    }
+}
@@ -0,0 +1,45 @@
+package io.syndesis.qe.utils.load;
+
+import org.HdrHistogram.Histogram;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Body and latency helpers shared by the load generators.
+ * <p>
+ * A load message is a colon separated header, carrying at least a sequence number and the {@link System#nanoTime()} it
+ * was sent at, followed by padding up to the requested message size.
+ */
+public final class LoadMessages {
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private LoadMessages() {
+    }
+
+    /**
+     * @param headerSize space reserved for the header
+     * @return padding that fills the message up to the given size
+     */
+    public static String padding(int messageSize, int headerSize) {
+        return StringUtils.repeat('x', Math.max(0, messageSize - headerSize));
+    }
+
+    /**
+     * @return histogram for latencies in microseconds, up to 10 minutes with 3 significant digits
+     */
+    public static Histogram histogram() {
+        return new Histogram(MAX_LATENCY_MICROS, 3);
+    }
+
+    /**
+     * Records the latency of a message, values out of the range of the histogram are clamped.
+     *
+     * @param sentAt {@link System#nanoTime()} the message was sent at
+     * @param receivedAt {@link System#nanoTime()} the message was received at
+     */
+    public static void recordLatency(Histogram latencies, long sentAt, long receivedAt) {
+        final long latency = TimeUnit.NANOSECONDS.toMicros(receivedAt - sentAt);
+        latencies.recordValue(Math.max(0, Math.min(latency, latencies.getHighestTrackableValue())));
+    }
+}
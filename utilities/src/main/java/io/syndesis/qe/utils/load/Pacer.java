@@ -0,0 +1,51 @@
+package io.syndesis.qe.utils.load;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spreads the messages of one sender evenly over the duration of a load run.
+ * <p>
+ * The send times are planned from the start of the run, so a sender that fell behind catches up instead of losing the
+ * messages it was late with. Not thread safe, every sender needs its own pacer.
+ */
+public class Pacer {
+    private final long interval;
+    private final long end;
+    private long next;
+
+    /**
+     * @param start {@link System#nanoTime()} at the start of the run
+     * @param durationMs duration of the run
+     * @param rate messages per second of this sender, 0 doesn't limit the rate
+     */
+    public Pacer(long start, long durationMs, double rate) {
+        this.interval = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+        this.end = start + TimeUnit.MILLISECONDS.toNanos(durationMs);
+        this.next = start;
+    }
+
+    /**
+     * Waits until the next message is due.
+     *
+     * @return false when the run is over or the thread was interrupted
+     */
+    public boolean await() {
+        while (!Thread.currentThread().isInterrupted()) {
+            final long now = System.nanoTime();
+            if (now - end >= 0) {
+                return false;
+            }
+            if (interval == 0) {
+                return true;
+            }
+            if (next - now > 0) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            next += interval;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,52 @@
+package io.syndesis.qe.utils.load;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tells apart the first delivery of a load message from its duplicates by the sequence number the sender gave it.
+ * <p>
+ * Only one thread may add sequence numbers, the counters can be read from any thread.
+ */
+public class SequenceTracker {
+    private final Map<Integer, BitSet> senders = new HashMap<>();
+    private volatile long unique;
+    private volatile long duplicates;
+
+    /**
+     * @return whether the message was seen for the first time
+     */
+    public boolean add(int sequence) {
+        return add(0, sequence);
+    }
+
+    /**
+     * @param sender id of the sender, every sender numbers its messages on its own
+     * @return whether the message was seen for the first time
+     */
+    public boolean add(int sender, int sequence) {
+        final BitSet seen = senders.computeIfAbsent(sender, s -> new BitSet());
+        if (seen.get(sequence)) {
+            duplicates++;
+            return false;
+        }
+        seen.set(sequence);
+        unique++;
+        return true;
+    }
+
+    /**
+     * @return distinct messages seen
+     */
+    public long getUnique() {
+        return unique;
+    }
+
+    /**
+     * @return messages seen more than once
+     */
+    public long getDuplicates() {
+        return duplicates;
+    }
+}
@@ -0,0 +1,238 @@
+package io.syndesis.qe.utils.logs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.openshift.api.model.Build;
+import io.syndesis.qe.TestConfiguration;
+import io.syndesis.qe.utils.OpenShiftUtils;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Parses the log of an s2i build pod into a {@link BuildLogReport}.
+ * <p>
+ * The log is read incrementally, so {@link #update()} can be called repeatedly while the build runs and each call
+ * transfers only the new lines. Downloads are counted per repository from the Maven transfer messages, the time of each
+ * plugin execution is measured between the timestamps of the lines that start the executions, and the time of the
+ * image push between the push messages of the builder.
+ * <p>
+ * Maven doesn't log lifecycle phases, so the executions of the well known goals are attributed to the phase they are
+ * bound to by default and the other executions to their goal.
+ */
+@Slf4j
+public class BuildLogAnalyzer {
+    private static final Pattern DOWNLOADING = Pattern.compile("Downloading(?: from ([\\w.-]+))?: (\\S+)");
+    private static final Pattern DOWNLOADED = Pattern.compile(
+            "Downloaded(?: from ([\\w.-]+))?: (\\S+)(?: \\((\\d+(?:\\.\\d+)?) (B|kB|KB|MB|GB)\\b[^)]*\\))?");
+    private static final Pattern EXECUTION = Pattern.compile("--- ([\\w.-]+):[\\w.-]+:([\\w-]+) \\(([^)]*)\\) @ ([\\w.-]+) ---");
+    private static final Pattern BUILD_RESULT = Pattern.compile("BUILD (SUCCESS|FAILURE)");
+    private static final Pattern PUSHING = Pattern.compile("Pushing image ");
+    private static final Pattern PUSHED = Pattern.compile("Push successful");
+
+    private static final Map<String, String> DEFAULT_PHASES = new HashMap<>();
+    private static final Map<String, BuildLogAnalyzer> ANALYZERS = new ConcurrentHashMap<>();
+
+    static {
+        DEFAULT_PHASES.put("resources", "process-resources");
+        DEFAULT_PHASES.put("compile", "compile");
+        DEFAULT_PHASES.put("testResources", "process-test-resources");
+        DEFAULT_PHASES.put("testCompile", "test-compile");
+        DEFAULT_PHASES.put("test", "test");
+        DEFAULT_PHASES.put("jar", "package");
+        DEFAULT_PHASES.put("repackage", "package");
+        DEFAULT_PHASES.put("install", "install");
+    }
+
+    private final LogCursor cursor;
+    private final BuildLogReport report;
+    private final String indyRepository;
+    // artifact URL -> whether it was requested from the Indy repository
+    private final Map<String, Boolean> pending = new HashMap<>();
+    private int indyAttempts;
+    private int indyDownloads;
+    private int otherDownloads;
+
+    private Instant firstLine;
+    private Instant executionStart;
+    private String execution;
+    private String executionPhase;
+    private Instant pushStart;
+
+    private BuildLogAnalyzer(String integrationName, Pod buildPod) {
+        // own cursor, the shared one may be moved by pattern checks of the same pod
+        this(new LogCursor(buildPod, null), integrationName, buildPod.getMetadata().getName(), TestConfiguration.prodRepository());
+    }
+
+    BuildLogAnalyzer(LogCursor cursor, String integrationName, String buildPodName, String indyRepository) {
+        this.cursor = cursor;
+        this.indyRepository = indyRepository;
+        this.report = new BuildLogReport(integrationName, buildPodName, indyRepository);
+    }
+
+    /**
+     * Returns the analyzer of the latest build of the integration, keeping the state of previous calls for the same build.
+     *
+     * @param integrationName integration name
+     * @return analyzer, empty if there is no build pod for the integration
+     */
+    public static Optional<BuildLogAnalyzer> forIntegration(String integrationName) {
+        final String sanitizedName = integrationName.toLowerCase().replaceAll(" ", "-");
+        final Optional<String> podName = OpenShiftUtils.getBuilds().stream()
+                .filter(b -> b.getMetadata().getName().contains(sanitizedName))
+                .max(Comparator.comparing((Build b) -> b.getMetadata().getCreationTimestamp()))
+                .map(b -> b.getMetadata().getAnnotations().get("openshift.io/build.pod-name"));
+        if (!podName.isPresent()) {
+            return Optional.empty();
+        }
+        return OpenShiftUtils.getPod(podName.get())
+                .map(pod -> ANALYZERS.computeIfAbsent(pod.getMetadata().getName(), name -> new BuildLogAnalyzer(integrationName, pod)));
+    }
+
+    /**
+     * Reads the lines logged since the previous call.
+     *
+     * @return report including the new lines
+     */
+    public synchronized BuildLogReport update() throws IOException {
+        cursor.follow(this::accept);
+        return report();
+    }
+
+    /**
+     * Updates the report and writes it as JSON to {@link TestConfiguration#buildReportDir()}.
+     *
+     * @return path of the written report
+     */
+    public synchronized Path writeReport() throws IOException {
+        update();
+        final Path dir = Paths.get(TestConfiguration.buildReportDir());
+        Files.createDirectories(dir);
+        final Path file = dir.resolve(report.getIntegration().toLowerCase().replaceAll("[^\\w.-]", "-") + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        log.info("Build report {} written to {}", report, file);
+        return file;
+    }
+
+    /**
+     * @return report of the lines accepted so far
+     */
+    BuildLogReport report() {
+        report.setIndyMisses(indyAttempts - indyDownloads + otherDownloads);
+        return report;
+    }
+
+    /**
+     * @param timestamp timestamp of the line, null if unknown
+     * @param line log line without the timestamp
+     */
+    void accept(Instant timestamp, String line) {
+        if (timestamp != null && firstLine == null) {
+            firstLine = timestamp;
+        }
+
+        Matcher m = DOWNLOADING.matcher(line);
+        if (m.find()) {
+            final boolean indy = isIndy(m.group(1), m.group(2));
+            pending.put(m.group(2), indy);
+            if (indy) {
+                indyAttempts++;
+            }
+            report.attempted(repository(m.group(1), m.group(2)));
+            return;
+        }
+
+        m = DOWNLOADED.matcher(line);
+        if (m.find()) {
+            final Boolean indy = pending.remove(m.group(2));
+            if (indy == null ? isIndy(m.group(1), m.group(2)) : indy) {
+                indyDownloads++;
+            } else {
+                otherDownloads++;
+            }
+            report.downloaded(repository(m.group(1), m.group(2)), m.group(3) == null ? 0 : bytes(m.group(3), m.group(4)));
+            return;
+        }
+
+        m = EXECUTION.matcher(line);
+        if (m.find()) {
+            finishExecution(timestamp);
+            execution = m.group(1) + ":" + m.group(2) + " (" + m.group(3) + ") @ " + m.group(4);
+            executionPhase = DEFAULT_PHASES.getOrDefault(m.group(2), m.group(2));
+            executionStart = timestamp;
+            return;
+        }
+
+        m = BUILD_RESULT.matcher(line);
+        if (m.find()) {
+            finishExecution(timestamp);
+            report.finished("SUCCESS".equals(m.group(1)));
+        } else if (PUSHING.matcher(line).find()) {
+            pushStart = timestamp;
+        } else if (PUSHED.matcher(line).find() && pushStart != null && timestamp != null) {
+            report.setPushTimeMs(Duration.between(pushStart, timestamp).toMillis());
+        }
+
+        if (timestamp != null && firstLine != null) {
+            report.setTotalTimeMs(Duration.between(firstLine, timestamp).toMillis());
+        }
+    }
+
+    private void finishExecution(Instant timestamp) {
+        if (execution != null && executionStart != null && timestamp != null) {
+            report.executed(execution, executionPhase, Duration.between(executionStart, timestamp).toMillis());
+        }
+        execution = null;
+    }
+
+    /**
+     * @param id repository id logged by Maven 3.5+, null for older versions
+     * @param url artifact URL
+     */
+    private boolean isIndy(String id, String url) {
+        return "indy".equals(id) || indyRepository != null && url.startsWith(indyRepository);
+    }
+
+    private static String repository(String id, String url) {
+        if (id != null) {
+            return id;
+        }
+        try {
+            final URI uri = URI.create(url);
+            return uri.getScheme() + "://" + uri.getAuthority();
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    private static long bytes(String amount, String unit) {
+        final double value = Double.parseDouble(amount);
+        switch (unit) {
+            case "kB":
+                return (long) (value * 1000);
+            case "KB":
+                return (long) (value * 1024);
+            case "MB":
+                return (long) (value * 1024 * 1024);
+            case "GB":
+                return (long) (value * 1024 * 1024 * 1024);
+            default:
+                return (long) value;
+        }
+    }
+}
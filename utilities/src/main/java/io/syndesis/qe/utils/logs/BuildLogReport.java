@@ -0,0 +1,111 @@
+package io.syndesis.qe.utils.logs;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Build efficiency figures of one s2i build, produced by {@link BuildLogAnalyzer} and serialized to JSON as is.
+ * Durations are in milliseconds, sizes in bytes.
+ */
+@Getter
+public class BuildLogReport {
+    private final String integration;
+    private final String buildPod;
+    /**
+     * Repository that proxies Maven central for product builds, null if none is configured.
+     */
+    private final String indyRepository;
+    private boolean complete;
+    private boolean successful;
+    private long totalTimeMs;
+    private long pushTimeMs;
+    private int downloadAttempts;
+    private int downloads;
+    private long downloadedBytes;
+    /**
+     * Artifacts that were not served by the Indy repository: failed lookups in it and downloads from other repositories.
+     * Without an Indy repository these are all downloads.
+     */
+    private int indyMisses;
+    private final Map<String, RepositoryStats> repositories = new LinkedHashMap<>();
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private final List<Execution> executions = new ArrayList<>();
+
+    BuildLogReport(String integration, String buildPod, String indyRepository) {
+        this.integration = integration;
+        this.buildPod = buildPod;
+        this.indyRepository = indyRepository;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d ms in total, %d ms image push, %d artifact(s) downloaded (%d bytes) in %d attempt(s), %d Indy miss(es), "
+                        + "phases %s", integration, totalTimeMs, pushTimeMs, downloads, downloadedBytes, downloadAttempts, indyMisses, phases);
+    }
+
+    void attempted(String repository) {
+        downloadAttempts++;
+        repository(repository).attempts++;
+    }
+
+    void downloaded(String repository, long bytes) {
+        downloads++;
+        downloadedBytes += bytes;
+        final RepositoryStats stats = repository(repository);
+        stats.downloads++;
+        stats.bytes += bytes;
+    }
+
+    void executed(String execution, String phase, long durationMs) {
+        executions.add(new Execution(execution, phase, durationMs));
+        phases.merge(phase, durationMs, Long::sum);
+    }
+
+    void finished(boolean successful) {
+        this.complete = true;
+        this.successful = successful;
+    }
+
+    void setTotalTimeMs(long totalTimeMs) {
+        this.totalTimeMs = totalTimeMs;
+    }
+
+    void setPushTimeMs(long pushTimeMs) {
+        this.pushTimeMs = pushTimeMs;
+    }
+
+    void setIndyMisses(int indyMisses) {
+        this.indyMisses = indyMisses;
+    }
+
+    private RepositoryStats repository(String repository) {
+        return repositories.computeIfAbsent(repository, r -> new RepositoryStats());
+    }
+
+    @Getter
+    public static class RepositoryStats {
+        private int attempts;
+        private int downloads;
+        private long bytes;
+
+        /**
+         * @return lookups of artifacts the repository didn't have
+         */
+        public int getFailedLookups() {
+            return attempts - downloads;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Execution {
+        private final String name;
+        private final String phase;
+        private final long durationMs;
+    }
+}
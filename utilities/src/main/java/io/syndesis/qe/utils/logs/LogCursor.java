@@ -0,0 +1,313 @@
+package io.syndesis.qe.utils.logs;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Pattern;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.syndesis.qe.utils.OpenShiftUtils;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Response;
+
+/**
+ * Remembers how far the log of one pod container has been read.
+ * <p>
+ * Logs are requested with timestamps and every following request asks only for lines since the last seen timestamp,
+ * so repeated checks transfer just the lines that were appended in between. The API works with second precision,
+ * therefore lines already seen within the last second are skipped on the client side.
+ * <p>
+ * The cursor also remembers the result of every pattern it has evaluated. A pattern found once is never searched for
+ * again, a pattern not found yet is only searched for in the new lines. The log text itself is never kept, so memory
+ * use doesn't grow with the size of the log.
+ */
+@Slf4j
+public class LogCursor {
+    private final Pod pod;
+    private final String container;
+
+    private Instant position;
+    private int linesAtPosition;
+    private Instant skipBefore;
+    private int skipAtPosition;
+    private int restartCount;
+    private Instant lineTimestamp;
+
+    // pattern key -> found; contains every pattern evaluated against all lines up to the position
+    private final Map<String, Boolean> evaluated = new HashMap<>();
+    private final Map<String, Pattern> patterns = new HashMap<>();
+    // the read in progress and the caller that started it, guarded by itself
+    private final Object activeLock = new Object();
+    private Call activeCall;
+    private Object activeOwner;
+    // owner that aborted before its read started, e.g. while waiting for another caller's read
+    private Object abortedOwner;
+
+    LogCursor(Pod pod, String container) {
+        this.pod = pod;
+        this.container = container;
+        this.restartCount = restartCount(pod);
+    }
+
+    /**
+     * Evaluates the patterns against the whole log, fetching only the lines not read by previous calls if possible.
+     *
+     * @param requested patterns to look for
+     * @return array with the same length as patterns, true for every pattern that was found in the log
+     */
+    public boolean[] find(Pattern... requested) throws IOException {
+        return find(null, requested);
+    }
+
+    /**
+     * Same as {@link #find(Pattern...)}, but reading stops as soon as the stop condition holds.
+     * The result then reflects only the part of the log read so far.
+     *
+     * @param stop checked before each line, may be null
+     * @param requested patterns to look for
+     * @return array with the same length as patterns, true for every pattern that was found in the log
+     */
+    public boolean[] find(BooleanSupplier stop, Pattern... requested) throws IOException {
+        return find(new Object(), stop, requested);
+    }
+
+    /**
+     * Same as {@link #find(BooleanSupplier, Pattern...)}, the read can be cancelled with {@link #abort(Object)} by the
+     * given owner.
+     *
+     * @param owner identifies the caller, any object that isn't shared with other callers
+     * @param stop checked before each line, may be null
+     * @param requested patterns to look for
+     * @return array with the same length as patterns, true for every pattern that was found in the log
+     */
+    public synchronized boolean[] find(Object owner, BooleanSupplier stop, Pattern... requested) throws IOException {
+        boolean fromStart = false;
+        for (Pattern pattern : requested) {
+            if (!evaluated.containsKey(key(pattern))) {
+                patterns.put(key(pattern), pattern);
+                evaluated.put(key(pattern), false);
+                fromStart = true;
+            }
+        }
+
+        if (!allFound(requested)) {
+            // scan for all patterns that are still missing to keep them in sync with the position
+            final List<Pattern> missing = new ArrayList<>();
+            patterns.forEach((key, pattern) -> {
+                if (!evaluated.get(key)) {
+                    missing.add(pattern);
+                }
+            });
+            final LogScanner scanner = new LogScanner(missing.toArray(new Pattern[0]));
+            read(owner, fromStart, scanner, () -> allFound(requested) || (stop != null && stop.getAsBoolean()), null);
+        }
+
+        final boolean[] found = new boolean[requested.length];
+        for (int i = 0; i < requested.length; ++i) {
+            found[i] = evaluated.get(key(requested[i]));
+        }
+        return found;
+    }
+
+    /**
+     * Returns the whole log. The text is read from the beginning on every call and isn't kept by the cursor, the
+     * position and the pattern results of the cursor stay as they are.
+     *
+     * @return log text
+     */
+    public String text() throws IOException {
+        final StringBuilder text = new StringBuilder();
+        try (Response response = OpenShiftUtils.podLogCall(pod, container, null).execute();
+                BufferedReader reader = new BufferedReader(response.body().charStream())) {
+            if (!response.isSuccessful()) {
+                throw new IOException("Log of pod " + pod.getMetadata().getName() + " is not available: HTTP " + response.code());
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final int space = line.indexOf(' ');
+                text.append(space > 0 && timestamp(line.substring(0, space)) != null ? line.substring(space + 1) : line).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Passes the lines appended since the previous read of this cursor to the consumer, together with the time the line
+     * was logged (null for lines without a timestamp). Meant for cursors owned by a single reader, as lines read by
+     * {@link #find(Pattern...)} are not passed again.
+     *
+     * @param consumer consumer of the timestamp and the content of each line
+     */
+    public synchronized void follow(BiConsumer<Instant, String> consumer) throws IOException {
+        final List<Pattern> missing = new ArrayList<>();
+        patterns.forEach((key, pattern) -> {
+            if (!evaluated.get(key)) {
+                missing.add(pattern);
+            }
+        });
+        read(new Object(), false, new LogScanner(missing.toArray(new Pattern[0])), null, consumer);
+    }
+
+    /**
+     * Cancels the read of the owner if it is in progress or about to start, which makes the reading call fail with an
+     * IOException. Doesn't block, so it can cancel reads blocked on a slow stream from another thread. Reads of other
+     * callers of the shared cursor are left alone.
+     *
+     * @param owner owner passed to {@link #find(Object, BooleanSupplier, Pattern...)}
+     */
+    public void abort(Object owner) {
+        synchronized (activeLock) {
+            if (activeCall != null && activeOwner == owner) {
+                activeCall.cancel();
+            } else {
+                abortedOwner = owner;
+            }
+        }
+    }
+
+    /**
+     * Forgets everything, the next call reads the log from the beginning.
+     */
+    public synchronized void reset() {
+        position = null;
+        linesAtPosition = 0;
+        evaluated.clear();
+        patterns.clear();
+    }
+
+    public Pod getPod() {
+        return pod;
+    }
+
+    public String getContainer() {
+        return container;
+    }
+
+    /**
+     * Resets the cursor when the container was restarted, as the restarted container starts with a new log.
+     */
+    synchronized void update(Pod current) {
+        final int currentRestartCount = restartCount(current);
+        if (currentRestartCount != restartCount) {
+            log.debug("Container of pod {} was restarted, resetting its log cursor", pod.getMetadata().getName());
+            restartCount = currentRestartCount;
+            reset();
+        }
+    }
+
+    private void read(Object owner, boolean fromStart, LogScanner scanner, BooleanSupplier stop, BiConsumer<Instant, String> consumer)
+            throws IOException {
+        if (fromStart) {
+            position = null;
+            linesAtPosition = 0;
+        }
+
+        // the lines up to the position were already read, the request can't be more precise than one second
+        skipBefore = position;
+        skipAtPosition = linesAtPosition;
+        final String sinceTime = position == null ? null : DateTimeFormatter.ISO_INSTANT.format(position.truncatedTo(ChronoUnit.SECONDS));
+        final Call call = OpenShiftUtils.podLogCall(pod, container, sinceTime);
+        synchronized (activeLock) {
+            activeCall = call;
+            activeOwner = owner;
+            if (abortedOwner == owner) {
+                abortedOwner = null;
+                call.cancel();
+            }
+        }
+        try (Response response = call.execute(); BufferedReader reader = new BufferedReader(response.body().charStream())) {
+            if (!response.isSuccessful()) {
+                throw new IOException("Log of pod " + pod.getMetadata().getName() + " is not available: HTTP " + response.code());
+            }
+            String line;
+            while ((stop == null || !stop.getAsBoolean()) && (line = reader.readLine()) != null) {
+                final String content = consume(line);
+                if (content == null) {
+                    continue;
+                }
+                if (consumer != null) {
+                    consumer.accept(lineTimestamp, content);
+                }
+                scanner.accept(content);
+                final Pattern[] scanned = scanner.getPatterns();
+                for (int i = 0; i < scanned.length; ++i) {
+                    if (scanner.isFound(i)) {
+                        evaluated.put(key(scanned[i]), true);
+                    }
+                }
+            }
+        } finally {
+            synchronized (activeLock) {
+                activeCall = null;
+                activeOwner = null;
+            }
+        }
+    }
+
+    /**
+     * Strips the timestamp and moves the position.
+     *
+     * @return line content or null if the line was already read
+     */
+    private String consume(String line) {
+        final int space = line.indexOf(' ');
+        final Instant timestamp = space > 0 ? timestamp(line.substring(0, space)) : null;
+        lineTimestamp = timestamp;
+        if (timestamp == null) {
+            return line;
+        }
+
+        if (skipBefore != null) {
+            final int cmp = timestamp.compareTo(skipBefore);
+            if (cmp < 0 || (cmp == 0 && skipAtPosition-- > 0)) {
+                return null;
+            }
+        }
+
+        if (timestamp.equals(position)) {
+            linesAtPosition++;
+        } else {
+            position = timestamp;
+            linesAtPosition = 1;
+        }
+        return line.substring(space + 1);
+    }
+
+    private boolean allFound(Pattern[] requested) {
+        for (Pattern pattern : requested) {
+            if (!evaluated.get(key(pattern))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Instant timestamp(String text) {
+        try {
+            return Instant.parse(text);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String key(Pattern pattern) {
+        return pattern.flags() + "/" + pattern.pattern();
+    }
+
+    private static int restartCount(Pod pod) {
+        if (pod.getStatus() == null || pod.getStatus().getContainerStatuses() == null) {
+            return 0;
+        }
+        return pod.getStatus().getContainerStatuses().stream().mapToInt(s -> s.getRestartCount() == null ? 0 : s.getRestartCount()).sum();
+    }
+}
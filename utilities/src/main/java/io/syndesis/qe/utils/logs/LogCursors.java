@@ -0,0 +1,57 @@
+package io.syndesis.qe.utils.logs;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.fabric8.kubernetes.api.model.Pod;
+
+/**
+ * Registry of {@link LogCursor}s, one per pod and container.
+ * <p>
+ * Pods are identified by their UID, so a recreated pod with the same name gets a fresh cursor.
+ */
+public final class LogCursors {
+    private static final Map<String, LogCursor> CURSORS = new ConcurrentHashMap<>();
+
+    private LogCursors() {
+    }
+
+    public static LogCursor get(Pod pod) {
+        return get(pod, null);
+    }
+
+    /**
+     * Returns the cursor for the given pod container.
+     *
+     * @param pod pod
+     * @param container container name, null for the only container of the pod
+     * @return log cursor
+     */
+    public static LogCursor get(Pod pod, String container) {
+        final LogCursor cursor = CURSORS.computeIfAbsent(key(pod, container), k -> new LogCursor(pod, container));
+        cursor.update(pod);
+        return cursor;
+    }
+
+    public static void remove(Pod pod) {
+        CURSORS.keySet().removeIf(key -> key.startsWith(id(pod) + "/"));
+    }
+
+    /**
+     * Drops all cursors together with their positions and pattern results.
+     */
+    public static void clear() {
+        CURSORS.clear();
+    }
+
+    private static String key(Pod pod, String container) {
+        return id(pod) + "/" + (container == null ? "" : container);
+    }
+
+    private static String id(Pod pod) {
+        if (pod.getMetadata().getUid() != null) {
+            return pod.getMetadata().getUid();
+        }
+        return pod.getMetadata().getNamespace() + ":" + pod.getMetadata().getName();
+    }
+}
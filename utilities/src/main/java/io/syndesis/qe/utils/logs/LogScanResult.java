@@ -0,0 +1,84 @@
+package io.syndesis.qe.utils.logs;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Result of scanning logs of several pods: which patterns were found at all and which pod matched which pattern.
+ * <p>
+ * The scan stops as soon as every pattern was found somewhere, so the per-pod breakdown of a complete result
+ * covers only the part of each log read until then.
+ */
+public class LogScanResult {
+    private final Pattern[] patterns;
+    private final boolean[] found;
+    private final Map<String, boolean[]> perPod = new LinkedHashMap<>();
+    private final Map<String, String> failures = new LinkedHashMap<>();
+    private int remaining;
+
+    public LogScanResult(Pattern... patterns) {
+        this.patterns = patterns;
+        this.found = new boolean[patterns.length];
+        this.remaining = patterns.length;
+    }
+
+    synchronized void add(String podName, boolean[] podFound) {
+        perPod.put(podName, podFound.clone());
+        for (int i = 0; i < found.length; ++i) {
+            if (podFound[i] && !found[i]) {
+                found[i] = true;
+                remaining--;
+            }
+        }
+    }
+
+    synchronized void fail(String podName, String reason) {
+        failures.put(podName, reason);
+    }
+
+    public synchronized boolean isComplete() {
+        return remaining == 0;
+    }
+
+    public Pattern[] getPatterns() {
+        return patterns;
+    }
+
+    public synchronized boolean[] getFound() {
+        return found.clone();
+    }
+
+    /**
+     * @return pod name -> patterns found in that pod, in the order of {@link #getPatterns()}
+     */
+    public synchronized Map<String, boolean[]> getPerPod() {
+        final Map<String, boolean[]> copy = new LinkedHashMap<>();
+        perPod.forEach((pod, podFound) -> copy.put(pod, podFound.clone()));
+        return copy;
+    }
+
+    public synchronized List<String> getPodsMatching(int patternIndex) {
+        return perPod.entrySet().stream().filter(e -> e.getValue()[patternIndex]).map(Map.Entry::getKey).collect(Collectors.toList());
+    }
+
+    /**
+     * @return pod name -> reason, for pods whose logs could not be read completely
+     */
+    public synchronized Map<String, String> getFailures() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+    }
+
+    @Override
+    public synchronized String toString() {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < patterns.length; ++i) {
+            sb.append(patterns[i]).append(" -> ").append(found[i] ? getPodsMatching(i) : "not found").append('\n');
+        }
+        failures.forEach((pod, reason) -> sb.append(pod).append(" failed: ").append(reason).append('\n'));
+        return sb.toString();
+    }
+}
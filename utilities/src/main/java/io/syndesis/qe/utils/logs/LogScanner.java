@@ -0,0 +1,205 @@
+package io.syndesis.qe.utils.logs;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Scans log lines for several patterns in a single pass.
+ * <p>
+ * All patterns that still need to be evaluated are merged into one alternation used as a prefilter, so a line that matches
+ * nothing (the common case) costs one regex evaluation instead of one per pattern. Only lines accepted by the prefilter
+ * are tested against the individual patterns. Found patterns are dropped from the prefilter and once every pattern has
+ * matched the scan stops without reading the rest of the log.
+ * <p>
+ * When the last matching line of each pattern is requested, patterns are never dropped and the whole log is read.
+ */
+@Slf4j
+public class LogScanner {
+    private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\([1-9]|k<)");
+
+    private final Pattern[] patterns;
+    private final boolean[] found;
+    private final String[] lines;
+    private final boolean trackLastLine;
+    private final boolean prefilterSupported;
+
+    private Pattern prefilter;
+    private int remaining;
+
+    public LogScanner(Pattern... patterns) {
+        this(false, patterns);
+    }
+
+    /**
+     * @param trackLastLine whether to remember the last line matching each pattern, which requires reading the whole log
+     * @param patterns patterns to look for
+     */
+    public LogScanner(boolean trackLastLine, Pattern... patterns) {
+        this.patterns = patterns;
+        this.found = new boolean[patterns.length];
+        this.lines = new String[patterns.length];
+        this.trackLastLine = trackLastLine;
+        this.remaining = patterns.length;
+        this.prefilterSupported = canBeCombined(patterns);
+        this.prefilter = buildPrefilter();
+    }
+
+    /**
+     * Tests one log line.
+     *
+     * @param line log line
+     * @return true if the scan is complete and no further lines need to be read
+     */
+    public boolean accept(String line) {
+        if (prefilter != null && !prefilter.matcher(line).find()) {
+            return isComplete();
+        }
+
+        boolean newlyFound = false;
+        for (int i = 0; i < patterns.length; ++i) {
+            if (found[i] && !trackLastLine) {
+                continue;
+            }
+            if (patterns[i].matcher(line).find()) {
+                if (!found[i]) {
+                    log.info("Found pattern {} on line '{}'", patterns[i], cleanLine(line));
+                    found[i] = true;
+                    remaining--;
+                    newlyFound = true;
+                }
+                lines[i] = line;
+            }
+        }
+
+        if (newlyFound && !trackLastLine) {
+            prefilter = buildPrefilter();
+        }
+        return isComplete();
+    }
+
+    /**
+     * Reads lines from the reader until the scan is complete, the reader is exhausted or the stop condition holds.
+     * The reader is not closed.
+     *
+     * @param reader log source
+     * @param stop checked before each line, may be null
+     * @return true if the scan is complete
+     */
+    public boolean scan(Reader reader, BooleanSupplier stop) throws IOException {
+        final BufferedReader br = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        String line;
+        while (!isComplete() && (stop == null || !stop.getAsBoolean()) && (line = br.readLine()) != null) {
+            accept(line);
+        }
+        return isComplete();
+    }
+
+    public boolean scan(Reader reader) throws IOException {
+        return scan(reader, null);
+    }
+
+    public boolean isComplete() {
+        return !trackLastLine && remaining == 0;
+    }
+
+    public Pattern[] getPatterns() {
+        return patterns;
+    }
+
+    public boolean isFound(int index) {
+        return found[index];
+    }
+
+    public boolean[] getFound() {
+        return found.clone();
+    }
+
+    public String[] getLines() {
+        return lines.clone();
+    }
+
+    public static String cleanLine(String line) {
+        if (line.startsWith("\u001b")) {
+            return line + "\u001b[0m";
+        }
+
+        return line;
+    }
+
+    private Pattern buildPrefilter() {
+        if (!prefilterSupported || patterns.length < 2) {
+            return null;
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < patterns.length; ++i) {
+            if (found[i] && !trackLastLine) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append('|');
+            }
+            sb.append("(?").append(inlineFlags(patterns[i].flags())).append(':').append(patterns[i].pattern());
+            if ((patterns[i].flags() & Pattern.COMMENTS) != 0) {
+                // a trailing comment would swallow the closing parenthesis otherwise
+                sb.append('\n');
+            }
+            sb.append(')');
+        }
+
+        if (sb.length() == 0) {
+            return null;
+        }
+        try {
+            return Pattern.compile(sb.toString());
+        } catch (PatternSyntaxException e) {
+            log.debug("Unable to combine patterns, falling back to evaluating them one by one", e);
+            return null;
+        }
+    }
+
+    private static boolean canBeCombined(Pattern[] patterns) {
+        for (Pattern pattern : patterns) {
+            if ((pattern.flags() & (Pattern.LITERAL | Pattern.CANON_EQ)) != 0) {
+                return false;
+            }
+            // group numbers shift inside of the alternation, so back references would point elsewhere
+            if (BACK_REFERENCE.matcher(pattern.pattern()).find()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String inlineFlags(int flags) {
+        final StringBuilder sb = new StringBuilder();
+        if ((flags & Pattern.UNIX_LINES) != 0) {
+            sb.append('d');
+        }
+        if ((flags & Pattern.CASE_INSENSITIVE) != 0) {
+            sb.append('i');
+        }
+        if ((flags & Pattern.MULTILINE) != 0) {
+            sb.append('m');
+        }
+        if ((flags & Pattern.DOTALL) != 0) {
+            sb.append('s');
+        }
+        if ((flags & Pattern.UNICODE_CASE) != 0) {
+            sb.append('u');
+        }
+        if ((flags & Pattern.COMMENTS) != 0) {
+            sb.append('x');
+        }
+        if ((flags & Pattern.UNICODE_CHARACTER_CLASS) != 0) {
+            sb.append('U');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,137 @@
+package io.syndesis.qe.utils.logs;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.syndesis.qe.utils.TestUtils;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fetches and scans logs of several pods concurrently.
+ * <p>
+ * Pods are processed on a bounded thread pool. Each pod has its own timeout counted from the moment its log is
+ * requested, and once every pattern was found in any of the pods, the remaining reads are cancelled.
+ */
+@Slf4j
+public final class ParallelLogScan {
+    public static final int THREADS = 8;
+    public static final long DEFAULT_POD_TIMEOUT_MS = 2 * 60 * 1000L;
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREADS, TestUtils.daemonThreads("log-scan"));
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(TestUtils.daemonThreads("log-scan-watchdog"));
+
+    private ParallelLogScan() {
+    }
+
+    public static LogScanResult scan(Collection<Pod> pods, Pattern... patterns) {
+        return scan(pods, DEFAULT_POD_TIMEOUT_MS, patterns);
+    }
+
+    /**
+     * Scans logs of all pods for the patterns.
+     *
+     * @param pods pods to scan
+     * @param podTimeoutMs how long a single pod log may be read
+     * @param patterns patterns to look for
+     * @return merged result with per-pod breakdown
+     */
+    public static LogScanResult scan(Collection<Pod> pods, long podTimeoutMs, Pattern... patterns) {
+        final LogScanResult result = new LogScanResult(patterns);
+        final List<LogCursor> cursors = new ArrayList<>();
+        for (Pod pod : pods) {
+            cursors.add(LogCursors.get(pod));
+        }
+
+        // reads started by this scan, owner -> cursor; the cursors are shared, so only these reads may be aborted
+        final Map<Object, LogCursor> started = new ConcurrentHashMap<>();
+        final List<Future<?>> futures = new ArrayList<>();
+        for (LogCursor cursor : cursors) {
+            final String podName = cursor.getPod().getMetadata().getName();
+            futures.add(EXECUTOR.submit(() -> {
+                if (result.isComplete()) {
+                    return;
+                }
+                final Object owner = new Object();
+                started.put(owner, cursor);
+                final AtomicBoolean timedOut = new AtomicBoolean(false);
+                final ScheduledFuture<?> watchdog = WATCHDOG.schedule(() -> {
+                    timedOut.set(true);
+                    cursor.abort(owner);
+                }, podTimeoutMs, TimeUnit.MILLISECONDS);
+                try {
+                    result.add(podName, cursor.find(owner, result::isComplete, patterns));
+                    if (result.isComplete()) {
+                        // unblock the pods still waiting for their log streams
+                        started.forEach((o, c) -> c.abort(o));
+                    }
+                } catch (IOException e) {
+                    if (timedOut.get()) {
+                        log.error("Reading logs of pod {} timed out after {} ms", podName, podTimeoutMs);
+                        result.fail(podName, "timed out after " + podTimeoutMs + " ms");
+                    } else if (!result.isComplete()) {
+                        log.error("Failed to get logs for pod {}", podName, e);
+                        result.fail(podName, e.toString());
+                    }
+                } finally {
+                    watchdog.cancel(false);
+                    started.remove(owner);
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                started.forEach((o, c) -> c.abort(o));
+                break;
+            } catch (ExecutionException e) {
+                log.error("Log scan failed", e.getCause());
+            }
+        }
+
+        log.debug("Log scan result:\n{}", result);
+        return result;
+    }
+
+    /**
+     * Reads whole logs of all pods concurrently.
+     *
+     * @param pods pods
+     * @return pod name -> log text, in the order of the given pods; pods whose logs could not be read are missing
+     */
+    public static Map<String, String> readLogs(Collection<Pod> pods) {
+        final Map<String, Future<String>> futures = new LinkedHashMap<>();
+        for (Pod pod : pods) {
+            futures.put(pod.getMetadata().getName(), EXECUTOR.submit(() -> LogCursors.get(pod).text()));
+        }
+
+        final Map<String, String> logs = new LinkedHashMap<>();
+        futures.forEach((podName, future) -> {
+            try {
+                logs.put(podName, future.get(DEFAULT_POD_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+            } catch (Exception e) {
+                log.error("Failed to get logs for pod {}", podName, e);
+                future.cancel(true);
+            }
+        });
+        return logs;
+    }
+}
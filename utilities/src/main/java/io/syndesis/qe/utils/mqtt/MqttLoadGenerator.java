@@ -0,0 +1,78 @@
+package io.syndesis.qe.utils.mqtt;
+
+import org.eclipse.paho.client.mqttv3.MqttException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import io.syndesis.qe.utils.load.LoadMessages;
+import io.syndesis.qe.utils.load.Pacer;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes messages to the input topic of an integration at a given rate and receives them from its output topic.
+ * <p>
+ * Every message carries a sequence number and the time it was sent, so the {@link Receiver} can measure the end-to-end
+ * latency and detect lost and duplicated messages. The integration has to pass the message body through unchanged.
+ */
+@Slf4j
+@Builder
+public class MqttLoadGenerator {
+    /**
+     * Broker URL, e.g. tcp://127.0.0.1:1883.
+     */
+    private final String broker;
+    private final String input;
+    private final String output;
+    @Builder.Default
+    private final int qos = 1;
+    @Builder.Default
+    private final int maxInflight = 100;
+    /**
+     * Messages per second, 0 sends as fast as the inflight window allows.
+     */
+    @Builder.Default
+    private final int rate = 100;
+    @Builder.Default
+    private final long durationMs = 60000L;
+    @Builder.Default
+    private final int messageSize = 256;
+    /**
+     * How long to wait for the remaining messages after the last one was sent.
+     */
+    @Builder.Default
+    private final long drainTimeoutMs = 30000L;
+
+    public MqttLoadReport run() {
+        log.info("Publishing {} msg/s with QoS {} and inflight window {} to MQTT topic {} for {} ms, receiving from topic {}",
+                rate, qos, maxInflight, input, durationMs, output);
+        try (MqttUtils mqtt = new MqttUtils(broker, qos, maxInflight);
+                Receiver receiver = mqtt.createReceiver("qe-mqtt-load-" + UUID.randomUUID().toString().substring(0, 8), output)) {
+            final long start = System.nanoTime();
+            produce(mqtt, start);
+            if (!mqtt.flush(drainTimeoutMs)) {
+                log.warn("Not all MQTT messages were acknowledged within {} ms", drainTimeoutMs);
+            }
+            receiver.awaitUnique(mqtt.getDelivered(), drainTimeoutMs);
+
+            final long end = receiver.getLastArrival() == 0 ? start : receiver.getLastArrival();
+            final MqttLoadReport report = new MqttLoadReport(qos, mqtt.getDelivered(), mqtt.getFailed(), receiver.getUnique(),
+                    receiver.getDuplicates(), TimeUnit.NANOSECONDS.toMillis(end - start), receiver.getLatencies());
+            log.info("MQTT load: {}", report);
+            return report;
+        } catch (MqttException e) {
+            throw new IllegalStateException("MQTT load generation failed", e);
+        }
+    }
+
+    private void produce(MqttUtils mqtt, long start) throws MqttException {
+        final String padding = LoadMessages.padding(messageSize, 32);
+        final Pacer pacer = new Pacer(start, durationMs, rate);
+        int sequence = 0;
+        while (pacer.await()) {
+            mqtt.publish(input, (sequence++ + ":" + System.nanoTime() + ":" + padding).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
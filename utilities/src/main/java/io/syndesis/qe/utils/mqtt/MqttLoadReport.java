@@ -0,0 +1,27 @@
+package io.syndesis.qe.utils.mqtt;
+
+import org.HdrHistogram.Histogram;
+
+import io.syndesis.qe.utils.load.LatencyReport;
+import lombok.Getter;
+
+/**
+ * Results of one {@link MqttLoadGenerator} run. Latencies are in microseconds.
+ */
+@Getter
+public class MqttLoadReport extends LatencyReport {
+    private final int qos;
+    private final long failedSends;
+
+    MqttLoadReport(int qos, long sent, long failedSends, long unique, long duplicates, long durationMs, Histogram latencies) {
+        super(sent, unique, duplicates, durationMs, latencies);
+        this.qos = qos;
+        this.failedSends = failedSends;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("QoS %d: sent %d (%d failed), received %d, lost %d (%.2f %%), duplicates %d ",
+                qos, getSent(), failedSends, getReceived(), getLost(), getLossRate() * 100, getDuplicates()) + timing();
+    }
+}
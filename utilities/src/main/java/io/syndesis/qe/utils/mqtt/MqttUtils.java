@@ -1,78 +1,203 @@
 package io.syndesis.qe.utils.mqtt;
 
-import io.syndesis.qe.accounts.Account;
-import io.syndesis.qe.accounts.AccountsDirectory;
-import lombok.extern.slf4j.Slf4j;
 import org.assertj.core.api.Assertions;
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
 import org.eclipse.paho.client.mqttv3.MqttClient;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
 import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
+import io.syndesis.qe.accounts.Account;
+import io.syndesis.qe.accounts.AccountsDirectory;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * MQTT clients of one broker.
+ * <p>
+ * Messages are published through a single connection that is opened on the first message and kept until the utils are
+ * closed. Publishing is asynchronous and at most the inflight window of messages waits for the acknowledgement of the
+ * broker at any time, further publishers block until there is room in the window.
+ */
 @Slf4j
-public class MqttUtils {
-    private static final String broker = "tcp://localhost:1883";
+public class MqttUtils implements AutoCloseable {
+    private static final long SEND_TIMEOUT_MS = 30000L;
 
+    private final String broker;
+    private final int qos;
+    private final int maxInflight;
+    private final Semaphore inflight;
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private MqttAsyncClient publisher;
 
-    public MqttClient createReceiver(String clientName, String topic) throws MqttException {
-        MqttClient sampleClient = new MqttClient(broker, clientName, new MemoryPersistence());
-        MqttConnectOptions connOpts = new MqttConnectOptions();
-        connOpts.setCleanSession(false);
+    /**
+     * @param broker broker URL, e.g. tcp://127.0.0.1:1883
+     */
+    public MqttUtils(String broker) {
+        this(broker, 1, 10);
+    }
 
-        Optional<Account> optional = AccountsDirectory.getInstance().getAccount("QE MQTT");
-        if (optional.isPresent()) {
-            log.info("Setting username and password for QE MQTT client");
-            connOpts.setUserName(optional.get().getProperties().get("userName"));
-            connOpts.setPassword(optional.get().getProperties().get("password").toCharArray());
-        }
+    /**
+     * @param broker broker URL, e.g. tcp://127.0.0.1:1883
+     * @param qos quality of service of published messages and subscriptions
+     * @param maxInflight maximum number of published messages waiting for the acknowledgement of the broker
+     */
+    public MqttUtils(String broker, int qos, int maxInflight) {
+        this.broker = broker;
+        this.qos = qos;
+        this.maxInflight = maxInflight;
+        this.inflight = new Semaphore(maxInflight);
+    }
 
-        sampleClient.connect(connOpts);
-        sampleClient.subscribe(topic, 1);
-        sampleClient.setCallback(new Receiver(clientName));
-        return sampleClient;
+    /**
+     * Connects a client subscribed to the topics. Closing the receiver disconnects the client.
+     */
+    public Receiver createReceiver(String clientName, String... topics) throws MqttException {
+        final Receiver receiver = new Receiver();
+        final MqttClient client = new MqttClient(broker, clientName, new MemoryPersistence());
+        // set before subscribing so that no message is missed
+        client.setCallback(receiver);
+        client.connect(connectOptions());
+        receiver.setClient(client);
+        for (String topic : topics) {
+            client.subscribe(topic, qos);
+        }
+        return receiver;
     }
 
+    /**
+     * Publishes the message and waits until the broker acknowledged it.
+     */
     public void sendMessage(String messageContent, String topic) {
-        final String clientId = "syndesis-mqtt-sender";
-        MqttClient sampleClient = null;
         try {
-            sampleClient = new MqttClient(broker, clientId, new MemoryPersistence());
-            MqttConnectOptions connOpts = new MqttConnectOptions();
-            connOpts.setCleanSession(false);
-
-            Optional<Account> optional = AccountsDirectory.getInstance().getAccount("QE MQTT");
-            if (optional.isPresent()) {
-                log.info("Setting username and password for QE MQTT client");
-                connOpts.setUserName(optional.get().getProperties().get("userName"));
-                connOpts.setPassword(optional.get().getProperties().get("password").toCharArray());
-            }
-
-            sampleClient.connect(connOpts);
-            MqttMessage message = new MqttMessage(messageContent.getBytes());
-            message.setQos(1);
-            sampleClient.publish(topic, message);
-            System.out.println("Message published from : " + clientId + " with payload of : " + messageContent);
+            publish(topic, messageContent.getBytes(StandardCharsets.UTF_8)).waitForCompletion(SEND_TIMEOUT_MS);
+            log.debug("Message published to {} with payload of: {}", topic, messageContent);
         } catch (MqttException e) {
-            e.printStackTrace();
+            log.error("Unable to publish MQTT message", e);
             Assertions.fail("Sending a message should not have thrown any exception.");
-        } finally {
-            closeClient(sampleClient);
         }
     }
 
-    public void closeClient(MqttClient client) {
+    /**
+     * Publishes the message without waiting for the acknowledgement, blocks while the inflight window is full.
+     */
+    public IMqttDeliveryToken publish(String topic, byte[] payload) throws MqttException {
+        final MqttAsyncClient client = publisher();
+        final MqttMessage message = new MqttMessage(payload);
+        message.setQos(qos);
+        inflight.acquireUninterruptibly();
+        while (true) {
+            try {
+                return client.publish(topic, message, null, new IMqttActionListener() {
+                    @Override
+                    public void onSuccess(IMqttToken token) {
+                        delivered.incrementAndGet();
+                        inflight.release();
+                    }
+
+                    @Override
+                    public void onFailure(IMqttToken token, Throwable e) {
+                        failed.incrementAndGet();
+                        inflight.release();
+                        log.debug("Unable to publish MQTT message to {}", topic, e);
+                    }
+                });
+            } catch (MqttException e) {
+                // the client frees its window slot a moment before the listener is notified
+                if (e.getReasonCode() == MqttException.REASON_CODE_MAX_INFLIGHT) {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                    continue;
+                }
+                inflight.release();
+                throw e;
+            } catch (RuntimeException e) {
+                inflight.release();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Waits until all published messages were acknowledged or failed.
+     *
+     * @return whether all messages were acknowledged in time
+     */
+    public boolean flush(long timeoutMs) {
         try {
-            if (client != null) {
-                client.disconnect();
-                client.close();
+            if (inflight.tryAcquire(maxInflight, timeoutMs, TimeUnit.MILLISECONDS)) {
+                inflight.release(maxInflight);
+                return true;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * @return published messages acknowledged by the broker
+     */
+    public long getDelivered() {
+        return delivered.get();
+    }
+
+    /**
+     * @return published messages that failed
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (publisher == null) {
+            return;
+        }
+        try {
+            if (publisher.isConnected()) {
+                publisher.disconnect().waitForCompletion(SEND_TIMEOUT_MS);
+            }
+            publisher.close();
         } catch (MqttException e) {
-            e.printStackTrace();
-            Assertions.fail("There should be no error from Mqtt client!");
+            log.debug("Unable to close MQTT publisher", e);
+        }
+        publisher = null;
+    }
+
+    private synchronized MqttAsyncClient publisher() throws MqttException {
+        if (publisher == null) {
+            final MqttAsyncClient client = new MqttAsyncClient(broker, "qe-mqtt-pub-" + UUID.randomUUID().toString().substring(0, 8),
+                    new MemoryPersistence());
+            client.connect(connectOptions()).waitForCompletion(SEND_TIMEOUT_MS);
+            publisher = client;
+        }
+        return publisher;
+    }
+
+    private MqttConnectOptions connectOptions() {
+        final MqttConnectOptions connOpts = new MqttConnectOptions();
+        // a clean session doesn't replay messages left from previous runs
+        connOpts.setCleanSession(true);
+        connOpts.setMaxInflight(maxInflight);
+
+        Optional<Account> optional = AccountsDirectory.getInstance().getAccount("QE MQTT");
+        if (optional.isPresent()) {
+            log.info("Setting username and password for QE MQTT client");
+            connOpts.setUserName(optional.get().getProperties().get("userName"));
+            connOpts.setPassword(optional.get().getProperties().get("password").toCharArray());
         }
+        return connOpts;
     }
 }
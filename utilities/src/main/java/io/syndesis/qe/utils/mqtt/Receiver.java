@@ -1,31 +1,174 @@
 package io.syndesis.qe.utils.mqtt;
 
-
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
 import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
 import org.eclipse.paho.client.mqttv3.MqttCallback;
+import org.eclipse.paho.client.mqttv3.MqttClient;
+import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
 
-public class Receiver implements MqttCallback {
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
-    private String clientIdPrefix;
-    public static int RECEIVED_FLAG = 0;
+import io.syndesis.qe.utils.load.LoadMessages;
+import io.syndesis.qe.utils.load.SequenceTracker;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 
-    public Receiver(String clientIdPrefix) {
-        this.clientIdPrefix = clientIdPrefix;
-    }
+/**
+ * Counts the messages of a subscribed client per topic.
+ * <p>
+ * Messages sent by {@link MqttLoadGenerator} carry a sequence number and the time they were sent, so for them the
+ * receiver also detects duplicates and records the end-to-end latency. The counters can be read and waited for from any
+ * thread while the messages arrive.
+ */
+@Slf4j
+public class Receiver implements MqttCallback, AutoCloseable {
+    private final Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+    private final AtomicLong total = new AtomicLong();
+    // only updated by the callback thread of the client
+    private final SequenceTracker sequences = new SequenceTracker();
+    @Getter
+    private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(10), 3);
+    @Getter
+    private volatile long lastArrival;
+
+    private final Object monitor = new Object();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private MqttClient client;
 
+    void setClient(MqttClient client) {
+        this.client = client;
+    }
 
+    @Override
     public void connectionLost(Throwable throwable) {
-        System.out.println("Consumer connection lost : " + throwable.getMessage());
+        log.warn("MQTT receiver {} lost connection: {}", client == null ? "" : client.getClientId(), throwable.getMessage());
+    }
+
+    @Override
+    public void messageArrived(String topic, MqttMessage message) {
+        final long now = System.nanoTime();
+        lastArrival = now;
+        track(message.getPayload(), now);
+        counts.computeIfAbsent(topic, t -> new AtomicLong()).incrementAndGet();
+        total.incrementAndGet();
+        if (waiters.get() > 0) {
+            synchronized (monitor) {
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public void deliveryComplete(IMqttDeliveryToken token) {
+        // the receiver doesn't publish
+    }
+
+    /**
+     * @return messages received from the topic
+     */
+    public long count(String topic) {
+        final AtomicLong count = counts.get(topic);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * @return messages received from all topics
+     */
+    public long getTotal() {
+        return total.get();
+    }
+
+    /**
+     * @return distinct messages of {@link MqttLoadGenerator} received
+     */
+    public long getUnique() {
+        return sequences.getUnique();
+    }
+
+    /**
+     * @return messages of {@link MqttLoadGenerator} received more than once
+     */
+    public long getDuplicates() {
+        return sequences.getDuplicates();
+    }
+
+    /**
+     * Waits until at least the given number of messages arrived from the topic.
+     *
+     * @return whether the messages arrived in time
+     */
+    public boolean await(String topic, long count, long timeoutMs) {
+        return await(() -> count(topic), count, timeoutMs);
+    }
+
+    /**
+     * Waits until at least the given number of distinct messages of {@link MqttLoadGenerator} arrived.
+     *
+     * @return whether the messages arrived in time
+     */
+    public boolean awaitUnique(long count, long timeoutMs) {
+        return await(sequences::getUnique, count, timeoutMs);
+    }
+
+    @Override
+    public void close() {
+        if (client == null) {
+            return;
+        }
+        try {
+            if (client.isConnected()) {
+                client.disconnect();
+            }
+            client.close();
+        } catch (MqttException e) {
+            log.debug("Unable to close MQTT receiver {}", client.getClientId(), e);
+        }
     }
 
-    public void messageArrived(String s, MqttMessage mqttMessage) throws Exception {
-        System.out.println("Message arrived from topic : " + s + " | Message : "
-                + new String(mqttMessage.getPayload()) + " | Message ID : " + mqttMessage.getId());
-        RECEIVED_FLAG = 1;
+    private void track(byte[] payload, long now) {
+        final String[] parts = new String(payload, StandardCharsets.UTF_8).split(":", 3);
+        if (parts.length < 3) {
+            return;
+        }
+        try {
+            final int sequence = Integer.parseInt(parts[0]);
+            final long sentAt = Long.parseLong(parts[1]);
+            if (sequences.add(sequence)) {
+                LoadMessages.recordLatency(latencies, sentAt, now);
+            }
+        } catch (NumberFormatException e) {
+            // not a load message
+        }
     }
 
-    public void deliveryComplete(IMqttDeliveryToken iMqttDeliveryToken) {
-        System.out.println("Delivery completed from : " + clientIdPrefix);
+    private boolean await(LongSupplier value, long target, long timeoutMs) {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        // registered before the first check, so an arrival right after it notifies this thread
+        waiters.incrementAndGet();
+        try {
+            synchronized (monitor) {
+                while (value.getAsLong() < target) {
+                    final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    monitor.wait(remaining);
+                }
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiters.decrementAndGet();
+        }
     }
 }
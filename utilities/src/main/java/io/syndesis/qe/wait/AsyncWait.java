@@ -0,0 +1,199 @@
+package io.syndesis.qe.wait;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import io.syndesis.qe.utils.TestUtils;
+import io.syndesis.qe.utils.cache.NamespaceCache;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Waits for many conditions at once without blocking a thread per condition.
+ * <p>
+ * A condition is re-evaluated whenever something changes in the namespace (see {@link NamespaceCache}), so the wait
+ * completes as soon as the change that satisfies it arrives. Conditions that don't depend on the namespace state are
+ * additionally re-checked every {@link #RECHECK_INTERVAL_MS}. Each wait completes with the time it took, which makes it
+ * easy to see which of several conditions gated the whole wait.
+ */
+@Slf4j
+public final class AsyncWait {
+    public static final long RECHECK_INTERVAL_MS = 5000L;
+
+    private static final ExecutorService EVALUATOR = Executors.newFixedThreadPool(4, TestUtils.daemonThreads("async-wait"));
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(TestUtils.daemonThreads("async-wait-timer"));
+
+    private AsyncWait() {
+    }
+
+    /**
+     * Starts waiting for the condition.
+     *
+     * @param name name of the condition, used in the timeout message
+     * @param condition condition, must not block for long
+     * @param timeoutMs maximum time to wait
+     * @return future completed with the number of milliseconds it took for the condition to become true, or completed
+     * exceptionally with a TimeoutException. Cancelling the future stops the wait.
+     */
+    public static CompletableFuture<Long> until(String name, BooleanSupplier condition, long timeoutMs) {
+        return until(name, condition, timeoutMs, EVALUATOR);
+    }
+
+    /**
+     * Starts waiting for a condition that blocks, e.g. on a REST call, evaluating it on the given executor instead of the
+     * shared one.
+     *
+     * @param name name of the condition, used in the timeout message
+     * @param condition condition
+     * @param timeoutMs maximum time to wait
+     * @param evaluator executor the condition is evaluated on
+     * @return see {@link #until(String, BooleanSupplier, long)}
+     */
+    public static CompletableFuture<Long> until(String name, BooleanSupplier condition, long timeoutMs, Executor evaluator) {
+        final long start = System.nanoTime();
+        final CompletableFuture<Long> future = new CompletableFuture<>();
+        final AtomicBoolean pending = new AtomicBoolean(false);
+
+        final Runnable check = () -> {
+            pending.set(false);
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                if (condition.getAsBoolean()) {
+                    future.complete(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+            } catch (RuntimeException e) {
+                log.debug("Evaluation of {} failed, will retry", name, e);
+            }
+        };
+        // changes often come in bursts, evaluate at most once per burst
+        final Runnable trigger = () -> {
+            if (!future.isDone() && pending.compareAndSet(false, true)) {
+                try {
+                    evaluator.execute(check);
+                } catch (RejectedExecutionException e) {
+                    pending.set(false);
+                    log.debug("Evaluation of {} rejected, will retry", name);
+                }
+            }
+        };
+
+        NamespaceCache.addListener(trigger);
+        final ScheduledFuture<?> recheck = SCHEDULER.scheduleWithFixedDelay(trigger, 0, RECHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        final ScheduledFuture<?> timeout = SCHEDULER.schedule(
+                () -> future.completeExceptionally(new TimeoutException(name + " not satisfied within " + timeoutMs + " ms")),
+                timeoutMs, TimeUnit.MILLISECONDS);
+        future.whenComplete((latency, e) -> {
+            NamespaceCache.removeListener(trigger);
+            recheck.cancel(false);
+            timeout.cancel(false);
+        });
+        return future;
+    }
+
+    /**
+     * Completes when all futures complete. As soon as one of them fails, the result fails with the same exception and the
+     * remaining futures are cancelled. Cancelling the result cancels all futures.
+     */
+    public static CompletableFuture<Void> allOf(Collection<? extends CompletableFuture<?>> futures) {
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenRun(() -> result.complete(null));
+        futures.forEach(f -> f.whenComplete((r, e) -> {
+            if (e != null && result.completeExceptionally(unwrap(e))) {
+                futures.forEach(other -> other.cancel(true));
+            }
+        }));
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                futures.forEach(f -> f.cancel(true));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Completes with the value of the first future that completes successfully and cancels the rest. Fails only when all
+     * futures fail, with the exception of the last one.
+     */
+    public static <T> CompletableFuture<T> anyOf(Collection<? extends CompletableFuture<T>> futures) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final AtomicInteger failed = new AtomicInteger();
+        futures.forEach(f -> f.whenComplete((r, e) -> {
+            if (e == null) {
+                if (result.complete(r)) {
+                    futures.forEach(other -> other.cancel(true));
+                }
+            } else if (failed.incrementAndGet() == futures.size()) {
+                result.completeExceptionally(unwrap(e));
+            }
+        }));
+        if (futures.isEmpty()) {
+            result.completeExceptionally(new IllegalArgumentException("No futures to wait for"));
+        }
+        return result;
+    }
+
+    /**
+     * Waits for all named waits, failing fast on the first failure, and logs how long each of them took.
+     *
+     * @param waits name -> wait created by {@link #until(String, BooleanSupplier, long)}
+     * @return name -> milliseconds until the condition became true, slowest first
+     * @throws ExecutionException with the cause of the first failed wait
+     */
+    public static Map<String, Long> awaitAll(Map<String, CompletableFuture<Long>> waits) throws InterruptedException, ExecutionException {
+        final CompletableFuture<Void> all = allOf(waits.values());
+        try {
+            all.get();
+        } catch (InterruptedException e) {
+            all.cancel(true);
+            throw e;
+        } finally {
+            log.info("Wait latencies:\n{}", report(waits));
+        }
+
+        final List<Map.Entry<String, CompletableFuture<Long>>> entries = new ArrayList<>(waits.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().join(), a.getValue().join()));
+        final Map<String, Long> latencies = new LinkedHashMap<>();
+        entries.forEach(e -> latencies.put(e.getKey(), e.getValue().join()));
+        return latencies;
+    }
+
+    private static String report(Map<String, CompletableFuture<Long>> waits) {
+        final StringBuilder sb = new StringBuilder();
+        waits.forEach((name, future) -> {
+            sb.append("  ").append(name).append(": ");
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                sb.append(future.join()).append(" ms");
+            } else if (future.isCancelled()) {
+                sb.append("cancelled");
+            } else if (future.isCompletedExceptionally()) {
+                sb.append("failed");
+            } else {
+                sb.append("pending");
+            }
+            sb.append('\n');
+        });
+        return sb.toString();
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
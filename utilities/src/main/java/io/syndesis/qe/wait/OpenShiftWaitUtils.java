@@ -18,6 +18,7 @@ import io.fabric8.kubernetes.api.model.PodCondition;
 import io.fabric8.openshift.api.model.Build;
 import io.syndesis.qe.utils.OpenShiftUtils;
 import io.syndesis.qe.utils.TestUtils;
+import io.syndesis.qe.utils.cache.NamespaceCache;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -25,11 +26,12 @@ public class OpenShiftWaitUtils {
 
     protected static final OpenShiftUtil openshift = OpenShiftUtils.getInstance();
     public static final long DEFAULT_WAIT_INTERVAL = 1000L; // one second
+    public static final long CHANGE_RECHECK_INTERVAL = 200L;
 
     public static boolean hasBuildFailed(Predicate<Build> filter) {
         final AtomicBoolean ret = new AtomicBoolean(false);
 
-        openshift.getBuilds().stream().filter(filter).forEach(build -> {
+        NamespaceCache.builds().list().stream().filter(filter).forEach(build -> {
             if ("Failed".equals(build.getStatus().getPhase())) {
                 ret.set(true);
             }
@@ -74,27 +76,27 @@ public class OpenShiftWaitUtils {
     }
 
     private static boolean _areExactlyNPodsRunning(Predicate<Pod> podFilter, int n) {
-        return openshift.getPods().stream().filter(podFilter).filter(OpenShiftWaitUtils::isPodRunning).count() == n;
+        return NamespaceCache.pods().list().stream().filter(podFilter).filter(OpenShiftWaitUtils::isPodRunning).count() == n;
     }
 
     private static boolean _areExactlyNPods(Predicate<Pod> podFilter, int n) {
-        return openshift.getPods().stream().filter(podFilter).count() == n;
+        return NamespaceCache.pods().list().stream().filter(podFilter).count() == n;
     }
 
     public static BooleanSupplier areExactlyNPods(String podPartialName, int n) {
-        return () -> _areExactlyNPods(pod -> pod.getMetadata().getName().contains(podPartialName), n);
+        return onNamespaceChange(() -> _areExactlyNPods(pod -> pod.getMetadata().getName().contains(podPartialName), n));
     }
 
     private static boolean _areNPodsReady(Predicate<Pod> podFilter, int n) {
-        return openshift.getPods().stream().filter(podFilter).filter(OpenShiftWaitUtils::isPodReady).count() >= n;
+        return NamespaceCache.pods().list().stream().filter(podFilter).filter(OpenShiftWaitUtils::isPodReady).count() >= n;
     }
 
     private static boolean _areExactlyNPodsReady(Predicate<Pod> podFilter, int n) {
-        return openshift.getPods().stream().filter(podFilter).filter(OpenShiftWaitUtils::isPodReady).count() == n;
+        return NamespaceCache.pods().list().stream().filter(podFilter).filter(OpenShiftWaitUtils::isPodReady).count() == n;
     }
 
     private static boolean hasAnyPodRestarted(Predicate<Pod> podFilter) {
-        return openshift.getPods().stream().filter(podFilter).filter(OpenShiftWaitUtils::hasPodRestarted).count() > 0;
+        return NamespaceCache.pods().list().stream().filter(podFilter).filter(OpenShiftWaitUtils::hasPodRestarted).count() > 0;
     }
 
     public static boolean isAPodReady(Predicate<Pod> podFilter) {
@@ -102,63 +104,63 @@ public class OpenShiftWaitUtils {
     }
 
     public static BooleanSupplier areExactlyNPodsRunning(final String labelName, final String labelValue, int n) {
-        return () -> _areExactlyNPodsRunning(pod -> labelValue.equals(pod.getMetadata().getLabels().get(labelName)), n);
+        return onNamespaceChange(() -> _areExactlyNPodsRunning(pod -> labelValue.equals(pod.getMetadata().getLabels().get(labelName)), n));
     }
 
     public static BooleanSupplier areExactlyNPodsRunning(String appName, int n) {
-        return () -> _areExactlyNPodsRunning(pod -> appName.equals(pod.getMetadata().getLabels().get("name")), n);
+        return onNamespaceChange(() -> _areExactlyNPodsRunning(pod -> appName.equals(pod.getMetadata().getLabels().get("name")), n));
     }
 
     public static BooleanSupplier isAPodReady(String appName) {
-        return () -> isAPodReady(pod -> appName.equals(pod.getMetadata().getLabels().get("name")));
+        return onNamespaceChange(() -> isAPodReady(pod -> appName.equals(pod.getMetadata().getLabels().get("name"))));
     }
 
     public static BooleanSupplier isAPodReady(final String labelName, final String labelValue) {
-        return () -> isAPodReady(pod -> labelValue.equals(pod.getMetadata().getLabels().get(labelName)));
+        return onNamespaceChange(() -> isAPodReady(pod -> labelValue.equals(pod.getMetadata().getLabels().get(labelName))));
     }
 
     public static BooleanSupplier areNPodsReady(String appName, int n) {
-        return () -> _areNPodsReady(pod -> appName.equals(pod.getMetadata().getLabels().get("name")), n);
+        return onNamespaceChange(() -> _areNPodsReady(pod -> appName.equals(pod.getMetadata().getLabels().get("name")), n));
     }
 
     public static BooleanSupplier areNPodsReady(final String labelName, final String labelValue, int n) {
-        return () -> _areNPodsReady(pod -> labelValue.equals(pod.getMetadata().getLabels().get(labelName)), n);
+        return onNamespaceChange(() -> _areNPodsReady(pod -> labelValue.equals(pod.getMetadata().getLabels().get(labelName)), n));
     }
 
     public static BooleanSupplier areExactlyNPodsReady(final String labelName, final String labelValue, int n) {
-        return () -> _areExactlyNPodsReady(pod -> labelValue.equals(pod.getMetadata().getLabels().get(labelName)), n);
+        return onNamespaceChange(() -> _areExactlyNPodsReady(pod -> labelValue.equals(pod.getMetadata().getLabels().get(labelName)), n));
     }
 
     public static BooleanSupplier areExactlyNPodsReady(String appName, int n) {
-        return () -> _areExactlyNPodsReady(pod -> appName.equals(pod.getMetadata().getLabels().get("name")), n);
+        return onNamespaceChange(() -> _areExactlyNPodsReady(pod -> appName.equals(pod.getMetadata().getLabels().get("name")), n));
     }
 
     public static BooleanSupplier areNPodsReady(Predicate<Pod> podFilter, int n) {
-        return () -> _areNPodsReady(podFilter, n);
+        return onNamespaceChange(() -> _areNPodsReady(podFilter, n));
     }
 
     public static BooleanSupplier areNoPodsPresent(final String appName) {
-        return () -> OpenShiftUtils.getInstance().getLabeledPods("syndesis.io/component", appName).size() == 0;
+        return onNamespaceChange(() -> NamespaceCache.pods().withLabel("syndesis.io/component", appName).isEmpty());
     }
 
     public static BooleanSupplier areNoPodsPresent(Predicate<Pod> podFilter) {
-        return () -> openshift.getPods().stream().filter(podFilter).count() == 0;
+        return onNamespaceChange(() -> NamespaceCache.pods().list().stream().filter(podFilter).count() == 0);
     }
 
     public static BooleanSupplier hasPodRestarted(String appName) {
-        return () -> hasAnyPodRestarted(pod -> appName.equals(pod.getMetadata().getLabels().get("name")));
+        return onNamespaceChange(() -> hasAnyPodRestarted(pod -> appName.equals(pod.getMetadata().getLabels().get("name"))));
     }
 
     public static BooleanSupplier hasPodRestarted(final String labelName, final String labelValue) {
-        return () -> hasAnyPodRestarted(pod -> labelValue.equals(pod.getMetadata().getLabels().get(labelName)));
+        return onNamespaceChange(() -> hasAnyPodRestarted(pod -> labelValue.equals(pod.getMetadata().getLabels().get(labelName))));
     }
 
     public static BooleanSupplier hasPodRestarted(Predicate<Pod> podFilter) {
-        return () -> hasAnyPodRestarted(podFilter);
+        return onNamespaceChange(() -> hasAnyPodRestarted(podFilter));
     }
 
     public static BooleanSupplier hasPodRestartedAtLeastNTimes(Predicate<Pod> podFilter, int n) {
-        return () -> openshift.getPods().stream().filter(podFilter).filter(p -> OpenShiftWaitUtils.hasPodRestartedAtLeastNTimes(p, n)).count() > 0;
+        return onNamespaceChange(() -> NamespaceCache.pods().list().stream().filter(podFilter).filter(p -> OpenShiftWaitUtils.hasPodRestartedAtLeastNTimes(p, n)).count() > 0);
     }
 
     public static BooleanSupplier conditionTrueForNIterations(BooleanSupplier condition, int iters) {
@@ -179,7 +181,6 @@ public class OpenShiftWaitUtils {
         timeout = System.currentTimeMillis() + timeout;
 
         while (System.currentTimeMillis() < timeout) {
-
             X x = supplier.get();
 
             if (failCondition != null && failCondition.apply(x)) {
@@ -190,17 +191,23 @@ public class OpenShiftWaitUtils {
                 return true;
             }
 
-            Thread.sleep(interval);
+            Thread.sleep(Math.max(0, Math.min(interval, timeout - System.currentTimeMillis())));
         }
 
         throw new TimeoutException();
     }
 
+    /**
+     * Waits for the condition. Conditions created by {@link #onNamespaceChange(BooleanSupplier)} are re-checked as soon
+     * as the namespace changes, at most once per {@link #CHANGE_RECHECK_INTERVAL}, the others once per interval.
+     */
     public static boolean waitFor(BooleanSupplier condition, BooleanSupplier failCondition, long interval, long timeout) throws InterruptedException, TimeoutException {
-
+        final boolean onChange = condition instanceof NamespaceCondition && (failCondition == null || failCondition instanceof NamespaceCondition);
         timeout = System.currentTimeMillis() + timeout;
 
         while (System.currentTimeMillis() < timeout) {
+            final long changes = NamespaceCache.changes();
+            final long checked = System.currentTimeMillis();
 
             if (failCondition != null && failCondition.getAsBoolean()) {
                 return false;
@@ -210,12 +217,40 @@ public class OpenShiftWaitUtils {
                 return true;
             }
 
-            Thread.sleep(interval);
+            awaitNextCheck(onChange, changes, checked, interval, timeout);
         }
 
         throw new TimeoutException();
     }
 
+    /**
+     * Marks a condition that only reads the {@link NamespaceCache}, so that waits re-check it when the namespace changes
+     * instead of waiting for the whole interval. Conditions calling REST endpoints, databases and the like must not be
+     * marked, they would be evaluated on every pod or build event.
+     */
+    public static BooleanSupplier onNamespaceChange(BooleanSupplier condition) {
+        return condition instanceof NamespaceCondition ? condition : new NamespaceCondition(condition);
+    }
+
+    private static void awaitNextCheck(boolean onChange, long changes, long checked, long interval, long deadline) throws InterruptedException {
+        final long next = Math.min(checked + interval, deadline);
+        if (onChange) {
+            NamespaceCache.awaitChange(changes, next - System.currentTimeMillis());
+            // changes come in bursts, throttle the re-checks
+            final long throttled = Math.min(checked + Math.min(interval, CHANGE_RECHECK_INTERVAL), deadline);
+            sleepUntil(throttled);
+        } else {
+            sleepUntil(next);
+        }
+    }
+
+    private static void sleepUntil(long time) throws InterruptedException {
+        final long remaining = time - System.currentTimeMillis();
+        if (remaining > 0) {
+            Thread.sleep(remaining);
+        }
+    }
+
     public static boolean waitFor(BooleanSupplier condition, BooleanSupplier failCondition) throws InterruptedException, TimeoutException {
         return waitFor(condition, failCondition, DEFAULT_WAIT_INTERVAL, 5 * 60 * 1000);
     }
@@ -249,7 +284,7 @@ public class OpenShiftWaitUtils {
 
         String podPartialNextName = podPartialName + "-" + nextNr;
         log.info("Waiting for {} pod is reloaded", podPartialNextName);
-        waitFor(() -> (areExactlyNPods(podPartialNextName, 1).getAsBoolean()));
+        waitFor(areExactlyNPods(podPartialNextName, 1));
         //There was an issue with meta pod not listening straight after deploying - waiting a bit here
         // UI even gives 60s after integration gets into running state, lets go with 30 here
         TestUtils.sleepForJenkinsDelayIfHigher(30);
@@ -264,17 +299,30 @@ public class OpenShiftWaitUtils {
      */
     public static void waitUntilPodAppears(String podPartialName) {
         try {
-            waitFor(() -> isPodPresent(podPartialName), 5*60*1000);
+            waitFor(onNamespaceChange(() -> isPodPresent(podPartialName)), 5*60*1000);
         } catch (TimeoutException | InterruptedException e) {
             fail("Error thrown while checking if pod exists", e);
         }
     }
 
     private static boolean isPodPresent(String podPartialName) {
-        Optional<Pod> integrationPod = OpenShiftUtils.getInstance().getPods().stream()
+        Optional<Pod> integrationPod = NamespaceCache.pods().list().stream()
                 .filter(p -> !p.getMetadata().getName().contains("build"))
                 .filter(p -> !p.getMetadata().getName().contains("deploy"))
                 .filter(p -> p.getMetadata().getName().contains(podPartialName)).findFirst();
         return integrationPod.isPresent();
     }
+
+    private static final class NamespaceCondition implements BooleanSupplier {
+        private final BooleanSupplier condition;
+
+        private NamespaceCondition(BooleanSupplier condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        public boolean getAsBoolean() {
+            return condition.getAsBoolean();
+        }
+    }
 }
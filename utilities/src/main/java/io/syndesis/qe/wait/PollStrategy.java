@@ -0,0 +1,60 @@
+package io.syndesis.qe.wait;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides how long to sleep between two probes of a polled condition.
+ */
+@FunctionalInterface
+public interface PollStrategy {
+
+    /**
+     * @param probe number of probes issued so far, starting at 1
+     * @param elapsedMs time since the wait started, including the time spent in probes
+     * @param remainingMs time left until the deadline
+     * @return delay before the next probe in milliseconds
+     */
+    long nextDelay(int probe, long elapsedMs, long remainingMs);
+
+    /**
+     * Always the same delay.
+     */
+    static PollStrategy fixed(long delayMs) {
+        return (probe, elapsed, remaining) -> delayMs;
+    }
+
+    /**
+     * Delay starts at initialMs and is multiplied by factor after each probe up to maxMs. Each delay is randomized by
+     * +-jitter (0.2 = 20 %) so that parallel waits don't probe in lockstep.
+     */
+    static PollStrategy exponential(long initialMs, long maxMs, double factor, double jitter) {
+        return (probe, elapsed, remaining) -> {
+            final double base = Math.min(maxMs, initialMs * Math.pow(factor, probe - 1));
+            final double randomized = base * (1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1));
+            return Math.max(1, Math.min(maxMs, Math.round(randomized)));
+        };
+    }
+
+    /**
+     * Probes every fastMs during the first fastPeriodMs, then every slowMs.
+     */
+    static PollStrategy fastThenSlow(long fastMs, long fastPeriodMs, long slowMs) {
+        return (probe, elapsed, remaining) -> elapsed < fastPeriodMs ? fastMs : slowMs;
+    }
+
+    /**
+     * Never sleeps past the deadline, so the last probe happens right at the deadline instead of up to one delay after
+     * or before it.
+     */
+    static PollStrategy deadlineAware(PollStrategy delegate) {
+        return (probe, elapsed, remaining) -> Math.max(0, Math.min(delegate.nextDelay(probe, elapsed, remaining), remaining));
+    }
+
+    /**
+     * Default strategy for a condition that used to be polled every maxDelayMs: starts with short delays so that quick
+     * conditions resolve in milliseconds, backs off to maxDelayMs and never oversleeps the deadline.
+     */
+    static PollStrategy backoff(long maxDelayMs) {
+        return deadlineAware(exponential(Math.min(50L, maxDelayMs), maxDelayMs, 2.0, 0.2));
+    }
+}
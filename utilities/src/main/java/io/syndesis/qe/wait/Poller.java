@@ -0,0 +1,135 @@
+package io.syndesis.qe.wait;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Polls a value until it satisfies a condition or the deadline passes.
+ * <p>
+ * Time is measured on the monotonic clock and includes the time spent in the probes, so a slow supplier doesn't make the
+ * wait longer than the timeout. Every wait records how many probes it issued and how long it took, aggregated by the
+ * name of the wait in {@link #statistics()}.
+ */
+@Slf4j
+public final class Poller {
+    private static final Map<String, Statistics> STATISTICS = new ConcurrentHashMap<>();
+
+    private Poller() {
+    }
+
+    /**
+     * @param name name of the wait in the statistics
+     * @param supplier supplier of the polled value
+     * @param condition condition the value has to satisfy
+     * @param timeoutMs maximum time to wait
+     * @param strategy delays between probes
+     * @param <T> polled value type
+     * @return result with the last polled value and statistics
+     */
+    public static <T> Result<T> poll(String name, Supplier<T> supplier, Predicate<T> condition, long timeoutMs, PollStrategy strategy) {
+        final long start = System.nanoTime();
+        final long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        int probes = 0;
+        T value;
+        boolean success;
+        while (true) {
+            value = supplier.get();
+            probes++;
+            success = condition.test(value);
+            final long now = System.nanoTime();
+            if (success || now - deadline >= 0) {
+                break;
+            }
+
+            final long delay = strategy.nextDelay(probes, TimeUnit.NANOSECONDS.toMillis(now - start), TimeUnit.NANOSECONDS.toMillis(deadline - now));
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                log.debug("Interrupted while waiting for {}", name, e);
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        final Result<T> result = new Result<>(value, success, probes, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.debug("Wait for {}: {}", name, result);
+        STATISTICS.computeIfAbsent(name, n -> new Statistics()).record(result);
+        return result;
+    }
+
+    /**
+     * @return statistics of all waits by name since the start or the last {@link #resetStatistics()}
+     */
+    public static Map<String, Statistics> statistics() {
+        return new TreeMap<>(STATISTICS);
+    }
+
+    /**
+     * @return one line of statistics per wait name
+     */
+    public static String summary() {
+        return statistics().entrySet().stream()
+                .map(e -> e.getKey() + ": " + e.getValue())
+                .collect(Collectors.joining("\n"));
+    }
+
+    public static void resetStatistics() {
+        STATISTICS.clear();
+    }
+
+    @Getter
+    public static final class Result<T> {
+        private final T value;
+        private final boolean success;
+        private final int probes;
+        private final long elapsedMs;
+
+        private Result(T value, boolean success, int probes, long elapsedMs) {
+            this.value = value;
+            this.success = success;
+            this.probes = probes;
+            this.elapsedMs = elapsedMs;
+        }
+
+        @Override
+        public String toString() {
+            return (success ? "succeeded" : "failed") + " after " + elapsedMs + " ms and " + probes + " probes";
+        }
+    }
+
+    /**
+     * Aggregated results of the waits with one name.
+     */
+    @Getter
+    public static final class Statistics {
+        private int waits;
+        private int failures;
+        private long probes;
+        private long totalMs;
+        private long maxMs;
+
+        private synchronized void record(Result<?> result) {
+            waits++;
+            if (!result.isSuccess()) {
+                failures++;
+            }
+            probes += result.getProbes();
+            totalMs += result.getElapsedMs();
+            maxMs = Math.max(maxMs, result.getElapsedMs());
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("%d waits (%d failed), %d probes, %d ms total, %d ms average, %d ms max",
+                    waits, failures, probes, totalMs, waits == 0 ? 0 : totalMs / waits, maxMs);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package io.syndesis.qe.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class HttpEventCollectorTest {
+    @Test
+    public void splitsTimestampAndSequence() {
+        assertThat(HttpEventCollector.keyPart("1530000000000.42", 0)).isEqualTo(1530000000000L);
+        assertThat(HttpEventCollector.keyPart("1530000000000.42", 1)).isEqualTo(42L);
+    }
+
+    @Test
+    public void acceptsPlainTimestamp() {
+        assertThat(HttpEventCollector.keyPart("1530000000000", 0)).isEqualTo(1530000000000L);
+        assertThat(HttpEventCollector.keyPart("1530000000000", 1)).isZero();
+    }
+}
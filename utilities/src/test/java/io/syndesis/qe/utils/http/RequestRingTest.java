@@ -0,0 +1,84 @@
+package io.syndesis.qe.utils.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class RequestRingTest {
+    @Test
+    public void keepsRequestsOldestFirst() {
+        final RequestRing ring = new RequestRing(4);
+        record(ring, 3);
+
+        assertThat(sequences(ring)).containsExactly(0L, 1L, 2L);
+    }
+
+    @Test
+    public void roundsCapacityUpToPowerOfTwo() {
+        final RequestRing ring = new RequestRing(3);
+        record(ring, 6);
+
+        assertThat(sequences(ring)).containsExactly(2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    public void overwritesOldestOnWrapAround() {
+        final RequestRing ring = new RequestRing(4);
+        record(ring, 10);
+
+        assertThat(sequences(ring)).containsExactly(6L, 7L, 8L, 9L);
+    }
+
+    @Test
+    public void forgetsRequestsBeforeClear() {
+        final RequestRing ring = new RequestRing(4);
+        record(ring, 3);
+        ring.clear();
+        assertThat(ring.snapshot()).isEmpty();
+
+        record(ring, 2);
+        assertThat(sequences(ring)).containsExactly(3L, 4L);
+    }
+
+    @Test
+    public void skipsClaimedButUnpublishedSlots() {
+        final RequestRing ring = new RequestRing(4);
+        final long first = ring.claim();
+        final long second = ring.claim();
+        final long third = ring.claim();
+        ring.publish(request(first));
+        ring.publish(request(third));
+
+        assertThat(sequences(ring)).containsExactly(0L, 2L);
+
+        ring.publish(request(second));
+        assertThat(sequences(ring)).containsExactly(0L, 1L, 2L);
+    }
+
+    @Test
+    public void skipsSlotStillHoldingOlderRequest() {
+        final RequestRing ring = new RequestRing(4);
+        record(ring, 4);
+        // claimed, but the slot still holds request 0 until it is published
+        ring.claim();
+
+        assertThat(sequences(ring)).containsExactly(1L, 2L, 3L);
+    }
+
+    private static void record(RequestRing ring, int count) {
+        for (int i = 0; i < count; i++) {
+            ring.publish(request(ring.claim()));
+        }
+    }
+
+    private static RecordedRequest request(long sequence) {
+        return new RecordedRequest(sequence, 0L, "GET", "/", 200, 0L, 0L);
+    }
+
+    private static List<Long> sequences(RequestRing ring) {
+        return ring.snapshot().stream().map(RecordedRequest::getSequence).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,46 @@
+package io.syndesis.qe.utils.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class PacerTest {
+    @Test
+    public void spreadsMessagesOverDuration() {
+        final Pacer pacer = new Pacer(System.nanoTime(), 500L, 20);
+        int messages = 0;
+        while (pacer.await()) {
+            messages++;
+        }
+        // due at 0, 50, ..., 450 ms
+        assertThat(messages).isBetween(9, 10);
+    }
+
+    @Test
+    public void endsImmediatelyAfterDuration() {
+        final Pacer pacer = new Pacer(System.nanoTime() - 1_000_000_000L, 500L, 0);
+
+        assertThat(pacer.await()).isFalse();
+    }
+
+    @Test
+    public void unlimitedRateDoesNotWait() {
+        final long start = System.nanoTime();
+        final Pacer pacer = new Pacer(start, 60000L, 0);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(pacer.await()).isTrue();
+        }
+        assertThat(System.nanoTime() - start).isLessThan(1_000_000_000L);
+    }
+
+    @Test
+    public void stopsWhenInterrupted() {
+        final Pacer pacer = new Pacer(System.nanoTime(), 60000L, 1);
+        Thread.currentThread().interrupt();
+        try {
+            assertThat(pacer.await()).isFalse();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
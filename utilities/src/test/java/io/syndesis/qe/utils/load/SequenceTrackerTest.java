@@ -0,0 +1,32 @@
+package io.syndesis.qe.utils.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class SequenceTrackerTest {
+    @Test
+    public void countsDuplicates() {
+        final SequenceTracker tracker = new SequenceTracker();
+
+        assertThat(tracker.add(0)).isTrue();
+        assertThat(tracker.add(1)).isTrue();
+        assertThat(tracker.add(0)).isFalse();
+        assertThat(tracker.add(0)).isFalse();
+
+        assertThat(tracker.getUnique()).isEqualTo(2);
+        assertThat(tracker.getDuplicates()).isEqualTo(2);
+    }
+
+    @Test
+    public void tracksSendersSeparately() {
+        final SequenceTracker tracker = new SequenceTracker();
+
+        assertThat(tracker.add(0, 5)).isTrue();
+        assertThat(tracker.add(1, 5)).isTrue();
+        assertThat(tracker.add(1, 5)).isFalse();
+
+        assertThat(tracker.getUnique()).isEqualTo(2);
+        assertThat(tracker.getDuplicates()).isEqualTo(1);
+    }
+}
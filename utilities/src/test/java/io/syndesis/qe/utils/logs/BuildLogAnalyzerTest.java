@@ -0,0 +1,112 @@
+package io.syndesis.qe.utils.logs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import java.time.Instant;
+
+public class BuildLogAnalyzerTest {
+    private static final String INDY = "http://indy.example.com/api/folo/track/build/maven/group/build";
+    private static final Instant START = Instant.parse("2018-06-01T10:00:00Z");
+
+    @Test
+    public void countsMaven33Transfers() {
+        final BuildLogAnalyzer analyzer = analyzer(INDY);
+        accept(analyzer, 0,
+                "[INFO] Downloading: " + INDY + "/org/example/missing/1.0/missing-1.0.pom",
+                "[INFO] Downloading: https://repo1.maven.org/maven2/org/example/missing/1.0/missing-1.0.pom",
+                "[INFO] Downloaded: https://repo1.maven.org/maven2/org/example/missing/1.0/missing-1.0.pom (2 KB at 12.3 KB/sec)",
+                "[INFO] Downloading: " + INDY + "/org/example/lib/1.0/lib-1.0.jar",
+                "[INFO] Downloaded: " + INDY + "/org/example/lib/1.0/lib-1.0.jar (1.5 MB at 800.2 KB/sec)",
+                "[INFO] Downloading: " + INDY + "/org/example/lib/1.0/lib-1.0.sha1",
+                "[INFO] Downloaded: " + INDY + "/org/example/lib/1.0/lib-1.0.sha1 (512 B at 2.1 KB/sec)");
+
+        final BuildLogReport report = analyzer.report();
+        assertThat(report.getDownloadAttempts()).isEqualTo(4);
+        assertThat(report.getDownloads()).isEqualTo(3);
+        assertThat(report.getDownloadedBytes()).isEqualTo(2 * 1024 + 1536 * 1024 + 512);
+        // the failed lookup in Indy and the download from central
+        assertThat(report.getIndyMisses()).isEqualTo(2);
+        assertThat(report.getRepositories()).containsOnlyKeys("http://indy.example.com", "https://repo1.maven.org");
+        assertThat(report.getRepositories().get("http://indy.example.com").getFailedLookups()).isEqualTo(1);
+        assertThat(report.getRepositories().get("https://repo1.maven.org").getBytes()).isEqualTo(2 * 1024);
+    }
+
+    @Test
+    public void countsMaven35Transfers() {
+        final BuildLogAnalyzer analyzer = analyzer(null);
+        accept(analyzer, 0,
+                "[INFO] Downloading from indy: http://indy/api/group/public/org/example/lib/1.0/lib-1.0.pom",
+                "[INFO] Downloaded from indy: http://indy/api/group/public/org/example/lib/1.0/lib-1.0.pom (12 kB at 40 kB/s)",
+                "[INFO] Downloading from central: https://repo.maven.apache.org/maven2/org/example/lib/1.0/lib-1.0.jar",
+                "[INFO] Downloaded from central: https://repo.maven.apache.org/maven2/org/example/lib/1.0/lib-1.0.jar (1.2 MB at 3.4 MB/s)",
+                "[INFO] Downloading from central: https://repo.maven.apache.org/maven2/org/example/other/1.0/other-1.0.pom",
+                "Progress (1): 2.0/4.1 kB");
+
+        final BuildLogReport report = analyzer.report();
+        assertThat(report.getDownloadAttempts()).isEqualTo(3);
+        assertThat(report.getDownloads()).isEqualTo(2);
+        assertThat(report.getDownloadedBytes()).isEqualTo(12_000 + (long) (1.2 * 1024 * 1024));
+        // only the download from central, lookups outside Indy don't count
+        assertThat(report.getIndyMisses()).isEqualTo(1);
+        assertThat(report.getRepositories()).containsOnlyKeys("indy", "central");
+        assertThat(report.getRepositories().get("central").getFailedLookups()).isEqualTo(1);
+    }
+
+    @Test
+    public void downloadWithoutSizeCountsNoBytes() {
+        final BuildLogAnalyzer analyzer = analyzer(null);
+        accept(analyzer, 0, "[INFO] Downloaded: https://repo1.maven.org/maven2/org/example/lib/1.0/lib-1.0.jar");
+
+        assertThat(analyzer.report().getDownloads()).isEqualTo(1);
+        assertThat(analyzer.report().getDownloadedBytes()).isEqualTo(0);
+    }
+
+    @Test
+    public void measuresExecutionsAndPush() {
+        final BuildLogAnalyzer analyzer = analyzer(null);
+        accept(analyzer, 0, "[INFO] --- maven-resources-plugin:3.0.1:resources (default-resources) @ project ---");
+        accept(analyzer, 1, "[INFO] --- maven-compiler-plugin:3.7.0:compile (default-compile) @ project ---");
+        accept(analyzer, 4, "[INFO] --- frontend-maven-plugin:1.6:npm (npm install) @ ui ---");
+        accept(analyzer, 10, "[INFO] BUILD SUCCESS");
+        accept(analyzer, 12, "Pushing image 172.30.1.1:5000/syndesis/i-project:latest ...");
+        accept(analyzer, 15, "Push successful");
+
+        final BuildLogReport report = analyzer.report();
+        assertThat(report.isComplete()).isTrue();
+        assertThat(report.isSuccessful()).isTrue();
+        assertThat(report.getTotalTimeMs()).isEqualTo(15_000);
+        assertThat(report.getPushTimeMs()).isEqualTo(3_000);
+        assertThat(report.getExecutions()).extracting(BuildLogReport.Execution::getName).containsExactly(
+                "maven-resources-plugin:resources (default-resources) @ project",
+                "maven-compiler-plugin:compile (default-compile) @ project",
+                "frontend-maven-plugin:npm (npm install) @ ui");
+        assertThat(report.getPhases())
+                .containsEntry("process-resources", 1_000L)
+                .containsEntry("compile", 3_000L)
+                .containsEntry("npm", 6_000L);
+    }
+
+    @Test
+    public void recordsFailedBuild() {
+        final BuildLogAnalyzer analyzer = analyzer(null);
+        accept(analyzer, 0, "[INFO] --- maven-compiler-plugin:3.7.0:compile (default-compile) @ project ---");
+        accept(analyzer, 2, "[INFO] BUILD FAILURE");
+
+        final BuildLogReport report = analyzer.report();
+        assertThat(report.isComplete()).isTrue();
+        assertThat(report.isSuccessful()).isFalse();
+        assertThat(report.getPhases()).containsEntry("compile", 2_000L);
+    }
+
+    private static BuildLogAnalyzer analyzer(String indyRepository) {
+        return new BuildLogAnalyzer(null, "project", "i-project-1-build", indyRepository);
+    }
+
+    private static void accept(BuildLogAnalyzer analyzer, int second, String... lines) {
+        for (String line : lines) {
+            analyzer.accept(START.plusSeconds(second), line);
+        }
+    }
+}